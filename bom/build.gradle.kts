@@ -13,8 +13,11 @@ dependencies {
   constraints {
     sequenceOf(
       "core",
+      "processor",
       "caffeine-provider",
-      "gson-provider"
+      "gson-provider",
+      "memory-provider",
+      "offheap-provider"
     ).forEach {
       api(project(":${rootProject.name}-$it"))
     }
@@ -23,10 +23,16 @@
  */
 package team.emptyte.storage;
 
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 
 public abstract class Identity<ID> {
   public ID id;
+  /**
+   * The stored version of this entity, {@code 0} if it has never been saved through a
+   * versioned operation. Maintained by the repository, not by type serializers.
+   */
+  private transient long version;
 
   public Identity(final @NotNull ID id) {
     this.id = id;
@@ -35,4 +41,17 @@ public abstract class Identity<ID> {
   public @NotNull ID id() {
     return this.id;
   }
+
+  public long version() {
+    return this.version;
+  }
+
+  /**
+   * Assigns the stored version. Repositories call this on every versioned write and read;
+   * application code must not, or its next conditional save checks the wrong version.
+   */
+  @ApiStatus.Internal
+  public void version(final long version) {
+    this.version = version;
+  }
 }
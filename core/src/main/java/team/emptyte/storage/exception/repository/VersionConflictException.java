@@ -0,0 +1,59 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.exception.repository;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Serial;
+
+public class VersionConflictException extends RepositoryException {
+  @Serial
+  private static final long serialVersionUID = 1L;
+
+  private final transient Object id;
+  private final long expectedVersion;
+  private final long actualVersion;
+
+  public VersionConflictException(final @NotNull Object id, final long expectedVersion, final long actualVersion) {
+    super("Version conflict for entity with id: " + id + " (expected " + expectedVersion + ", found " + actualVersion + ")");
+    this.id = id;
+    this.expectedVersion = expectedVersion;
+    this.actualVersion = actualVersion;
+  }
+
+  public @NotNull Object id() {
+    return this.id;
+  }
+
+  public long expectedVersion() {
+    return this.expectedVersion;
+  }
+
+  /**
+   * Returns the version currently stored, {@code 0} if the entity does not exist.
+   */
+  public long actualVersion() {
+    return this.actualVersion;
+  }
+}
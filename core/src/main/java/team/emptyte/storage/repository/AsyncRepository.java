@@ -26,48 +26,377 @@ package team.emptyte.storage.repository;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import team.emptyte.storage.Identity;
+import team.emptyte.storage.repository.concurrent.Cancellation;
+import team.emptyte.storage.repository.concurrent.InFlightLimiter;
+import team.emptyte.storage.repository.concurrent.PriorityExecutor;
+import team.emptyte.storage.repository.event.ChangeFeed;
+import team.emptyte.storage.repository.event.DeliveryPolicy;
+import team.emptyte.storage.repository.event.RepositoryListener;
+import team.emptyte.storage.repository.event.Subscription;
+import team.emptyte.storage.repository.query.Cursor;
+import team.emptyte.storage.repository.query.Page;
+import team.emptyte.storage.repository.query.Query;
 
+import java.time.Duration;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public abstract class AsyncRepository<T extends Identity<ID>, ID> implements Repository<T, ID> {
+  private static final Operation[] OPERATIONS = Operation.values();
+
   private final Executor executor;
+  private final Executor computeExecutor;
+  private final InFlightLimiter limiter;
+  private final Executor[] executors = new Executor[OPERATIONS.length];
+  private final Executor[] computeExecutors = new Executor[OPERATIONS.length];
+  private final ChangeFeed<T, ID> changes;
 
   public AsyncRepository(final @NotNull Executor executor) {
-    this.executor = executor;
+    this(executor, executor);
+  }
+
+  public AsyncRepository(final @NotNull Executor ioExecutor, final @NotNull Executor computeExecutor) {
+    this(ioExecutor, computeExecutor, InFlightLimiter.unbounded());
+  }
+
+  public AsyncRepository(final @NotNull Executor ioExecutor, final @NotNull Executor computeExecutor, final @NotNull InFlightLimiter limiter) {
+    this(ioExecutor, computeExecutor, limiter, new ChangeFeed<>());
+  }
+
+  /**
+   * Creates a repository publishing to {@code changes}, for wrappers whose writes go through a
+   * repository that already owns a feed.
+   */
+  protected AsyncRepository(final @NotNull Executor ioExecutor, final @NotNull Executor computeExecutor, final @NotNull InFlightLimiter limiter, final @NotNull ChangeFeed<T, ID> changes) {
+    this.executor = ioExecutor;
+    this.computeExecutor = computeExecutor;
+    this.limiter = limiter;
+    this.changes = changes;
+    for (final Operation operation : OPERATIONS) {
+      this.executors[operation.ordinal()] = prioritized(ioExecutor, operation);
+      this.computeExecutors[operation.ordinal()] = prioritized(computeExecutor, operation);
+    }
+  }
+
+  private static @NotNull Executor prioritized(final @NotNull Executor executor, final @NotNull Operation operation) {
+    if (executor instanceof PriorityExecutor priorityExecutor) {
+      return priorityExecutor.lane(operation.priority());
+    }
+    return executor;
   }
 
   protected @NotNull Executor executor() {
     return this.executor;
   }
 
+  protected @NotNull Executor computeExecutor() {
+    return this.computeExecutor;
+  }
+
+  /**
+   * Returns the feed the provider publishes its writes to, delivering on a dispatcher thread of
+   * its own.
+   */
+  protected @NotNull ChangeFeed<T, ID> changes() {
+    return this.changes;
+  }
+
+  @Override
+  public @NotNull Subscription subscribe(final @NotNull RepositoryListener<T, ID> listener, final @NotNull DeliveryPolicy policy) {
+    return this.changes.subscribe(listener, policy);
+  }
+
+  /**
+   * Returns the I/O executor to run {@code operation} on, honoring its priority when the
+   * executor is a {@link PriorityExecutor}.
+   */
+  protected @NotNull Executor executor(final @NotNull Operation operation) {
+    return this.executors[operation.ordinal()];
+  }
+
+  protected @NotNull Executor computeExecutor(final @NotNull Operation operation) {
+    return this.computeExecutors[operation.ordinal()];
+  }
+
+  public @NotNull InFlightLimiter limiter() {
+    return this.limiter;
+  }
+
+  /**
+   * Returns whether {@code operation} completes in memory without blocking, letting it run on
+   * the calling thread and return an already completed future instead of being scheduled.
+   * Such operations bypass the in-flight limiter, priorities and timeouts, as they finish
+   * before any of them could apply.
+   */
+  protected boolean nonBlocking(final @NotNull Operation operation) {
+    return false;
+  }
+
+  /**
+   * Runs {@code task} on the I/O executor once the in-flight limiter admits {@code operation},
+   * or inline if the operation is {@link #nonBlocking(Operation) non-blocking}. The task is
+   * skipped if the returned future is cancelled, or its {@code timeout} elapses, before it starts.
+   */
+  protected <R> @NotNull CompletableFuture<R> submit(final @NotNull Operation operation, final @Nullable Duration timeout, final @NotNull Supplier<R> task) {
+    return this.schedule(operation, timeout, cancellation -> task.get());
+  }
+
+  private <R> @NotNull CompletableFuture<R> schedule(final @NotNull Operation operation, final @Nullable Duration timeout, final @NotNull Function<@NotNull Cancellation, R> task) {
+    if (this.nonBlocking(operation)) {
+      try {
+        return CompletableFuture.completedFuture(task.apply(Cancellation.NONE));
+      } catch (final RuntimeException e) {
+        return CompletableFuture.failedFuture(e);
+      }
+    }
+    return this.admit(operation, timeout, cancellation -> CompletableFuture.supplyAsync(() -> {
+      cancellation.checkpoint();
+      return task.apply(cancellation);
+    }, this.executor(operation)));
+  }
+
+  /**
+   * Starts the pipeline built by {@code stages} once the in-flight limiter admits {@code operation},
+   * holding the slot until the pipeline itself finishes, even when the returned future already
+   * timed out or was cancelled. Rejections surface as a failed future.
+   *
+   * <p>The returned future completes with the pipeline's outcome, or exceptionally with a
+   * {@link java.util.concurrent.TimeoutException} once {@code timeout} elapses. Stages should call
+   * {@link Cancellation#checkpoint()} before doing work so cancelled or expired operations stop
+   * consuming capacity.</p>
+   */
+  protected <R> @NotNull CompletableFuture<R> admit(
+    final @NotNull Operation operation,
+    final @Nullable Duration timeout,
+    final @NotNull Function<@NotNull Cancellation, @NotNull CompletableFuture<R>> stages
+  ) {
+    try {
+      this.limiter.acquire(operation);
+    } catch (final RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    final CompletableFuture<R> result = new CompletableFuture<>();
+    final Cancellation cancellation;
+    if (timeout == null) {
+      cancellation = Cancellation.of(result);
+    } else {
+      cancellation = Cancellation.of(result, System.nanoTime() + timeout.toNanos());
+      result.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+    final CompletableFuture<R> pipeline;
+    try {
+      pipeline = stages.apply(cancellation);
+    } catch (final RuntimeException e) {
+      this.limiter.release();
+      result.completeExceptionally(e);
+      return result;
+    }
+    pipeline.whenComplete((value, throwable) -> {
+      this.limiter.release();
+      if (throwable != null) {
+        result.completeExceptionally(throwable);
+      } else {
+        result.complete(value);
+      }
+    });
+    return result;
+  }
+
   public @NotNull CompletableFuture<@NotNull Boolean> existsAsync(final @NotNull ID id) {
-    return CompletableFuture.supplyAsync(() -> this.exists(id), this.executor);
+    return this.submit(Operation.EXISTS, null, () -> this.exists(id));
+  }
+
+  public @NotNull CompletableFuture<@NotNull Boolean> existsAsync(final @NotNull ID id, final @NotNull Duration timeout) {
+    return this.submit(Operation.EXISTS, timeout, () -> this.exists(id));
   }
 
   public @NotNull CompletableFuture<@Nullable T> findAsync(final @NotNull ID id) {
-    return CompletableFuture.supplyAsync(() -> this.findSync(id), this.executor);
+    return this.submit(Operation.FIND, null, () -> this.findSync(id));
+  }
+
+  public @NotNull CompletableFuture<@Nullable T> findAsync(final @NotNull ID id, final @NotNull Duration timeout) {
+    return this.submit(Operation.FIND, timeout, () -> this.findSync(id));
   }
 
   public <C extends @NotNull Collection<@NotNull T>> @NotNull CompletableFuture<C> findAllAsync(final @NotNull IntFunction<C> factory) {
-    return CompletableFuture.supplyAsync(() -> this.findAllSync(factory), this.executor);
+    return this.schedule(Operation.FIND_ALL, null, cancellation -> this.findAllSync(factory, cancellation));
+  }
+
+  public <C extends @NotNull Collection<@NotNull T>> @NotNull CompletableFuture<C> findAllAsync(final @NotNull IntFunction<C> factory, final @NotNull Duration timeout) {
+    return this.schedule(Operation.FIND_ALL, timeout, cancellation -> this.findAllSync(factory, cancellation));
+  }
+
+  public <C extends @NotNull Collection<@NotNull T>> @NotNull CompletableFuture<C> findIdRangeAsync(final @NotNull ID from, final @NotNull ID to, final @NotNull IntFunction<C> factory) {
+    return this.submit(Operation.FIND_RANGE, null, () -> this.findIdRangeSync(from, to, factory));
+  }
+
+  public <C extends @NotNull Collection<@NotNull T>> @NotNull CompletableFuture<C> findIdRangeAsync(final @NotNull ID from, final @NotNull ID to, final @NotNull IntFunction<C> factory, final @NotNull Duration timeout) {
+    return this.submit(Operation.FIND_RANGE, timeout, () -> this.findIdRangeSync(from, to, factory));
+  }
+
+  public <C extends @NotNull Collection<@NotNull T>> @NotNull CompletableFuture<C> findByIdPrefixAsync(final @NotNull String prefix, final @NotNull IntFunction<C> factory) {
+    return this.submit(Operation.FIND_RANGE, null, () -> this.findByIdPrefixSync(prefix, factory));
+  }
+
+  public <C extends @NotNull Collection<@NotNull T>> @NotNull CompletableFuture<C> findByIdPrefixAsync(final @NotNull String prefix, final @NotNull IntFunction<C> factory, final @NotNull Duration timeout) {
+    return this.submit(Operation.FIND_RANGE, timeout, () -> this.findByIdPrefixSync(prefix, factory));
+  }
+
+  public @NotNull CompletableFuture<@NotNull List<@NotNull T>> findTopAsync(final int k, final @NotNull Comparator<? super T> comparator) {
+    return this.submit(Operation.FIND_TOP, null, () -> this.findTopSync(k, comparator));
+  }
+
+  public @NotNull CompletableFuture<@NotNull List<@NotNull T>> findTopAsync(final int k, final @NotNull Comparator<? super T> comparator, final @NotNull Duration timeout) {
+    return this.submit(Operation.FIND_TOP, timeout, () -> this.findTopSync(k, comparator));
+  }
+
+  public @NotNull CompletableFuture<@NotNull Page<T, ID>> findPageAsync(final @NotNull Cursor<ID> cursor, final int pageSize) {
+    return this.submit(Operation.FIND_PAGE, null, () -> this.findPageSync(cursor, pageSize));
+  }
+
+  public @NotNull CompletableFuture<@NotNull Page<T, ID>> findPageAsync(final @NotNull Cursor<ID> cursor, final int pageSize, final @NotNull Duration timeout) {
+    return this.submit(Operation.FIND_PAGE, timeout, () -> this.findPageSync(cursor, pageSize));
+  }
+
+  public <C extends @NotNull Collection<@NotNull T>> @NotNull CompletableFuture<C> queryAsync(final @NotNull Query<? super T> query, final @NotNull IntFunction<C> factory) {
+    return this.runQuery(query, Function.identity(), factory, null);
+  }
+
+  public <C extends @NotNull Collection<@NotNull T>> @NotNull CompletableFuture<C> queryAsync(final @NotNull Query<? super T> query, final @NotNull IntFunction<C> factory, final @NotNull Duration timeout) {
+    return this.runQuery(query, Function.identity(), factory, timeout);
+  }
+
+  public <R, C extends Collection<R>> @NotNull CompletableFuture<C> queryAsync(final @NotNull Query<? super T> query, final @NotNull Function<? super T, ? extends R> projection, final @NotNull IntFunction<C> factory) {
+    return this.runQuery(query, projection, factory, null);
+  }
+
+  public <R, C extends Collection<R>> @NotNull CompletableFuture<C> queryAsync(final @NotNull Query<? super T> query, final @NotNull Function<? super T, ? extends R> projection, final @NotNull IntFunction<C> factory, final @NotNull Duration timeout) {
+    return this.runQuery(query, projection, factory, timeout);
+  }
+
+  public @NotNull CompletableFuture<@NotNull Long> countAsync() {
+    return this.submit(Operation.COUNT, null, this::countSync);
+  }
+
+  public @NotNull CompletableFuture<@NotNull Long> countAsync(final @NotNull Duration timeout) {
+    return this.submit(Operation.COUNT, timeout, this::countSync);
+  }
+
+  public <C extends @NotNull Collection<@NotNull ID>> @NotNull CompletableFuture<C> idsAsync(final @NotNull IntFunction<C> factory) {
+    return this.submit(Operation.IDS, null, () -> this.idsSync(factory));
+  }
+
+  public <C extends @NotNull Collection<@NotNull ID>> @NotNull CompletableFuture<C> idsAsync(final @NotNull IntFunction<C> factory, final @NotNull Duration timeout) {
+    return this.submit(Operation.IDS, timeout, () -> this.idsSync(factory));
+  }
+
+  public @NotNull CompletableFuture<@NotNull Long> countAsync(final @NotNull Query<? super T> query) {
+    return this.schedule(Operation.QUERY, null, cancellation -> this.scan(query, cancellation).count());
+  }
+
+  public @NotNull CompletableFuture<@NotNull Long> countAsync(final @NotNull Query<? super T> query, final @NotNull Duration timeout) {
+    return this.schedule(Operation.QUERY, timeout, cancellation -> this.scan(query, cancellation).count());
+  }
+
+  private <R, C extends Collection<R>> @NotNull CompletableFuture<C> runQuery(
+    final @NotNull Query<? super T> query,
+    final @NotNull Function<? super T, ? extends R> projection,
+    final @NotNull IntFunction<C> factory,
+    final @Nullable Duration timeout
+  ) {
+    return this.schedule(Operation.QUERY, timeout, cancellation -> this.scan(query, cancellation).map(projection).collect(Collectors.toCollection(() -> factory.apply(0))));
+  }
+
+  // Checks for cancellation before each entity is filtered, so an abandoned scan stops early.
+  private @NotNull Stream<@NotNull T> scan(final @NotNull Query<? super T> query, final @NotNull Cancellation cancellation) {
+    return query.apply(this.stream().parallel().peek(entity -> cancellation.checkpoint()));
+  }
+
+  public <C extends @NotNull Collection<@NotNull T>> @NotNull CompletableFuture<C> findByIndexAsync(final @NotNull String index, final @NotNull Object key, final @NotNull IntFunction<C> factory) {
+    return this.submit(Operation.FIND_BY_INDEX, null, () -> this.findByIndexSync(index, key, factory));
+  }
+
+  public <C extends @NotNull Collection<@NotNull T>> @NotNull CompletableFuture<C> findByIndexAsync(final @NotNull String index, final @NotNull Object key, final @NotNull IntFunction<C> factory, final @NotNull Duration timeout) {
+    return this.submit(Operation.FIND_BY_INDEX, timeout, () -> this.findByIndexSync(index, key, factory));
   }
 
   public @NotNull CompletableFuture<@NotNull Boolean> deleteAsync(final @NotNull ID id) {
-    return CompletableFuture.supplyAsync(() -> this.deleteSync(id), this.executor);
+    return this.submit(Operation.DELETE, null, () -> this.deleteSync(id));
+  }
+
+  public @NotNull CompletableFuture<@NotNull Boolean> deleteAsync(final @NotNull ID id, final @NotNull Duration timeout) {
+    return this.submit(Operation.DELETE, timeout, () -> this.deleteSync(id));
   }
 
   public @NotNull CompletableFuture<@Nullable T> deleteAndRetrieveAsync(final @NotNull ID id) {
-    return CompletableFuture.supplyAsync(() -> this.deleteAndRetrieveSync(id), this.executor);
+    return this.submit(Operation.DELETE_AND_RETRIEVE, null, () -> this.deleteAndRetrieveSync(id));
+  }
+
+  public @NotNull CompletableFuture<@Nullable T> deleteAndRetrieveAsync(final @NotNull ID id, final @NotNull Duration timeout) {
+    return this.submit(Operation.DELETE_AND_RETRIEVE, timeout, () -> this.deleteAndRetrieveSync(id));
   }
 
   public @NotNull CompletableFuture<@NotNull Void> deleteAllAsync() {
-    return CompletableFuture.runAsync(this::deleteAllSync, this.executor);
+    return this.submit(Operation.DELETE_ALL, null, () -> {
+      this.deleteAllSync();
+      return null;
+    });
+  }
+
+  public @NotNull CompletableFuture<@NotNull Void> deleteAllAsync(final @NotNull Duration timeout) {
+    return this.submit(Operation.DELETE_ALL, timeout, () -> {
+      this.deleteAllSync();
+      return null;
+    });
   }
 
   public @NotNull CompletableFuture<@NotNull T> saveAsync(final @NotNull T entity) {
-    return CompletableFuture.supplyAsync(() -> this.saveSync(entity), this.executor);
+    return this.submit(Operation.SAVE, null, () -> this.saveSync(entity));
+  }
+
+  public @NotNull CompletableFuture<@NotNull T> saveAsync(final @NotNull T entity, final @NotNull Duration timeout) {
+    return this.submit(Operation.SAVE, timeout, () -> this.saveSync(entity));
+  }
+
+  public @NotNull CompletableFuture<@NotNull T> saveIfVersionAsync(final @NotNull T entity, final long expectedVersion) {
+    return this.submit(Operation.SAVE_IF_VERSION, null, () -> this.saveIfVersionSync(entity, expectedVersion));
+  }
+
+  public @NotNull CompletableFuture<@NotNull T> saveIfVersionAsync(final @NotNull T entity, final long expectedVersion, final @NotNull Duration timeout) {
+    return this.submit(Operation.SAVE_IF_VERSION, timeout, () -> this.saveIfVersionSync(entity, expectedVersion));
+  }
+
+  public @NotNull CompletableFuture<@Nullable T> computeAsync(final @NotNull ID id, final @NotNull BiFunction<? super ID, ? super @Nullable T, ? extends @Nullable T> remapping) {
+    return this.submit(Operation.COMPUTE, null, () -> this.computeSync(id, remapping));
+  }
+
+  public @NotNull CompletableFuture<@Nullable T> computeAsync(final @NotNull ID id, final @NotNull BiFunction<? super ID, ? super @Nullable T, ? extends @Nullable T> remapping, final @NotNull Duration timeout) {
+    return this.submit(Operation.COMPUTE, timeout, () -> this.computeSync(id, remapping));
+  }
+
+  public @NotNull CompletableFuture<@NotNull T> computeIfAbsentAsync(final @NotNull ID id, final @NotNull Function<? super ID, ? extends @NotNull T> factory) {
+    return this.submit(Operation.COMPUTE_IF_ABSENT, null, () -> this.computeIfAbsentSync(id, factory));
+  }
+
+  public @NotNull CompletableFuture<@NotNull T> computeIfAbsentAsync(final @NotNull ID id, final @NotNull Function<? super ID, ? extends @NotNull T> factory, final @NotNull Duration timeout) {
+    return this.submit(Operation.COMPUTE_IF_ABSENT, timeout, () -> this.computeIfAbsentSync(id, factory));
+  }
+
+  public @NotNull CompletableFuture<@Nullable T> mergeAsync(final @NotNull T entity, final @NotNull BiFunction<? super @NotNull T, ? super @NotNull T, ? extends @Nullable T> remapping) {
+    return this.submit(Operation.MERGE, null, () -> this.mergeSync(entity, remapping));
+  }
+
+  public @NotNull CompletableFuture<@Nullable T> mergeAsync(final @NotNull T entity, final @NotNull BiFunction<? super @NotNull T, ? super @NotNull T, ? extends @Nullable T> remapping, final @NotNull Duration timeout) {
+    return this.submit(Operation.MERGE, timeout, () -> this.mergeSync(entity, remapping));
   }
 }
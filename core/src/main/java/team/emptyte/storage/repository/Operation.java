@@ -0,0 +1,69 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository;
+
+import org.jetbrains.annotations.NotNull;
+import team.emptyte.storage.repository.concurrent.Priority;
+
+/**
+ * The kind of work an {@link AsyncRepository} schedules, used by execution policies such as
+ * in-flight limits and priority scheduling to tell reads from writes.
+ */
+public enum Operation {
+  EXISTS(true, Priority.HIGH),
+  COUNT(true, Priority.NORMAL),
+  IDS(true, Priority.LOW),
+  FIND(true, Priority.HIGH),
+  FIND_PROJECTED(true, Priority.HIGH),
+  FIND_ALL(true, Priority.LOW),
+  FIND_BY_INDEX(true, Priority.HIGH),
+  FIND_PAGE(true, Priority.NORMAL),
+  FIND_RANGE(true, Priority.NORMAL),
+  QUERY(true, Priority.LOW),
+  FIND_TOP(true, Priority.LOW),
+  DELETE(false, Priority.NORMAL),
+  DELETE_AND_RETRIEVE(false, Priority.NORMAL),
+  DELETE_ALL(false, Priority.LOW),
+  SAVE(false, Priority.NORMAL),
+  COMPUTE(false, Priority.NORMAL),
+  COMPUTE_IF_ABSENT(false, Priority.NORMAL),
+  MERGE(false, Priority.NORMAL),
+  SAVE_IF_VERSION(false, Priority.NORMAL);
+
+  private final boolean read;
+  private final Priority priority;
+
+  Operation(final boolean read, final @NotNull Priority priority) {
+    this.read = read;
+    this.priority = priority;
+  }
+
+  public boolean read() {
+    return this.read;
+  }
+
+  public @NotNull Priority priority() {
+    return this.priority;
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.emptyte.storage.Identity;
+import team.emptyte.storage.serialization.TypeSerializer;
+
+/**
+ * A repository storing entities in a serialized form {@code O} that can be read back as a
+ * lighter view type without deserializing the whole entity.
+ */
+public interface ProjectableRepository<T extends Identity<ID>, ID, O> extends Repository<T, ID> {
+  /**
+   * Reads the entity stored under {@code id} with {@code projection}, only decoding the fields
+   * the projection asks for where the provider supports it.
+   *
+   * @return the projected view, or {@code null} if no entity exists
+   */
+  <P> @Nullable P findProjectedSync(final @NotNull ID id, final @NotNull TypeSerializer<P, O> projection);
+}
@@ -26,9 +26,25 @@ package team.emptyte.storage.repository;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import team.emptyte.storage.Identity;
+import team.emptyte.storage.exception.repository.VersionConflictException;
+import team.emptyte.storage.repository.concurrent.Cancellation;
+import team.emptyte.storage.repository.event.DeliveryPolicy;
+import team.emptyte.storage.repository.event.RepositoryListener;
+import team.emptyte.storage.repository.event.Subscription;
+import team.emptyte.storage.repository.query.BoundedHeap;
+import team.emptyte.storage.repository.query.Cursor;
+import team.emptyte.storage.repository.query.Page;
+import team.emptyte.storage.repository.query.Query;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public interface Repository<T extends Identity<ID>, ID> {
   boolean exists(final @NotNull ID id);
@@ -37,11 +53,268 @@ public interface Repository<T extends Identity<ID>, ID> {
 
   <C extends Collection<@NotNull T>> @NotNull C findAllSync(final @NotNull IntFunction<C> factory);
 
+  /**
+   * Finds every entity, checking {@code cancellation} between entities so an abandoned scan
+   * stops early with a {@link java.util.concurrent.CancellationException}.
+   */
+  default <C extends Collection<@NotNull T>> @NotNull C findAllSync(final @NotNull IntFunction<C> factory, final @NotNull Cancellation cancellation) {
+    cancellation.checkpoint();
+    return this.findAllSync(factory);
+  }
+
+  /**
+   * Returns a stream over every entity, loading them lazily where the provider can, and
+   * splitting efficiently when made parallel.
+   */
+  default @NotNull Stream<@NotNull T> stream() {
+    return this.findAllSync(ArrayList::new).stream();
+  }
+
+  /**
+   * Returns a stream over the ids of every entity, which providers serve without loading the
+   * entities themselves. The stream should be closed once consumed.
+   */
+  default @NotNull Stream<@NotNull ID> streamIds() {
+    return this.stream().map(Identity::id);
+  }
+
+  default <C extends Collection<@NotNull ID>> @NotNull C idsSync(final @NotNull IntFunction<C> factory) {
+    try (final Stream<ID> ids = this.streamIds()) {
+      return ids.collect(Collectors.toCollection(() -> factory.apply(0)));
+    }
+  }
+
+  default long countSync() {
+    try (final Stream<ID> ids = this.streamIds()) {
+      return ids.count();
+    }
+  }
+
+  default <C extends Collection<@NotNull T>> @NotNull C querySync(final @NotNull Query<? super T> query, final @NotNull IntFunction<C> factory) {
+    return query.apply(this.stream().parallel()).collect(Collectors.toCollection(() -> factory.apply(0)));
+  }
+
+  /**
+   * Runs {@code query} and maps each match with {@code projection}, so only the projected values
+   * are retained.
+   */
+  default <R, C extends Collection<R>> @NotNull C querySync(final @NotNull Query<? super T> query, final @NotNull Function<? super T, ? extends R> projection, final @NotNull IntFunction<C> factory) {
+    return query.apply(this.stream().parallel()).map(projection).collect(Collectors.toCollection(() -> factory.apply(0)));
+  }
+
+  default long countSync(final @NotNull Query<? super T> query) {
+    return query.apply(this.stream().parallel()).count();
+  }
+
+  /**
+   * Finds the entities with ids in {@code [from, to)} by natural id order, in that order.
+   *
+   * @throws ClassCastException if the ids are not {@link Comparable}
+   */
+  @SuppressWarnings("unchecked")
+  default <C extends Collection<@NotNull T>> @NotNull C findIdRangeSync(final @NotNull ID from, final @NotNull ID to, final @NotNull IntFunction<C> factory) {
+    final Comparator<ID> order = (Comparator<ID>) Comparator.naturalOrder();
+    try (final Stream<T> stream = this.stream()) {
+      return stream.filter(entity -> order.compare(entity.id(), from) >= 0 && order.compare(entity.id(), to) < 0)
+        .sorted(Comparator.comparing(Identity::id, order))
+        .collect(Collectors.toCollection(() -> factory.apply(0)));
+    }
+  }
+
+  /**
+   * Finds the entities whose id, in string form, starts with {@code prefix}, in id order.
+   */
+  @SuppressWarnings("unchecked")
+  default <C extends Collection<@NotNull T>> @NotNull C findByIdPrefixSync(final @NotNull String prefix, final @NotNull IntFunction<C> factory) {
+    final Comparator<ID> order = (Comparator<ID>) Comparator.naturalOrder();
+    try (final Stream<T> stream = this.stream()) {
+      return stream.filter(entity -> String.valueOf(entity.id()).startsWith(prefix))
+        .sorted(Comparator.comparing(Identity::id, order))
+        .collect(Collectors.toCollection(() -> factory.apply(0)));
+    }
+  }
+
+  /**
+   * Returns the first {@code k} entities in {@code comparator} order, as sorting every entity
+   * and keeping the head would, but through a parallel scan that retains only {@code k}
+   * candidates per thread. Reverse the comparator to get the greatest values.
+   */
+  default @NotNull List<@NotNull T> findTopSync(final int k, final @NotNull Comparator<? super T> comparator) {
+    try (final Stream<T> stream = this.stream()) {
+      return stream.parallel().collect(BoundedHeap.collector(k, comparator));
+    }
+  }
+
+  /**
+   * Returns up to {@code pageSize} entities with ids after {@code cursor}, in natural id order.
+   * Each page is selected in a single pass with a heap bounded by the page size, so its cost
+   * does not depend on how many pages came before it. The pass is as consistent as
+   * {@link #stream()}: entities written while it runs may or may not be on the page, but
+   * paging resumes from the last id returned and never repeats or skips the ones left alone.
+   *
+   * @throws ClassCastException if the ids are not {@link Comparable}
+   */
+  @SuppressWarnings("unchecked")
+  default @NotNull Page<T, ID> findPageSync(final @NotNull Cursor<ID> cursor, final int pageSize) {
+    if (pageSize < 1) {
+      throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+    }
+    final Comparator<ID> order = (Comparator<ID>) Comparator.naturalOrder();
+    final BoundedHeap<T> heap = new BoundedHeap<>(pageSize + 1, Comparator.comparing(Identity::id, order));
+    try (final Stream<T> stream = this.stream()) {
+      stream.filter(entity -> cursor.admits(entity.id(), order)).forEach(heap::offer);
+    }
+    return Page.of(heap.toSortedList(), pageSize);
+  }
+
+  /**
+   * Finds the entities whose key in the secondary index {@code index} equals {@code key},
+   * compared by string form, without scanning the whole repository.
+   *
+   * @throws IllegalArgumentException if the repository has no such index
+   */
+  default <C extends Collection<@NotNull T>> @NotNull C findByIndexSync(final @NotNull String index, final @NotNull Object key, final @NotNull IntFunction<C> factory) {
+    throw new IllegalArgumentException("Unknown index: " + index);
+  }
+
   boolean deleteSync(final @NotNull ID id);
 
   @Nullable T deleteAndRetrieveSync(final @NotNull ID id);
 
   void deleteAllSync();
 
+  /**
+   * Saves {@code entity} unconditionally, keeping its {@link Identity#version()} as is.
+   */
   @NotNull T saveSync(final @NotNull T entity);
+
+  /**
+   * Saves {@code entity} only if the stored version equals {@code expectedVersion}, using
+   * {@code 0} for an entity that does not exist yet, then advances the entity's version.
+   *
+   * <p>The default implementation runs on this repository's monitor, so it is only atomic
+   * against the other conditional writes of this instance; providers override it with a check
+   * made under their own locking.</p>
+   *
+   * @throws VersionConflictException if the stored version differs
+   */
+  default @NotNull T saveIfVersionSync(final @NotNull T entity, final long expectedVersion) {
+    synchronized (this) {
+      final T current = this.findSync(entity.id());
+      final long actualVersion = current == null ? 0 : current.version();
+      if (actualVersion != expectedVersion) {
+        throw new VersionConflictException(String.valueOf(entity.id()), expectedVersion, actualVersion);
+      }
+      return this.saveVersioned(entity, expectedVersion + 1);
+    }
+  }
+
+  /**
+   * Atomically replaces the entity stored under {@code id} with the result of
+   * {@code remapping}, which receives {@code null} when no entity exists. A {@code null}
+   * result deletes the entity. The new entity's version is advanced past the stored one.
+   *
+   * <p>The default implementation has the same atomicity as
+   * {@link #saveIfVersionSync(Identity, long)}'s.</p>
+   *
+   * @return the new entity, or {@code null} if none is stored afterwards
+   */
+  default @Nullable T computeSync(final @NotNull ID id, final @NotNull BiFunction<? super ID, ? super @Nullable T, ? extends @Nullable T> remapping) {
+    synchronized (this) {
+      final T current = this.findSync(id);
+      final T updated = remapping.apply(id, current);
+      if (updated == null) {
+        if (current != null) {
+          this.deleteSync(id);
+        }
+        return null;
+      }
+      if (!id.equals(updated.id())) {
+        throw new IllegalArgumentException("Computed entity id " + updated.id() + " does not match key " + id);
+      }
+      return this.saveVersioned(updated, (current == null ? 0 : current.version()) + 1);
+    }
+  }
+
+  /**
+   * Returns the entity stored under {@code id}, atomically creating and saving it with
+   * {@code factory} if absent.
+   *
+   * <p>The default implementation has the same atomicity as
+   * {@link #saveIfVersionSync(Identity, long)}'s.</p>
+   */
+  default @NotNull T computeIfAbsentSync(final @NotNull ID id, final @NotNull Function<? super ID, ? extends @NotNull T> factory) {
+    synchronized (this) {
+      final T current = this.findSync(id);
+      if (current != null) {
+        return current;
+      }
+      final T created = factory.apply(id);
+      if (!id.equals(created.id())) {
+        throw new IllegalArgumentException("Computed entity id " + created.id() + " does not match key " + id);
+      }
+      return this.saveVersioned(created, 1);
+    }
+  }
+
+  /**
+   * Saves {@code entity} as it is, keeping its version, unless an entity already exists under
+   * its id. Unlike {@link #computeIfAbsentSync} it neither restarts the version nor touches
+   * {@code entity} otherwise, which suits copying entities between repositories.
+   *
+   * <p>The default implementation has the same atomicity as
+   * {@link #saveIfVersionSync(Identity, long)}'s.</p>
+   *
+   * @return the entity already stored, or {@code null} if {@code entity} was saved
+   */
+  default @Nullable T insertIfAbsentSync(final @NotNull T entity) {
+    synchronized (this) {
+      final T current = this.findSync(entity.id());
+      if (current != null) {
+        return current;
+      }
+      this.saveSync(entity);
+      return null;
+    }
+  }
+
+  /**
+   * Saves {@code entity} if no entity exists under its id, otherwise atomically replaces the
+   * stored one with {@code remapping(stored, entity)}. A {@code null} result deletes the entity.
+   */
+  default @Nullable T mergeSync(final @NotNull T entity, final @NotNull BiFunction<? super @NotNull T, ? super @NotNull T, ? extends @Nullable T> remapping) {
+    return this.computeSync(entity.id(), (id, current) -> current == null ? entity : remapping.apply(current, entity));
+  }
+
+  private @NotNull T saveVersioned(final @NotNull T entity, final long version) {
+    final long previousVersion = entity.version();
+    entity.version(version);
+    try {
+      return this.saveSync(entity);
+    } catch (final RuntimeException e) {
+      entity.version(previousVersion);
+      throw e;
+    }
+  }
+
+  /**
+   * Subscribes {@code listener} to the entities saved and deleted through this repository, with
+   * the {@linkplain DeliveryPolicy#defaults() default delivery policy}.
+   *
+   * @throws UnsupportedOperationException if the repository does not publish its changes
+   */
+  default @NotNull Subscription subscribe(final @NotNull RepositoryListener<T, ID> listener) {
+    return this.subscribe(listener, DeliveryPolicy.defaults());
+  }
+
+  /**
+   * Subscribes {@code listener} to the entities saved and deleted through this repository.
+   * Events are delivered asynchronously, in write order per id, starting with the writes that
+   * follow the subscription.
+   *
+   * @throws UnsupportedOperationException if the repository does not publish its changes
+   */
+  default @NotNull Subscription subscribe(final @NotNull RepositoryListener<T, ID> listener, final @NotNull DeliveryPolicy policy) {
+    throw new UnsupportedOperationException(this.getClass().getName() + " does not publish changes");
+  }
 }
@@ -23,12 +23,164 @@
  */
 package team.emptyte.storage.repository.builder;
 
+import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import team.emptyte.storage.Identity;
 import team.emptyte.storage.repository.AsyncRepository;
+import team.emptyte.storage.repository.concurrent.InFlightLimiter;
+import team.emptyte.storage.repository.concurrent.OverflowPolicy;
+import team.emptyte.storage.repository.concurrent.PriorityExecutor;
+import team.emptyte.storage.repository.concurrent.PriorityPolicy;
+import team.emptyte.storage.repository.context.BufferPool;
+import team.emptyte.storage.repository.context.MemoryBudget;
+import team.emptyte.storage.repository.index.SecondaryIndex;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
 
-public abstract class RepositoryBuilder<T extends Identity<ID>, ID> {
-  public abstract @NotNull AsyncRepository<T, ID> buildAsync(final @NotNull Executor executor);
+public abstract class RepositoryBuilder<T extends Identity<ID>, ID, B extends RepositoryBuilder<T, ID, B>> {
+  private int maxInFlight = Integer.MAX_VALUE;
+  private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+  private @Nullable PriorityPolicy priorityPolicy;
+  private final Map<String, Function<? super T, ?>> indexes = new LinkedHashMap<>();
+  private @Nullable BufferPool bufferPool;
+  private @Nullable MemoryBudget memoryBudget;
+  private int memoryWeight = 1;
+
+  /**
+   * Limits the operations each built repository keeps submitted at once; further calls are
+   * handled by {@code overflowPolicy}.
+   */
+  @Contract("_, _ -> this")
+  public @NotNull B maxInFlight(final int maxInFlight, final @NotNull OverflowPolicy overflowPolicy) {
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("Max in-flight operations must be positive: " + maxInFlight);
+    }
+    this.maxInFlight = maxInFlight;
+    this.overflowPolicy = Objects.requireNonNull(overflowPolicy, "Overflow policy cannot be null");
+    return this.self();
+  }
+
+  /**
+   * Schedules the built repository's work by priority, letting point reads and existence checks
+   * run ahead of writes, full scans and bulk deletes queued on the same executors.
+   */
+  @Contract("_ -> this")
+  public @NotNull B priorityScheduling(final @NotNull PriorityPolicy priorityPolicy) {
+    this.priorityPolicy = Objects.requireNonNull(priorityPolicy, "Priority policy cannot be null");
+    return this.self();
+  }
+
+  /**
+   * Registers a secondary index keyed by {@code extractor}, kept up to date on every write and
+   * queried with {@link team.emptyte.storage.repository.Repository#findByIndexSync}. Entities for
+   * which {@code extractor} returns {@code null} are not indexed.
+   */
+  @Contract("_, _ -> this")
+  public @NotNull B index(final @NotNull String name, final @NotNull Function<? super T, ?> extractor) {
+    Objects.requireNonNull(extractor, "Index extractor cannot be null");
+    if (this.indexes.putIfAbsent(name, extractor) != null) {
+      throw new IllegalArgumentException("Index already registered: " + name);
+    }
+    return this.self();
+  }
+
+  /**
+   * Shares {@code bufferPool} with the built repository for its transient I/O buffers; providers
+   * that do no I/O ignore it.
+   */
+  @Contract("_ -> this")
+  public @NotNull B bufferPool(final @NotNull BufferPool bufferPool) {
+    this.bufferPool = Objects.requireNonNull(bufferPool, "Buffer pool cannot be null");
+    return this.self();
+  }
+
+  /**
+   * Makes the built repository join {@code memoryBudget}, bounding the entities it keeps in
+   * memory by its share of the budget rather than by its own bound. Providers that keep no
+   * bounded entities in memory ignore it.
+   */
+  @Contract("_ -> this")
+  public @NotNull B memoryBudget(final @NotNull MemoryBudget memoryBudget) {
+    this.memoryBudget = Objects.requireNonNull(memoryBudget, "Memory budget cannot be null");
+    return this.self();
+  }
+
+  /**
+   * Sets the weight the built repository's share of its {@link #memoryBudget(MemoryBudget)
+   * memory budget} is proportional to. Defaults to {@code 1}.
+   */
+  @Contract("_ -> this")
+  public @NotNull B memoryWeight(final int memoryWeight) {
+    if (memoryWeight < 1) {
+      throw new IllegalArgumentException("Memory weight must be positive: " + memoryWeight);
+    }
+    this.memoryWeight = memoryWeight;
+    return this.self();
+  }
+
+  public @NotNull AsyncRepository<T, ID> buildAsync(final @NotNull Executor executor) {
+    return this.buildAsync(executor, executor);
+  }
+
+  /**
+   * Builds a repository that runs blocking I/O on {@code ioExecutor} and CPU-bound
+   * serialization work on {@code computeExecutor}, for providers able to split the two.
+   */
+  public abstract @NotNull AsyncRepository<T, ID> buildAsync(final @NotNull Executor ioExecutor, final @NotNull Executor computeExecutor);
+
+  protected @NotNull InFlightLimiter limiter() {
+    if (this.maxInFlight == Integer.MAX_VALUE) {
+      return InFlightLimiter.unbounded();
+    }
+    return InFlightLimiter.of(this.maxInFlight, this.overflowPolicy);
+  }
+
+  protected @Nullable BufferPool bufferPool() {
+    return this.bufferPool;
+  }
+
+  /**
+   * Adds a built repository to the memory budget, if one is set, calling {@code resize} with
+   * its share in bytes now and whenever the split changes.
+   *
+   * @return the share, to be closed with the repository, or {@code null} without a budget
+   */
+  protected @Nullable MemoryBudget.Share joinMemoryBudget(final @NotNull String name, final @NotNull LongConsumer resize) {
+    if (this.memoryBudget == null) {
+      return null;
+    }
+    return this.memoryBudget.allocate(name, this.memoryWeight, resize);
+  }
+
+  /**
+   * Creates fresh, empty instances of the registered secondary indexes.
+   */
+  protected @NotNull List<SecondaryIndex<T, ID>> indexes() {
+    final List<SecondaryIndex<T, ID>> indexes = new ArrayList<>(this.indexes.size());
+    this.indexes.forEach((name, extractor) -> indexes.add(new SecondaryIndex<T, ID>(name, extractor)));
+    return indexes;
+  }
+
+  /**
+   * Wraps {@code executor} in a {@link PriorityExecutor} when priority scheduling is enabled.
+   */
+  protected @NotNull Executor scheduled(final @NotNull Executor executor) {
+    if (this.priorityPolicy == null || executor instanceof PriorityExecutor) {
+      return executor;
+    }
+    return new PriorityExecutor(executor, this.priorityPolicy);
+  }
+
+  @SuppressWarnings("unchecked")
+  protected final @NotNull B self() {
+    return (B) this;
+  }
 }
@@ -0,0 +1,103 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An executor running at most a fixed number of tasks on its delegate at once, queueing the
+ * rest in submission order. Sharing one instance caps the concurrency of everything submitted
+ * through it, however many threads the delegate has.
+ */
+public final class BoundedExecutor implements Executor {
+  private final Executor delegate;
+  private final int maxConcurrency;
+  private final Deque<Runnable> queue = new ConcurrentLinkedDeque<>();
+  private final AtomicInteger running = new AtomicInteger();
+
+  public BoundedExecutor(final @NotNull Executor delegate, final int maxConcurrency) {
+    if (maxConcurrency < 1) {
+      throw new IllegalArgumentException("Max concurrency must be positive: " + maxConcurrency);
+    }
+    this.delegate = delegate;
+    this.maxConcurrency = maxConcurrency;
+  }
+
+  @Override
+  public void execute(final @NotNull Runnable command) {
+    this.queue.add(command);
+    this.drain();
+  }
+
+  public int maxConcurrency() {
+    return this.maxConcurrency;
+  }
+
+  public int running() {
+    return this.running.get();
+  }
+
+  public int queued() {
+    return this.queue.size();
+  }
+
+  private void drain() {
+    while (!this.queue.isEmpty()) {
+      final int running = this.running.get();
+      if (running >= this.maxConcurrency) {
+        return;
+      }
+      if (!this.running.compareAndSet(running, running + 1)) {
+        continue;
+      }
+      final Runnable command = this.queue.poll();
+      if (command == null) {
+        this.running.decrementAndGet();
+        continue;
+      }
+      try {
+        this.delegate.execute(() -> this.run(command));
+      } catch (final RejectedExecutionException e) {
+        this.running.decrementAndGet();
+        this.queue.addFirst(command);
+        throw e;
+      }
+    }
+  }
+
+  private void run(final @NotNull Runnable command) {
+    try {
+      command.run();
+    } finally {
+      this.running.decrementAndGet();
+      this.drain();
+    }
+  }
+}
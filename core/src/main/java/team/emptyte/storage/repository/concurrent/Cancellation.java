@@ -0,0 +1,57 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+
+/**
+ * Lets long-running repository work notice that its caller gave up, either by cancelling the
+ * returned future or by letting its deadline pass.
+ */
+@FunctionalInterface
+public interface Cancellation {
+  Cancellation NONE = () -> false;
+
+  static @NotNull Cancellation of(final @NotNull Future<?> future) {
+    return future::isDone;
+  }
+
+  static @NotNull Cancellation of(final @NotNull Future<?> future, final long deadlineNanos) {
+    return () -> future.isDone() || System.nanoTime() - deadlineNanos >= 0;
+  }
+
+  boolean cancelled();
+
+  /**
+   * @throws CancellationException if the work should stop
+   */
+  default void checkpoint() {
+    if (this.cancelled()) {
+      throw new CancellationException("Operation was cancelled or passed its deadline");
+    }
+  }
+}
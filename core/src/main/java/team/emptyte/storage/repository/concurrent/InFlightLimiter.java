@@ -0,0 +1,119 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.emptyte.storage.exception.repository.RepositoryException;
+import team.emptyte.storage.exception.repository.RepositoryOverloadedException;
+import team.emptyte.storage.repository.Operation;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounds the number of operations an {@link team.emptyte.storage.repository.AsyncRepository}
+ * has submitted but not yet completed, so a burst of calls cannot grow the executor queue
+ * without limit.
+ */
+public final class InFlightLimiter {
+  private final int maxInFlight;
+  private final OverflowPolicy policy;
+  private final @Nullable Semaphore permits;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger queueDepth = new AtomicInteger();
+  private final LongAdder rejected = new LongAdder();
+
+  private InFlightLimiter(final int maxInFlight, final @NotNull OverflowPolicy policy) {
+    this.maxInFlight = maxInFlight;
+    this.policy = policy;
+    this.permits = maxInFlight == Integer.MAX_VALUE ? null : new Semaphore(maxInFlight);
+  }
+
+  public static @NotNull InFlightLimiter unbounded() {
+    return new InFlightLimiter(Integer.MAX_VALUE, OverflowPolicy.BLOCK);
+  }
+
+  public static @NotNull InFlightLimiter of(final int maxInFlight, final @NotNull OverflowPolicy policy) {
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("Max in-flight operations must be positive: " + maxInFlight);
+    }
+    return new InFlightLimiter(maxInFlight, policy);
+  }
+
+  /**
+   * Takes a slot for {@code operation}, applying the overflow policy when none is free.
+   *
+   * @throws RepositoryOverloadedException if the policy rejects the operation
+   */
+  public void acquire(final @NotNull Operation operation) {
+    if (this.permits != null && !this.permits.tryAcquire()) {
+      if (this.policy == OverflowPolicy.FAIL_FAST || (this.policy == OverflowPolicy.SHED_READS && operation.read())) {
+        this.rejected.increment();
+        throw new RepositoryOverloadedException("Too many in-flight operations (" + this.maxInFlight + "), rejected " + operation);
+      }
+      this.queueDepth.incrementAndGet();
+      try {
+        this.permits.acquire();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RepositoryException("Interrupted while waiting to submit " + operation, e);
+      } finally {
+        this.queueDepth.decrementAndGet();
+      }
+    }
+    this.inFlight.incrementAndGet();
+  }
+
+  public void release() {
+    this.inFlight.decrementAndGet();
+    if (this.permits != null) {
+      this.permits.release();
+    }
+  }
+
+  public int maxInFlight() {
+    return this.maxInFlight;
+  }
+
+  public @NotNull OverflowPolicy policy() {
+    return this.policy;
+  }
+
+  public int inFlight() {
+    return this.inFlight.get();
+  }
+
+  /**
+   * Returns the number of callers currently blocked waiting for a free slot.
+   */
+  public int queueDepth() {
+    return this.queueDepth.get();
+  }
+
+  public long rejected() {
+    return this.rejected.sum();
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A fixed set of read/write locks selected by key hash, so operations on the same key are
+ * coordinated while unrelated keys rarely share a lock.
+ */
+public final class LockStripes {
+  public static final int MAX_STRIPES = 1 << 30;
+
+  private final ReadWriteLock[] locks;
+  private final int mask;
+
+  private LockStripes(final int stripes) {
+    final int size = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+    this.locks = new ReadWriteLock[size];
+    this.mask = size - 1;
+    for (int i = 0; i < size; i++) {
+      this.locks[i] = new ReentrantReadWriteLock();
+    }
+  }
+
+  /**
+   * Creates {@code stripes} locks, rounded up to the next power of two.
+   */
+  public static @NotNull LockStripes of(final int stripes) {
+    if (stripes < 1 || stripes > MAX_STRIPES) {
+      throw new IllegalArgumentException("Lock stripes must be between 1 and 2^30: " + stripes);
+    }
+    return new LockStripes(stripes);
+  }
+
+  public @NotNull ReadWriteLock lock(final @NotNull Object key) {
+    return this.locks[this.index(key)];
+  }
+
+  /**
+   * Returns the stripe {@code key} maps to, in {@code [0, size())}.
+   */
+  public int index(final @NotNull Object key) {
+    final int hash = key.hashCode();
+    return (hash ^ (hash >>> 16)) & this.mask;
+  }
+
+  public int size() {
+    return this.locks.length;
+  }
+}
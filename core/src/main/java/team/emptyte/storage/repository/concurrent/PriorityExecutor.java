@@ -0,0 +1,139 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * An executor that reorders work submitted to a FIFO delegate by {@link Priority}.
+ *
+ * <p>Every submitted task enqueues a token on the delegate; when a token runs it picks the next
+ * task by smooth weighted round-robin across the non-empty priorities, so higher priorities get
+ * proportionally more turns and lower ones are never skipped entirely. A task that has waited
+ * longer than {@link PriorityPolicy#maxDelay()} runs next regardless of weight.</p>
+ */
+public final class PriorityExecutor implements Executor {
+  private static final Priority[] PRIORITIES = Priority.values();
+
+  private final Executor delegate;
+  private final int[] weights = new int[PRIORITIES.length];
+  private final long maxDelayNanos;
+  private final List<Queue<Task>> lanes = new ArrayList<>(PRIORITIES.length);
+  private final Executor[] views = new Executor[PRIORITIES.length];
+  private final int[] credits = new int[PRIORITIES.length];
+  private final Object lock = new Object();
+
+  public PriorityExecutor(final @NotNull Executor delegate, final @NotNull PriorityPolicy policy) {
+    this.delegate = delegate;
+    this.maxDelayNanos = policy.maxDelay().toNanos();
+    for (final Priority priority : PRIORITIES) {
+      this.weights[priority.ordinal()] = policy.weight(priority);
+      this.lanes.add(new ConcurrentLinkedQueue<>());
+      this.views[priority.ordinal()] = command -> this.execute(priority, command);
+    }
+  }
+
+  @Override
+  public void execute(final @NotNull Runnable command) {
+    this.execute(Priority.NORMAL, command);
+  }
+
+  public void execute(final @NotNull Priority priority, final @NotNull Runnable command) {
+    final Task task = new Task(command, System.nanoTime());
+    final Queue<Task> lane = this.lanes.get(priority.ordinal());
+    lane.add(task);
+    try {
+      this.delegate.execute(this::runNext);
+    } catch (final RejectedExecutionException e) {
+      if (lane.remove(task)) {
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Returns a view submitting every task with {@code priority}.
+   */
+  public @NotNull Executor lane(final @NotNull Priority priority) {
+    return this.views[priority.ordinal()];
+  }
+
+  public int pending(final @NotNull Priority priority) {
+    return this.lanes.get(priority.ordinal()).size();
+  }
+
+  private void runNext() {
+    final Task task = this.poll();
+    if (task != null) {
+      task.command().run();
+    }
+  }
+
+  private @Nullable Task poll() {
+    synchronized (this.lock) {
+      final long now = System.nanoTime();
+      int selected = -1;
+      long oldest = 0;
+      for (int i = 0; i < this.lanes.size(); i++) {
+        final Task head = this.lanes.get(i).peek();
+        if (head != null && now - head.enqueuedAt() > this.maxDelayNanos && (selected == -1 || head.enqueuedAt() < oldest)) {
+          selected = i;
+          oldest = head.enqueuedAt();
+        }
+      }
+      if (selected != -1) {
+        return this.lanes.get(selected).poll();
+      }
+
+      int totalWeight = 0;
+      for (int i = 0; i < this.lanes.size(); i++) {
+        if (this.lanes.get(i).isEmpty()) {
+          this.credits[i] = 0;
+          continue;
+        }
+        this.credits[i] += this.weights[i];
+        totalWeight += this.weights[i];
+        if (selected == -1 || this.credits[i] > this.credits[selected]) {
+          selected = i;
+        }
+      }
+      if (selected == -1) {
+        return null;
+      }
+      this.credits[selected] -= totalWeight;
+      return this.lanes.get(selected).poll();
+    }
+  }
+
+  private record Task(@NotNull Runnable command, long enqueuedAt) {
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Weights used by {@link PriorityExecutor} to share its delegate between priorities, plus the
+ * longest a queued task may wait before it runs regardless of weight.
+ */
+public record PriorityPolicy(int highWeight, int normalWeight, int lowWeight, @NotNull Duration maxDelay) {
+  private static final PriorityPolicy DEFAULTS = new PriorityPolicy(8, 2, 1, Duration.ofMillis(500));
+
+  public PriorityPolicy {
+    if (highWeight < 1 || normalWeight < 1 || lowWeight < 1) {
+      throw new IllegalArgumentException("Priority weights must be positive");
+    }
+    Objects.requireNonNull(maxDelay, "Max delay cannot be null");
+    if (maxDelay.isNegative() || maxDelay.isZero()) {
+      throw new IllegalArgumentException("Max delay must be positive: " + maxDelay);
+    }
+  }
+
+  public static @NotNull PriorityPolicy defaults() {
+    return DEFAULTS;
+  }
+
+  public int weight(final @NotNull Priority priority) {
+    return switch (priority) {
+      case HIGH -> this.highWeight;
+      case NORMAL -> this.normalWeight;
+      case LOW -> this.lowWeight;
+    };
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+import team.emptyte.storage.exception.repository.RepositoryException;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spaces out permits evenly at a fixed rate. Each caller reserves the next free slot and parks
+ * until it arrives, so bursts are smoothed rather than admitted and then throttled.
+ */
+public final class RateLimiter {
+  private final long intervalNanos;
+  private long nextFreeNanos = System.nanoTime();
+
+  private RateLimiter(final long intervalNanos) {
+    this.intervalNanos = intervalNanos;
+  }
+
+  public static @NotNull RateLimiter of(final double permitsPerSecond) {
+    if (!(permitsPerSecond > 0)) {
+      throw new IllegalArgumentException("Permits per second must be positive: " + permitsPerSecond);
+    }
+    return new RateLimiter(Math.max(1, (long) (1_000_000_000L / permitsPerSecond)));
+  }
+
+  /**
+   * Blocks until a permit is available.
+   *
+   * @throws RepositoryException if interrupted while waiting
+   */
+  public void acquire() {
+    final long slot;
+    synchronized (this) {
+      final long now = System.nanoTime();
+      slot = Math.max(now, this.nextFreeNanos);
+      this.nextFreeNanos = slot + this.intervalNanos;
+    }
+    long remaining;
+    while ((remaining = slot - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(this, remaining);
+      if (Thread.interrupted()) {
+        Thread.currentThread().interrupt();
+        throw new RepositoryException("Interrupted while waiting for a permit");
+      }
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.context;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of equally sized byte arrays shared by repositories for transient I/O buffers.
+ * Acquiring never blocks: when the pool is empty a new array is allocated, and arrays released
+ * beyond {@code maxPooled} are left to the garbage collector.
+ */
+public final class BufferPool {
+  private final int bufferSize;
+  private final int maxPooled;
+  private final Queue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pooled = new AtomicInteger();
+
+  private BufferPool(final int bufferSize, final int maxPooled) {
+    this.bufferSize = bufferSize;
+    this.maxPooled = maxPooled;
+  }
+
+  public static @NotNull BufferPool of(final int bufferSize, final int maxPooled) {
+    if (bufferSize < 1) {
+      throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+    }
+    if (maxPooled < 0) {
+      throw new IllegalArgumentException("Max pooled buffers cannot be negative: " + maxPooled);
+    }
+    return new BufferPool(bufferSize, maxPooled);
+  }
+
+  public byte @NotNull [] acquire() {
+    final byte[] buffer = this.buffers.poll();
+    if (buffer == null) {
+      return new byte[this.bufferSize];
+    }
+    this.pooled.decrementAndGet();
+    return buffer;
+  }
+
+  /**
+   * Returns {@code buffer} to the pool. The caller must not use it afterwards.
+   */
+  public void release(final byte @NotNull [] buffer) {
+    if (buffer.length != this.bufferSize) {
+      return;
+    }
+    if (this.pooled.incrementAndGet() > this.maxPooled) {
+      this.pooled.decrementAndGet();
+      return;
+    }
+    this.buffers.add(buffer);
+  }
+
+  public int bufferSize() {
+    return this.bufferSize;
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.context;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * A fixed number of bytes split between caches in proportion to their weights. Whenever a cache
+ * joins or leaves, every remaining share is recomputed and pushed to its cache, for example
+ * through {@code eviction::setMaximum} on a weighted Caffeine cache.
+ */
+public final class MemoryBudget {
+  private final long totalBytes;
+  private final Set<Share> shares = new LinkedHashSet<>();
+
+  public MemoryBudget(final long totalBytes) {
+    if (totalBytes < 0) {
+      throw new IllegalArgumentException("Memory budget cannot be negative: " + totalBytes);
+    }
+    this.totalBytes = totalBytes;
+  }
+
+  public long totalBytes() {
+    return this.totalBytes;
+  }
+
+  /**
+   * Adds a cache to the budget and calls {@code resize} with its share, now and after every
+   * later change to the split.
+   */
+  public synchronized @NotNull Share allocate(final @NotNull String name, final int weight, final @NotNull LongConsumer resize) {
+    if (weight < 1) {
+      throw new IllegalArgumentException("Weight must be positive: " + weight);
+    }
+    final Share share = new Share(Objects.requireNonNull(name, "Name cannot be null"), weight, Objects.requireNonNull(resize, "Resize callback cannot be null"));
+    this.shares.add(share);
+    this.rebalance();
+    return share;
+  }
+
+  private void rebalance() {
+    long totalWeight = 0;
+    for (final Share share : this.shares) {
+      totalWeight += share.weight;
+    }
+    for (final Share share : this.shares) {
+      share.bytes = this.totalBytes / totalWeight * share.weight;
+      share.resize.accept(share.bytes);
+    }
+  }
+
+  public final class Share implements AutoCloseable {
+    private final String name;
+    private final int weight;
+    private final LongConsumer resize;
+    private volatile long bytes;
+
+    private Share(final @NotNull String name, final int weight, final @NotNull LongConsumer resize) {
+      this.name = name;
+      this.weight = weight;
+      this.resize = resize;
+    }
+
+    public @NotNull String name() {
+      return this.name;
+    }
+
+    public int weight() {
+      return this.weight;
+    }
+
+    public long bytes() {
+      return this.bytes;
+    }
+
+    /**
+     * Leaves the budget, handing this share to the remaining caches.
+     */
+    @Override
+    public void close() {
+      synchronized (MemoryBudget.this) {
+        if (MemoryBudget.this.shares.remove(this) && !MemoryBudget.this.shares.isEmpty()) {
+          MemoryBudget.this.rebalance();
+        }
+      }
+    }
+  }
+}
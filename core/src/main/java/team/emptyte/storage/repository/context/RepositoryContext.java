@@ -0,0 +1,171 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.context;
+
+import org.jetbrains.annotations.NotNull;
+import team.emptyte.storage.Identity;
+import team.emptyte.storage.repository.AsyncRepository;
+import team.emptyte.storage.repository.builder.RepositoryBuilder;
+import team.emptyte.storage.repository.concurrent.BoundedExecutor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Resources shared by every repository built through it: one I/O executor with a global
+ * concurrency cap, one compute executor, a {@link BufferPool} and a {@link MemoryBudget}. Adding
+ * a repository to the context adds no buffers and no threads of its own, besides the
+ * dispatcher its change feed runs while subscribed, and caches built through it split the memory
+ * budget between them.
+ *
+ * <p>{@link #close()} stops accepting repositories, waits for their in-flight operations to
+ * finish, closes those that are {@link AutoCloseable} so they flush their state, and finally
+ * shuts the executors down.</p>
+ */
+public final class RepositoryContext implements AutoCloseable {
+  private final static Logger LOGGER = Logger.getLogger(RepositoryContext.class.getName());
+
+  private final ExecutorService ioService;
+  private final ExecutorService computeService;
+  private final BoundedExecutor ioExecutor;
+  private final BufferPool bufferPool;
+  private final MemoryBudget memoryBudget;
+  private final Duration drainTimeout;
+  private final List<AsyncRepository<?, ?>> repositories = new CopyOnWriteArrayList<>();
+  private volatile boolean closed;
+
+  RepositoryContext(
+    final @NotNull ExecutorService ioService,
+    final @NotNull ExecutorService computeService,
+    final int maxConcurrentIo,
+    final @NotNull BufferPool bufferPool,
+    final @NotNull MemoryBudget memoryBudget,
+    final @NotNull Duration drainTimeout
+  ) {
+    this.ioService = ioService;
+    this.computeService = computeService;
+    this.ioExecutor = new BoundedExecutor(ioService, maxConcurrentIo);
+    this.bufferPool = bufferPool;
+    this.memoryBudget = memoryBudget;
+    this.drainTimeout = drainTimeout;
+  }
+
+  public static @NotNull RepositoryContextBuilder builder() {
+    return new RepositoryContextBuilder();
+  }
+
+  /**
+   * Builds a repository on the shared executors, buffer pool and memory budget and registers
+   * it for {@link #close()}, which also hands its share of the budget back.
+   */
+  public <T extends Identity<ID>, ID> @NotNull AsyncRepository<T, ID> build(final @NotNull RepositoryBuilder<T, ID, ?> builder) {
+    this.checkOpen();
+    return this.register(builder.bufferPool(this.bufferPool).memoryBudget(this.memoryBudget).buildAsync(this.ioExecutor, this.computeService));
+  }
+
+  /**
+   * Registers a repository built elsewhere, typically on {@link #ioExecutor()} and
+   * {@link #computeExecutor()}, to be drained and closed with this context.
+   */
+  public <R extends AsyncRepository<?, ?>> @NotNull R register(final @NotNull R repository) {
+    this.checkOpen();
+    this.repositories.add(repository);
+    return repository;
+  }
+
+  public @NotNull Executor ioExecutor() {
+    return this.ioExecutor;
+  }
+
+  public @NotNull Executor computeExecutor() {
+    return this.computeService;
+  }
+
+  public @NotNull BufferPool bufferPool() {
+    return this.bufferPool;
+  }
+
+  public @NotNull MemoryBudget memoryBudget() {
+    return this.memoryBudget;
+  }
+
+  private void checkOpen() {
+    if (this.closed) {
+      throw new IllegalStateException("Repository context is closed");
+    }
+  }
+
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (this.closed) {
+        return;
+      }
+      this.closed = true;
+    }
+    final long deadline = System.nanoTime() + this.drainTimeout.toNanos();
+    for (final AsyncRepository<?, ?> repository : this.repositories) {
+      while (repository.limiter().inFlight() > 0 && System.nanoTime() - deadline < 0) {
+        try {
+          Thread.sleep(10);
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+      if (repository.limiter().inFlight() > 0) {
+        LOGGER.warning("Closing " + repository.getClass().getName() + " with " + repository.limiter().inFlight() + " operations still in flight");
+      }
+    }
+    for (final AsyncRepository<?, ?> repository : this.repositories) {
+      if (repository instanceof AutoCloseable closeable) {
+        try {
+          closeable.close();
+        } catch (final Exception e) {
+          LOGGER.log(Level.WARNING, "Failed to close " + repository.getClass().getName(), e);
+        }
+      }
+    }
+    this.ioService.shutdown();
+    this.computeService.shutdown();
+    try {
+      final long remaining = Math.max(0, deadline - System.nanoTime());
+      if (!this.ioService.awaitTermination(remaining, TimeUnit.NANOSECONDS)
+        || !this.computeService.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+        this.ioService.shutdownNow();
+        this.computeService.shutdownNow();
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      this.ioService.shutdownNow();
+      this.computeService.shutdownNow();
+    }
+  }
+}
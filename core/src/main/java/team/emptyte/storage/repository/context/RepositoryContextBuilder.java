@@ -0,0 +1,139 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.context;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RepositoryContextBuilder {
+  private @Nullable ExecutorService ioService;
+  private @Nullable ExecutorService computeService;
+  private int maxConcurrentIo = 32;
+  private int computeThreads = Runtime.getRuntime().availableProcessors();
+  private int bufferSize = 8192;
+  private int maxPooledBuffers = 256;
+  private long memoryBudget = Runtime.getRuntime().maxMemory() / 4;
+  private Duration drainTimeout = Duration.ofSeconds(30);
+
+  /**
+   * Caps the blocking I/O operations running at once across every repository of the context,
+   * and with it the number of files they hold open.
+   */
+  @Contract("_ -> this")
+  public @NotNull RepositoryContextBuilder maxConcurrentIo(final int maxConcurrentIo) {
+    if (maxConcurrentIo < 1) {
+      throw new IllegalArgumentException("Max concurrent I/O must be positive: " + maxConcurrentIo);
+    }
+    this.maxConcurrentIo = maxConcurrentIo;
+    return this;
+  }
+
+  @Contract("_ -> this")
+  public @NotNull RepositoryContextBuilder computeThreads(final int computeThreads) {
+    if (computeThreads < 1) {
+      throw new IllegalArgumentException("Compute threads must be positive: " + computeThreads);
+    }
+    this.computeThreads = computeThreads;
+    return this;
+  }
+
+  /**
+   * Runs I/O on {@code ioService} instead of a cached thread pool owned by the context, for
+   * example a virtual thread per task executor. The context still shuts it down on close.
+   */
+  @Contract("_ -> this")
+  public @NotNull RepositoryContextBuilder ioService(final @NotNull ExecutorService ioService) {
+    this.ioService = Objects.requireNonNull(ioService, "I/O executor cannot be null");
+    return this;
+  }
+
+  /**
+   * Runs serialization work on {@code computeService} instead of a fixed pool of
+   * {@link #computeThreads(int)} threads. The context still shuts it down on close.
+   */
+  @Contract("_ -> this")
+  public @NotNull RepositoryContextBuilder computeService(final @NotNull ExecutorService computeService) {
+    this.computeService = Objects.requireNonNull(computeService, "Compute executor cannot be null");
+    return this;
+  }
+
+  @Contract("_, _ -> this")
+  public @NotNull RepositoryContextBuilder bufferPool(final int bufferSize, final int maxPooledBuffers) {
+    BufferPool.of(bufferSize, maxPooledBuffers);
+    this.bufferSize = bufferSize;
+    this.maxPooledBuffers = maxPooledBuffers;
+    return this;
+  }
+
+  /**
+   * Sets the bytes split between the caches that join the context's {@link MemoryBudget}.
+   * Defaults to a quarter of the maximum heap.
+   */
+  @Contract("_ -> this")
+  public @NotNull RepositoryContextBuilder memoryBudget(final long memoryBudget) {
+    if (memoryBudget < 0) {
+      throw new IllegalArgumentException("Memory budget cannot be negative: " + memoryBudget);
+    }
+    this.memoryBudget = memoryBudget;
+    return this;
+  }
+
+  /**
+   * Sets how long {@link RepositoryContext#close()} waits for in-flight operations and for the
+   * executors to terminate.
+   */
+  @Contract("_ -> this")
+  public @NotNull RepositoryContextBuilder drainTimeout(final @NotNull Duration drainTimeout) {
+    this.drainTimeout = Objects.requireNonNull(drainTimeout, "Drain timeout cannot be null");
+    return this;
+  }
+
+  public @NotNull RepositoryContext build() {
+    return new RepositoryContext(
+      this.ioService == null ? Executors.newCachedThreadPool(threads("storage-io-")) : this.ioService,
+      this.computeService == null ? Executors.newFixedThreadPool(this.computeThreads, threads("storage-compute-")) : this.computeService,
+      this.maxConcurrentIo,
+      BufferPool.of(this.bufferSize, this.maxPooledBuffers),
+      new MemoryBudget(this.memoryBudget),
+      this.drainTimeout
+    );
+  }
+
+  private static @NotNull ThreadFactory threads(final @NotNull String prefix) {
+    final AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      final Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
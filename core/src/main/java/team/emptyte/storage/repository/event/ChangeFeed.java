@@ -0,0 +1,318 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.event;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.emptyte.storage.Identity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fans a repository's changes out to its subscriptions, delivering them on a dispatcher thread
+ * of its own that runs while the feed has subscribers. Publishing never blocks and costs a single
+ * volatile read when nobody is subscribed.
+ *
+ * <p>Providers publish from their write paths inside {@link #staged}. There an event only takes
+ * its place in the subscriptions' buffers, a wait-free step that keeps the events of one id in
+ * write order while the entity's lock is held; it is handed to the dispatcher once the write has
+ * released its locks and left any compute function.</p>
+ */
+public final class ChangeFeed<T extends Identity<ID>, ID> {
+  private final static Logger LOGGER = Logger.getLogger(ChangeFeed.class.getName());
+  private final static int DRAIN_BATCH = 256;
+  private final static AtomicInteger DISPATCHERS = new AtomicInteger();
+  // events whose buffer slot was claimed by the running write but not filled yet
+  private final static ThreadLocal<List<Staged<?, ?>>> STAGED = new ThreadLocal<>();
+
+  private volatile List<LaneSubscription<T, ID>> subscriptions = List.of();
+  private volatile @Nullable Thread dispatcher;
+  private volatile boolean parked;
+
+  public boolean hasSubscribers() {
+    return !this.subscriptions.isEmpty();
+  }
+
+  public @NotNull Subscription subscribe(final @NotNull RepositoryListener<T, ID> listener, final @NotNull DeliveryPolicy policy) {
+    final LaneSubscription<T, ID> subscription = new LaneSubscription<>(
+      this,
+      Objects.requireNonNull(listener, "Listener cannot be null"),
+      Objects.requireNonNull(policy, "Delivery policy cannot be null")
+    );
+    synchronized (this) {
+      final List<LaneSubscription<T, ID>> subscriptions = new ArrayList<>(this.subscriptions);
+      subscriptions.add(subscription);
+      this.subscriptions = List.copyOf(subscriptions);
+      if (this.dispatcher == null) {
+        final Thread dispatcher = new Thread(this::dispatch, "storage-change-feed-" + DISPATCHERS.incrementAndGet());
+        dispatcher.setDaemon(true);
+        this.dispatcher = dispatcher;
+        dispatcher.start();
+      }
+    }
+    return subscription;
+  }
+
+  /**
+   * Runs {@code write}, holding back the events it publishes on this thread until it returns or
+   * fails, then hands them to the dispatcher. Writes wrap their lock acquisition in it so the
+   * dispatcher is only woken once the locks are released. Nested calls hand their events over
+   * with the outermost one.
+   */
+  public <R> R staged(final @NotNull Supplier<R> write) {
+    if (this.subscriptions.isEmpty() || STAGED.get() != null) {
+      return write.get();
+    }
+    final List<Staged<?, ?>> staged = new ArrayList<>(2);
+    STAGED.set(staged);
+    try {
+      return write.get();
+    } finally {
+      STAGED.remove();
+      for (final Staged<?, ?> event : staged) {
+        event.fill();
+      }
+    }
+  }
+
+  public void saved(final @NotNull T entity) {
+    for (final LaneSubscription<T, ID> subscription : this.subscriptions) {
+      subscription.publish(RepositoryEvent.Type.SAVED, entity.id(), entity);
+    }
+  }
+
+  public void deleted(final @NotNull ID id, final @Nullable T entity) {
+    for (final LaneSubscription<T, ID> subscription : this.subscriptions) {
+      subscription.publish(RepositoryEvent.Type.DELETED, id, entity);
+    }
+  }
+
+  private void unsubscribe(final @NotNull LaneSubscription<T, ID> subscription) {
+    synchronized (this) {
+      final List<LaneSubscription<T, ID>> subscriptions = new ArrayList<>(this.subscriptions);
+      subscriptions.remove(subscription);
+      this.subscriptions = List.copyOf(subscriptions);
+    }
+    this.wake();
+  }
+
+  private void wake() {
+    final Thread dispatcher = this.dispatcher;
+    if (this.parked && dispatcher != null) {
+      LockSupport.unpark(dispatcher);
+    }
+  }
+
+  private void dispatch() {
+    while (true) {
+      final List<LaneSubscription<T, ID>> subscriptions = this.subscriptions;
+      if (subscriptions.isEmpty()) {
+        synchronized (this) {
+          if (this.subscriptions.isEmpty()) {
+            this.dispatcher = null;
+            return;
+          }
+        }
+        continue;
+      }
+      boolean delivered = false;
+      for (final LaneSubscription<T, ID> subscription : subscriptions) {
+        delivered |= subscription.drain();
+      }
+      if (delivered) {
+        continue;
+      }
+      // Publishers fill a slot before reading the flag and the dispatcher sets it before
+      // checking the slots again, so one of them always sees the other.
+      this.parked = true;
+      if (this.subscriptions == subscriptions && subscriptions.stream().noneMatch(LaneSubscription::ready)) {
+        LockSupport.park(this);
+      }
+      this.parked = false;
+      Thread.interrupted();
+    }
+  }
+
+  private static final class LaneSubscription<T extends Identity<ID>, ID> implements Subscription {
+    private final ChangeFeed<T, ID> feed;
+    private final RepositoryListener<T, ID> listener;
+    private final DeliveryPolicy policy;
+    private final List<Lane<T, ID>> lanes;
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean active = true;
+
+    private LaneSubscription(final @NotNull ChangeFeed<T, ID> feed, final @NotNull RepositoryListener<T, ID> listener, final @NotNull DeliveryPolicy policy) {
+      this.feed = feed;
+      this.listener = listener;
+      this.policy = policy;
+      final List<Lane<T, ID>> lanes = new ArrayList<>(policy.lanes());
+      for (int i = 0; i < policy.lanes(); i++) {
+        lanes.add(new Lane<>(policy.capacity()));
+      }
+      this.lanes = List.copyOf(lanes);
+    }
+
+    private void publish(final @NotNull RepositoryEvent.Type type, final @NotNull ID id, final @Nullable T entity) {
+      if (!this.active) {
+        return;
+      }
+      final int hash = id.hashCode();
+      final Lane<T, ID> lane = this.lanes.get(Math.floorMod(hash ^ (hash >>> 16), this.lanes.size()));
+      final long ticket = lane.claim();
+      if (ticket < 0) {
+        this.dropped.increment();
+        return;
+      }
+      final Staged<T, ID> event = new Staged<>(this.feed, lane, ticket, new RepositoryEvent<>(type, id, this.policy.entities() ? entity : null));
+      final List<Staged<?, ?>> staged = STAGED.get();
+      if (staged == null) {
+        event.fill();
+      } else {
+        staged.add(event);
+      }
+    }
+
+    private boolean ready() {
+      for (final Lane<T, ID> lane : this.lanes) {
+        if (lane.peek() != null) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    // Runs on the dispatcher only, so every lane reaches the listener in order.
+    private boolean drain() {
+      boolean delivered = false;
+      for (final Lane<T, ID> lane : this.lanes) {
+        for (int i = 0; i < DRAIN_BATCH && this.active; i++) {
+          final RepositoryEvent<T, ID> event = lane.poll();
+          if (event == null) {
+            break;
+          }
+          delivered = true;
+          try {
+            this.listener.onEvent(event);
+          } catch (final RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Repository listener failed on " + event.type() + " of " + event.id(), e);
+          }
+        }
+      }
+      return delivered;
+    }
+
+    @Override
+    public boolean isActive() {
+      return this.active;
+    }
+
+    @Override
+    public long dropped() {
+      return this.dropped.sum();
+    }
+
+    @Override
+    public int pending() {
+      long pending = 0;
+      for (final Lane<T, ID> lane : this.lanes) {
+        pending += lane.pending();
+      }
+      return (int) pending;
+    }
+
+    @Override
+    public void close() {
+      if (!this.active) {
+        return;
+      }
+      this.active = false;
+      this.feed.unsubscribe(this);
+    }
+  }
+
+  /**
+   * A bounded ring of events. Writers claim slots in order and fill them later; the dispatcher
+   * takes them in claim order, waiting at a claimed slot until it is filled.
+   */
+  private static final class Lane<T, ID> {
+    private final AtomicReferenceArray<RepositoryEvent<T, ID>> slots;
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long taken;
+
+    private Lane(final int capacity) {
+      this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    // returns the claimed ticket, or -1 if the ring is full
+    private long claim() {
+      long ticket;
+      do {
+        ticket = this.claimed.get();
+        if (ticket - this.taken >= this.slots.length()) {
+          return -1;
+        }
+      } while (!this.claimed.compareAndSet(ticket, ticket + 1));
+      return ticket;
+    }
+
+    private void fill(final long ticket, final @NotNull RepositoryEvent<T, ID> event) {
+      this.slots.set((int) (ticket % this.slots.length()), event);
+    }
+
+    private @Nullable RepositoryEvent<T, ID> peek() {
+      return this.slots.get((int) (this.taken % this.slots.length()));
+    }
+
+    private @Nullable RepositoryEvent<T, ID> poll() {
+      final int slot = (int) (this.taken % this.slots.length());
+      final RepositoryEvent<T, ID> event = this.slots.get(slot);
+      if (event != null) {
+        this.slots.set(slot, null);
+        this.taken++;
+      }
+      return event;
+    }
+
+    private long pending() {
+      return this.claimed.get() - this.taken;
+    }
+  }
+
+  private record Staged<T, ID>(@NotNull ChangeFeed<?, ?> feed, @NotNull Lane<T, ID> lane, long ticket, @NotNull RepositoryEvent<T, ID> event) {
+    private void fill() {
+      this.lane.fill(this.ticket, this.event);
+      this.feed.wake();
+    }
+  }
+}
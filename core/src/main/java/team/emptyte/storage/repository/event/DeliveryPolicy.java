@@ -0,0 +1,53 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.event;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * How a subscription buffers and delivers events.
+ *
+ * <p>Events are spread over {@code lanes} bounded buffers of {@code capacity} events by id hash,
+ * and each lane reaches the listener in order, so events for an id arrive in write order. Writers
+ * never wait for a slow listener: when a lane is full, the event is discarded and counted in
+ * {@link Subscription#dropped()}.</p>
+ *
+ * @param entities whether events carry the entity, or only its id
+ */
+public record DeliveryPolicy(int lanes, int capacity, boolean entities) {
+  private static final DeliveryPolicy DEFAULTS = new DeliveryPolicy(4, 1024, true);
+
+  public DeliveryPolicy {
+    if (lanes < 1) {
+      throw new IllegalArgumentException("Lanes must be positive: " + lanes);
+    }
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+  }
+
+  public static @NotNull DeliveryPolicy defaults() {
+    return DEFAULTS;
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.event;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * A change to one entity, delivered to {@link RepositoryListener}s.
+ *
+ * @param type   whether the entity was saved or deleted
+ * @param id     the entity's id
+ * @param entity the saved entity or, when the provider had it at hand, the deleted one; always
+ *               {@code null} for subscriptions that do not {@link DeliveryPolicy#entities() ask
+ *               for entities}
+ */
+public record RepositoryEvent<T, ID>(@NotNull Type type, @NotNull ID id, @Nullable T entity) {
+  public RepositoryEvent {
+    Objects.requireNonNull(type, "Event type cannot be null");
+    Objects.requireNonNull(id, "Event id cannot be null");
+  }
+
+  public enum Type {
+    SAVED,
+    DELETED
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.index;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.emptyte.storage.Identity;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Maps the key extracted from each entity to the ids of the entities sharing it. Keys are
+ * compared by their string form, so an index survives being persisted as text.
+ */
+public final class SecondaryIndex<T extends Identity<ID>, ID> {
+  private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_-]+");
+
+  private final String name;
+  private final Function<? super T, ?> extractor;
+  private final Map<String, Set<ID>> ids = new HashMap<>();
+  private final Map<ID, String> keys = new HashMap<>();
+
+  public SecondaryIndex(final @NotNull String name, final @NotNull Function<? super T, ?> extractor) {
+    if (!NAME.matcher(name).matches()) {
+      throw new IllegalArgumentException("Index name must only contain letters, digits, '_' or '-': " + name);
+    }
+    this.name = name;
+    this.extractor = extractor;
+  }
+
+  public static @Nullable String normalize(final @Nullable Object key) {
+    return key == null ? null : String.valueOf(key);
+  }
+
+  public @NotNull String name() {
+    return this.name;
+  }
+
+  /**
+   * Returns the normalized key of {@code entity}, {@code null} if it is not indexed.
+   */
+  public @Nullable String key(final @NotNull T entity) {
+    return normalize(this.extractor.apply(entity));
+  }
+
+  public boolean matches(final @NotNull T entity, final @NotNull Object key) {
+    return normalize(key).equals(this.key(entity));
+  }
+
+  /**
+   * Indexes {@code id} under {@code key}, or removes it when {@code key} is {@code null}.
+   *
+   * @return whether the index changed
+   */
+  public synchronized boolean put(final @NotNull ID id, final @Nullable String key) {
+    if (key == null) {
+      return this.remove(id);
+    }
+    final String previous = this.keys.put(id, key);
+    if (key.equals(previous)) {
+      return false;
+    }
+    if (previous != null) {
+      this.unlink(previous, id);
+    }
+    this.ids.computeIfAbsent(key, ignored -> new HashSet<>()).add(id);
+    return true;
+  }
+
+  public boolean update(final @NotNull T entity) {
+    return this.put(entity.id(), this.key(entity));
+  }
+
+  public synchronized boolean remove(final @NotNull ID id) {
+    final String previous = this.keys.remove(id);
+    if (previous == null) {
+      return false;
+    }
+    this.unlink(previous, id);
+    return true;
+  }
+
+  public synchronized void clear() {
+    this.ids.clear();
+    this.keys.clear();
+  }
+
+  public synchronized @NotNull Set<ID> ids(final @NotNull Object key) {
+    final Set<ID> ids = this.ids.get(normalize(key));
+    return ids == null ? Set.of() : Set.copyOf(ids);
+  }
+
+  /**
+   * Returns a copy of every indexed id with its key.
+   */
+  public synchronized @NotNull Map<ID, String> snapshot() {
+    return Map.copyOf(this.keys);
+  }
+
+  private void unlink(final @NotNull String key, final @NotNull ID id) {
+    final Set<ID> ids = this.ids.get(key);
+    if (ids != null && ids.remove(id) && ids.isEmpty()) {
+      this.ids.remove(key);
+    }
+  }
+}
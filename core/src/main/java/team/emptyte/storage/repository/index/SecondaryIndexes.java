@@ -0,0 +1,116 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.index;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.emptyte.storage.Identity;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * The secondary indexes registered on a repository, by name.
+ */
+public final class SecondaryIndexes<T extends Identity<ID>, ID> implements Iterable<SecondaryIndex<T, ID>> {
+  private final Map<String, SecondaryIndex<T, ID>> indexes = new ConcurrentHashMap<>();
+
+  public SecondaryIndexes() {
+  }
+
+  public SecondaryIndexes(final @NotNull Collection<SecondaryIndex<T, ID>> indexes) {
+    indexes.forEach(this::add);
+  }
+
+  public void add(final @NotNull SecondaryIndex<T, ID> index) {
+    if (this.indexes.putIfAbsent(index.name(), index) != null) {
+      throw new IllegalArgumentException("Index already registered: " + index.name());
+    }
+  }
+
+  /**
+   * @throws IllegalArgumentException if no index is registered under {@code name}
+   */
+  public @NotNull SecondaryIndex<T, ID> get(final @NotNull String name) {
+    final SecondaryIndex<T, ID> index = this.indexes.get(name);
+    if (index == null) {
+      throw new IllegalArgumentException("Unknown index: " + name);
+    }
+    return index;
+  }
+
+  public boolean isEmpty() {
+    return this.indexes.isEmpty();
+  }
+
+  public void saved(final @NotNull T entity) {
+    for (final SecondaryIndex<T, ID> index : this.indexes.values()) {
+      index.update(entity);
+    }
+  }
+
+  public void deleted(final @NotNull ID id) {
+    for (final SecondaryIndex<T, ID> index : this.indexes.values()) {
+      index.remove(id);
+    }
+  }
+
+  public void cleared() {
+    for (final SecondaryIndex<T, ID> index : this.indexes.values()) {
+      index.clear();
+    }
+  }
+
+  /**
+   * Loads the entities indexed under {@code key} with {@code loader}, dropping those that are
+   * gone or no longer match, since an index may briefly lag behind the store.
+   */
+  public <C extends Collection<@NotNull T>> @NotNull C find(
+    final @NotNull String name,
+    final @NotNull Object key,
+    final @NotNull IntFunction<C> factory,
+    final @NotNull Function<? super ID, ? extends @Nullable T> loader
+  ) {
+    final SecondaryIndex<T, ID> index = this.get(name);
+    final Set<ID> ids = index.ids(key);
+    final C collection = factory.apply(ids.size());
+    for (final ID id : ids) {
+      final T entity = loader.apply(id);
+      if (entity != null && index.matches(entity, key)) {
+        collection.add(entity);
+      }
+    }
+    return collection;
+  }
+
+  @Override
+  public @NotNull Iterator<SecondaryIndex<T, ID>> iterator() {
+    return this.indexes.values().iterator();
+  }
+}
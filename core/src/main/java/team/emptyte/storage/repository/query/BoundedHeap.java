@@ -0,0 +1,98 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.query;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collector;
+
+/**
+ * Keeps the {@code capacity} smallest elements offered according to a comparator, using
+ * O(capacity) memory and O(log capacity) time per element.
+ */
+public final class BoundedHeap<E> {
+  private final int capacity;
+  private final Comparator<? super E> comparator;
+  private final PriorityQueue<E> heap;
+
+  public BoundedHeap(final int capacity, final @NotNull Comparator<? super E> comparator) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    this.capacity = capacity;
+    this.comparator = comparator;
+    this.heap = new PriorityQueue<>(Math.min(capacity, 1024), comparator.reversed());
+  }
+
+  /**
+   * Collects the {@code capacity} smallest elements in {@code comparator} order, sorted. Each
+   * parallel worker fills its own heap and the partial heaps are merged, so memory stays
+   * O(capacity) per worker and time roughly O(n log capacity).
+   */
+  public static <E> @NotNull Collector<E, ?, List<E>> collector(final int capacity, final @NotNull Comparator<? super E> comparator) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    return Collector.of(
+      () -> new BoundedHeap<E>(capacity, comparator),
+      BoundedHeap::offer,
+      BoundedHeap::merge,
+      BoundedHeap::toSortedList,
+      Collector.Characteristics.UNORDERED
+    );
+  }
+
+  public void offer(final @NotNull E element) {
+    if (this.heap.size() < this.capacity) {
+      this.heap.add(element);
+    } else if (this.comparator.compare(element, this.heap.peek()) < 0) {
+      this.heap.poll();
+      this.heap.add(element);
+    }
+  }
+
+  public @NotNull BoundedHeap<E> merge(final @NotNull BoundedHeap<E> other) {
+    for (final E element : other.heap) {
+      this.offer(element);
+    }
+    return this;
+  }
+
+  public int size() {
+    return this.heap.size();
+  }
+
+  /**
+   * Returns the retained elements, smallest first.
+   */
+  public @NotNull List<E> toSortedList() {
+    final List<E> elements = new ArrayList<>(this.heap);
+    elements.sort(this.comparator);
+    return elements;
+  }
+}
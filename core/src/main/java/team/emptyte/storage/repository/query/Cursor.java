@@ -0,0 +1,130 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.query;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * An opaque position in the id order of a repository, used to resume
+ * {@link team.emptyte.storage.repository.Repository#findPageSync} after the last id returned.
+ * Callers hand a cursor out as its {@link #token()} and read it back with
+ * {@link #parse(String, Function)}; only repositories look at the position it holds.
+ */
+public final class Cursor<ID> {
+  private static final Cursor<?> FIRST = new Cursor<>(null);
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private final @Nullable ID after;
+
+  private Cursor(final @Nullable ID after) {
+    this.after = after;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <ID> @NotNull Cursor<ID> first() {
+    return (Cursor<ID>) FIRST;
+  }
+
+  /**
+   * Creates the cursor of the page following {@code id}, for repositories building their pages.
+   */
+  public static <ID> @NotNull Cursor<ID> after(final @NotNull ID id) {
+    return new Cursor<>(Objects.requireNonNull(id, "Id cannot be null"));
+  }
+
+  /**
+   * Reads a cursor back from its {@link #token()}, turning the position into an id with
+   * {@code idParser}.
+   *
+   * @throws IllegalArgumentException if {@code token} is not a cursor token
+   */
+  public static <ID> @NotNull Cursor<ID> parse(final @NotNull String token, final @NotNull Function<? super String, ? extends ID> idParser) {
+    Objects.requireNonNull(token, "Token cannot be null");
+    if (token.isEmpty()) {
+      return first();
+    }
+    return after(idParser.apply(new String(DECODER.decode(token), StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Returns this cursor as a URL-safe string, empty for the first page.
+   */
+  public @NotNull String token() {
+    if (this.after == null) {
+      return "";
+    }
+    return ENCODER.encodeToString(String.valueOf(this.after).getBytes(StandardCharsets.UTF_8));
+  }
+
+  public boolean isFirst() {
+    return this.after == null;
+  }
+
+  /**
+   * Returns whether {@code id} belongs on this cursor's page or a later one under {@code order}.
+   */
+  public boolean admits(final @NotNull ID id, final @NotNull Comparator<? super ID> order) {
+    return this.after == null || order.compare(id, this.after) > 0;
+  }
+
+  /**
+   * Returns up to {@code limit} ids of {@code ids} that follow this cursor, in the set's order.
+   */
+  public @NotNull List<ID> following(final @NotNull NavigableSet<ID> ids, final int limit) {
+    final List<ID> following = new ArrayList<>(Math.min(limit, 64));
+    for (final ID id : this.after == null ? ids : ids.tailSet(this.after, false)) {
+      if (following.size() == limit) {
+        break;
+      }
+      following.add(id);
+    }
+    return following;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    return this == o || (o instanceof Cursor<?> cursor && Objects.equals(this.after, cursor.after));
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(this.after);
+  }
+
+  @Override
+  public String toString() {
+    return "Cursor{" + this.token() + '}';
+  }
+}
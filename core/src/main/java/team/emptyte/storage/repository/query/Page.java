@@ -0,0 +1,56 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.query;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.emptyte.storage.Identity;
+
+import java.util.List;
+
+/**
+ * A page of entities in id order, with the cursor of the following page or {@code null} if
+ * this is the last one.
+ */
+public record Page<T extends Identity<ID>, ID>(@NotNull List<@NotNull T> entities, @Nullable Cursor<ID> next) {
+  public Page {
+    entities = List.copyOf(entities);
+  }
+
+  /**
+   * Builds a page from up to {@code pageSize + 1} entities sorted by id, the extra one only
+   * signalling that more remain.
+   */
+  public static <T extends Identity<ID>, ID> @NotNull Page<T, ID> of(final @NotNull List<@NotNull T> sorted, final int pageSize) {
+    if (sorted.size() <= pageSize) {
+      return new Page<>(sorted, null);
+    }
+    final List<T> entities = sorted.subList(0, pageSize);
+    return new Page<>(entities, Cursor.after(entities.get(pageSize - 1).id()));
+  }
+
+  public boolean hasNext() {
+    return this.next != null;
+  }
+}
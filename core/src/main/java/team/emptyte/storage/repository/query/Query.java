@@ -0,0 +1,131 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.query;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * An immutable filter with an optional order, offset and limit, run by
+ * {@link team.emptyte.storage.repository.Repository#querySync} as a streaming scan. Repositories
+ * have no inherent order, so results follow the scan unless {@link #orderBy(Comparator)} is set;
+ * paging with {@link #offset(long)} is only repeatable across calls when it is.
+ */
+public final class Query<T> {
+  private static final Query<Object> ALL = new Query<>(entity -> true, null, 0, Long.MAX_VALUE);
+
+  private final Predicate<? super T> filter;
+  private final @Nullable Comparator<? super T> order;
+  private final long offset;
+  private final long limit;
+
+  private Query(final @NotNull Predicate<? super T> filter, final @Nullable Comparator<? super T> order, final long offset, final long limit) {
+    this.filter = filter;
+    this.order = order;
+    this.offset = offset;
+    this.limit = limit;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T> @NotNull Query<T> all() {
+    return (Query<T>) ALL;
+  }
+
+  public static <T> @NotNull Query<T> where(final @NotNull Predicate<? super T> filter) {
+    return new Query<>(Objects.requireNonNull(filter, "Filter cannot be null"), null, 0, Long.MAX_VALUE);
+  }
+
+  @Contract("_ -> new")
+  public @NotNull Query<T> and(final @NotNull Predicate<? super T> filter) {
+    Objects.requireNonNull(filter, "Filter cannot be null");
+    final Predicate<? super T> current = this.filter;
+    return new Query<>(entity -> current.test(entity) && filter.test(entity), this.order, this.offset, this.limit);
+  }
+
+  /**
+   * Sorts the matches by {@code order} before the offset and limit are applied.
+   */
+  @Contract("_ -> new")
+  public @NotNull Query<T> orderBy(final @NotNull Comparator<? super T> order) {
+    return new Query<>(this.filter, Objects.requireNonNull(order, "Order cannot be null"), this.offset, this.limit);
+  }
+
+  @Contract("_ -> new")
+  public @NotNull Query<T> offset(final long offset) {
+    if (offset < 0) {
+      throw new IllegalArgumentException("Offset cannot be negative: " + offset);
+    }
+    return new Query<>(this.filter, this.order, offset, this.limit);
+  }
+
+  @Contract("_ -> new")
+  public @NotNull Query<T> limit(final long limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("Limit cannot be negative: " + limit);
+    }
+    return new Query<>(this.filter, this.order, this.offset, limit);
+  }
+
+  public @NotNull Predicate<? super T> filter() {
+    return this.filter;
+  }
+
+  public @Nullable Comparator<? super T> order() {
+    return this.order;
+  }
+
+  public long offset() {
+    return this.offset;
+  }
+
+  public long limit() {
+    return this.limit;
+  }
+
+  /**
+   * Applies this query to {@code stream}. Matches are sorted first when an order is set; without
+   * one, the stream's encounter order is dropped only when there is no offset or limit, so a
+   * parallel scan need not coordinate which matches it keeps.
+   */
+  public <E extends T> @NotNull Stream<E> apply(final @NotNull Stream<E> stream) {
+    final boolean paged = this.offset > 0 || this.limit != Long.MAX_VALUE;
+    Stream<E> result = (paged || this.order != null ? stream : stream.unordered()).filter(this.filter);
+    if (this.order != null) {
+      result = result.sorted(this.order);
+    }
+    if (this.offset > 0) {
+      result = result.skip(this.offset);
+    }
+    if (this.limit != Long.MAX_VALUE) {
+      result = result.limit(this.limit);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.shard;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An immutable consistent-hash ring mapping keys to named shards. Each shard owns
+ * {@code virtualNodes} points on the ring and a key belongs to the shard owning the first point
+ * at or after the key's hash, so adding a shard only moves the keys that now land on its points.
+ *
+ * <p>Keys and shard names are hashed with 64-bit FNV-1a over their UTF-8 string form, followed by
+ * a mixing step. Unlike {@link Object#hashCode()} the placement is stable across JVMs, so shard
+ * names, not their registration order, decide where each id lives.</p>
+ */
+public final class HashRing<S> {
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private final Map<String, S> shards;
+  private final int virtualNodes;
+  private final long[] points;
+  private final String[] owners;
+
+  private HashRing(final @NotNull Map<String, S> shards, final int virtualNodes) {
+    this.shards = Collections.unmodifiableMap(shards);
+    this.virtualNodes = virtualNodes;
+    final int size = shards.size() * virtualNodes;
+    final long[] hashes = new long[size];
+    final String[] names = new String[size];
+    int i = 0;
+    for (final String name : shards.keySet()) {
+      for (int node = 0; node < virtualNodes; node++) {
+        hashes[i] = hash(name + '#' + node);
+        names[i++] = name;
+      }
+    }
+    // sort the points, carrying their owners along, and break hash ties by name so the ring
+    // does not depend on insertion order
+    final Integer[] order = new Integer[size];
+    for (int j = 0; j < size; j++) {
+      order[j] = j;
+    }
+    Arrays.sort(order, (a, b) -> {
+      final int compare = Long.compareUnsigned(hashes[a], hashes[b]);
+      return compare != 0 ? compare : names[a].compareTo(names[b]);
+    });
+    this.points = new long[size];
+    this.owners = new String[size];
+    for (int j = 0; j < size; j++) {
+      this.points[j] = hashes[order[j]];
+      this.owners[j] = names[order[j]];
+    }
+  }
+
+  public static <S> @NotNull HashRing<S> of(final @NotNull Map<String, ? extends S> shards, final int virtualNodes) {
+    if (shards.isEmpty()) {
+      throw new IllegalArgumentException("Hash ring needs at least one shard");
+    }
+    if (virtualNodes < 1) {
+      throw new IllegalArgumentException("Virtual nodes must be positive: " + virtualNodes);
+    }
+    return new HashRing<>(new LinkedHashMap<>(shards), virtualNodes);
+  }
+
+  /**
+   * Returns a ring with {@code shard} added under {@code name}.
+   *
+   * @throws IllegalArgumentException if the ring already has a shard named {@code name}
+   */
+  public @NotNull HashRing<S> with(final @NotNull String name, final @NotNull S shard) {
+    if (this.shards.containsKey(name)) {
+      throw new IllegalArgumentException("Duplicate shard: " + name);
+    }
+    final Map<String, S> shards = new LinkedHashMap<>(this.shards);
+    shards.put(name, shard);
+    return new HashRing<>(shards, this.virtualNodes);
+  }
+
+  public @NotNull String ownerName(final @NotNull Object key) {
+    final long hash = hash(String.valueOf(key));
+    int low = 0;
+    int high = this.points.length;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (Long.compareUnsigned(this.points[mid], hash) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return this.owners[low == this.points.length ? 0 : low];
+  }
+
+  public @NotNull S owner(final @NotNull Object key) {
+    return this.shards.get(this.ownerName(key));
+  }
+
+  /**
+   * Returns the shards by name, in registration order.
+   */
+  public @NotNull Map<String, S> shards() {
+    return this.shards;
+  }
+
+  public int virtualNodes() {
+    return this.virtualNodes;
+  }
+
+  static long hash(final @NotNull String value) {
+    long hash = FNV_OFFSET_BASIS;
+    for (final byte b : value.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b & 0xff;
+      hash *= FNV_PRIME;
+    }
+    // FNV alone clusters similar short strings such as "shard-1#0" and "shard-1#1"
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    return hash ^ (hash >>> 33);
+  }
+}
@@ -0,0 +1,493 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.shard;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.emptyte.storage.Identity;
+import team.emptyte.storage.exception.repository.RepositoryException;
+import team.emptyte.storage.repository.Repository;
+import team.emptyte.storage.repository.concurrent.Cancellation;
+import team.emptyte.storage.repository.concurrent.LockStripes;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Spreads the entities of one type over several delegate repositories, for example one
+ * {@code GsonRepository} per disk, routing each id through a {@link HashRing}. Point operations
+ * touch only the owning shard; {@link #findAllSync}, {@link #countSync()},
+ * {@link #deleteAllSync()} and {@link #findByIndexSync} run on every shard in parallel.
+ *
+ * <p>{@link #addShard} rebalances online. Until every affected entity has been moved, reads of
+ * an id that changed owner fall back to its previous shard, and writes first move the entity to
+ * its new shard, so callers never observe a missing or duplicated entity through point
+ * operations. Scans running during a rebalance are weakly consistent.</p>
+ *
+ * <p>The ring a rebalance replaces lives in memory only. If the process stops before the
+ * rebalance completes, store {@link #previousShards()} and declare them through
+ * {@link ShardedRepositoryBuilder#rebalancingFrom} when building the repository again, then call
+ * {@link #rebalance()} to finish moving the entities.</p>
+ */
+public final class ShardedRepository<T extends Identity<ID>, ID> implements Repository<T, ID> {
+  private final static Logger LOGGER = Logger.getLogger(ShardedRepository.class.getName());
+
+  private final Executor executor;
+  private final LockStripes locks;
+  // read-locked by writes so a routing change waits for the writes routed by the old ring
+  private final StampedLock routingLock = new StampedLock();
+  private volatile Routing<T, ID> routing;
+
+  ShardedRepository(
+    final @NotNull Executor executor,
+    final @NotNull HashRing<Repository<T, ID>> ring,
+    final @Nullable HashRing<Repository<T, ID>> previous,
+    final @NotNull LockStripes locks
+  ) {
+    this.executor = executor;
+    this.locks = locks;
+    this.routing = new Routing<>(ring, previous);
+  }
+
+  public static <T extends Identity<ID>, ID> @NotNull ShardedRepositoryBuilder<T, ID> builder() {
+    return new ShardedRepositoryBuilder<>();
+  }
+
+  /**
+   * Returns the shards by name.
+   */
+  public @NotNull Map<String, Repository<T, ID>> shards() {
+    return this.routing.ring().shards();
+  }
+
+  public @NotNull String shardOf(final @NotNull ID id) {
+    return this.routing.ring().ownerName(id);
+  }
+
+  public boolean isRebalancing() {
+    return this.routing.previous() != null;
+  }
+
+  /**
+   * Returns the names of the shards the ring had before the running rebalance, or {@code null}
+   * if no rebalance runs.
+   */
+  public @Nullable Set<String> previousShards() {
+    final HashRing<Repository<T, ID>> previous = this.routing.previous();
+    return previous == null ? null : previous.shards().keySet();
+  }
+
+  /**
+   * Adds {@code shard} under {@code name} and starts moving the entities it now owns from the
+   * other shards on the fan-out executor. The repository stays fully usable meanwhile.
+   *
+   * @return a future completed with the number of entities moved
+   * @throws IllegalStateException if a rebalance is still running
+   */
+  public @NotNull CompletableFuture<Long> addShard(final @NotNull String name, final @NotNull Repository<T, ID> shard) {
+    Objects.requireNonNull(name, "Shard name cannot be null");
+    Objects.requireNonNull(shard, "Shard cannot be null");
+    final long stamp = this.routingLock.writeLock();
+    try {
+      final Routing<T, ID> routing = this.routing;
+      if (routing.previous() != null) {
+        throw new IllegalStateException("A rebalance is already running");
+      }
+      this.routing = new Routing<>(routing.ring().with(name, shard), routing.ring());
+    } finally {
+      this.routingLock.unlockWrite(stamp);
+    }
+    return this.rebalance();
+  }
+
+  /**
+   * Moves every entity that is not on its owning shard, finishing a rebalance that failed
+   * part-way. Completes immediately with {@code 0} when no rebalance is pending.
+   */
+  public @NotNull CompletableFuture<Long> rebalance() {
+    final Routing<T, ID> routing = this.routing;
+    final HashRing<Repository<T, ID>> previous = routing.previous();
+    if (previous == null) {
+      return CompletableFuture.completedFuture(0L);
+    }
+    final List<CompletableFuture<long[]>> moves = new ArrayList<>();
+    for (final Map.Entry<String, Repository<T, ID>> shard : previous.shards().entrySet()) {
+      moves.add(CompletableFuture.supplyAsync(() -> this.moveMisplaced(routing.ring(), shard.getKey(), shard.getValue()), this.executor));
+    }
+    return CompletableFuture.allOf(moves.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+      long moved = 0;
+      long failed = 0;
+      for (final CompletableFuture<long[]> move : moves) {
+        moved += move.join()[0];
+        failed += move.join()[1];
+      }
+      if (failed > 0) {
+        throw new RepositoryException(failed + " entities could not be moved to their new shard; call rebalance() to retry");
+      }
+      final long stamp = this.routingLock.writeLock();
+      try {
+        this.routing = new Routing<>(routing.ring(), null);
+      } finally {
+        this.routingLock.unlockWrite(stamp);
+      }
+      return moved;
+    });
+  }
+
+  // returns {moved, failed}
+  private long @NotNull [] moveMisplaced(final @NotNull HashRing<Repository<T, ID>> ring, final @NotNull String name, final @NotNull Repository<T, ID> shard) {
+    long moved = 0;
+    long failed = 0;
+    try (final Stream<ID> ids = shard.streamIds()) {
+      final Iterator<ID> iterator = ids.iterator();
+      while (iterator.hasNext()) {
+        final ID id = iterator.next();
+        if (ring.ownerName(id).equals(name)) {
+          continue;
+        }
+        final Lock lock = this.locks.lock(id).writeLock();
+        lock.lock();
+        try {
+          if (move(id, shard, ring.owner(id))) {
+            moved++;
+          }
+        } catch (final RuntimeException e) {
+          failed++;
+          LOGGER.log(Level.WARNING, "Failed to move entity " + id + " off shard " + name, e);
+        } finally {
+          lock.unlock();
+        }
+      }
+    }
+    return new long[]{moved, failed};
+  }
+
+  // Never replaces a copy already on the new shard, which can only be newer, and keeps the
+  // entity's version so versioned writes carry on across the move.
+  private static <T extends Identity<ID>, ID> boolean move(final @NotNull ID id, final @NotNull Repository<T, ID> from, final @NotNull Repository<T, ID> to) {
+    final T entity = from.findSync(id);
+    if (entity == null) {
+      return false;
+    }
+    to.insertIfAbsentSync(entity);
+    from.deleteSync(id);
+    return true;
+  }
+
+  @Override
+  public boolean exists(final @NotNull ID id) {
+    return this.read(id, shard -> shard.exists(id), Boolean::booleanValue);
+  }
+
+  @Override
+  public @Nullable T findSync(final @NotNull ID id) {
+    return this.read(id, shard -> shard.findSync(id), Objects::nonNull);
+  }
+
+  @Override
+  public <C extends Collection<@NotNull T>> @NotNull C findAllSync(final @NotNull IntFunction<C> factory) {
+    return this.findAllSync(factory, Cancellation.NONE);
+  }
+
+  @Override
+  public <C extends Collection<@NotNull T>> @NotNull C findAllSync(final @NotNull IntFunction<C> factory, final @NotNull Cancellation cancellation) {
+    return this.gather((routing, name, shard) -> this.placed(routing, name, shard.findAllSync(ArrayList::new, cancellation)), factory);
+  }
+
+  @Override
+  public @NotNull Stream<@NotNull ID> streamIds() {
+    final Routing<T, ID> routing = this.routing;
+    return routing.ring().shards().entrySet().stream()
+      .flatMap(shard -> shard.getValue().streamIds().filter(id -> routing.placed(shard.getKey(), id)));
+  }
+
+  @Override
+  public long countSync() {
+    final Routing<T, ID> routing = this.routing;
+    long count = 0;
+    for (final Long shardCount : this.fanOut(routing, (current, name, shard) -> {
+      if (current.previous() == null) {
+        return shard.countSync();
+      }
+      try (final Stream<ID> ids = shard.streamIds()) {
+        return ids.filter(id -> current.placed(name, id)).count();
+      }
+    })) {
+      count += shardCount;
+    }
+    return count;
+  }
+
+  @Override
+  public <C extends Collection<@NotNull T>> @NotNull C findByIndexSync(final @NotNull String index, final @NotNull Object key, final @NotNull IntFunction<C> factory) {
+    return this.gather((routing, name, shard) -> this.placed(routing, name, shard.findByIndexSync(index, key, ArrayList::new)), factory);
+  }
+
+  @Override
+  public boolean deleteSync(final @NotNull ID id) {
+    return this.write(id, shard -> shard.deleteSync(id));
+  }
+
+  @Override
+  public @Nullable T deleteAndRetrieveSync(final @NotNull ID id) {
+    return this.write(id, shard -> shard.deleteAndRetrieveSync(id));
+  }
+
+  @Override
+  public void deleteAllSync() {
+    final long stamp = this.routingLock.readLock();
+    try {
+      this.fanOut(this.routing, (routing, name, shard) -> {
+        shard.deleteAllSync();
+        return null;
+      });
+    } finally {
+      this.routingLock.unlockRead(stamp);
+    }
+  }
+
+  @Override
+  public @NotNull T saveSync(final @NotNull T entity) {
+    return this.write(entity.id(), shard -> shard.saveSync(entity));
+  }
+
+  @Override
+  public @NotNull T saveIfVersionSync(final @NotNull T entity, final long expectedVersion) {
+    return this.write(entity.id(), shard -> shard.saveIfVersionSync(entity, expectedVersion));
+  }
+
+  @Override
+  public @Nullable T computeSync(final @NotNull ID id, final @NotNull BiFunction<? super ID, ? super @Nullable T, ? extends @Nullable T> remapping) {
+    return this.write(id, shard -> shard.computeSync(id, remapping));
+  }
+
+  @Override
+  public @NotNull T computeIfAbsentSync(final @NotNull ID id, final @NotNull Function<? super ID, ? extends @NotNull T> factory) {
+    return this.write(id, shard -> shard.computeIfAbsentSync(id, factory));
+  }
+
+  @Override
+  public @Nullable T insertIfAbsentSync(final @NotNull T entity) {
+    return this.write(entity.id(), shard -> shard.insertIfAbsentSync(entity));
+  }
+
+  @Override
+  public @Nullable T mergeSync(final @NotNull T entity, final @NotNull BiFunction<? super @NotNull T, ? super @NotNull T, ? extends @Nullable T> remapping) {
+    return this.write(entity.id(), shard -> shard.mergeSync(entity, remapping));
+  }
+
+  // Reads are retried under the routing lock only if the routing changed while they ran.
+  private <R> R read(final @NotNull ID id, final @NotNull Function<? super Repository<T, ID>, R> operation, final @NotNull Predicate<? super R> found) {
+    final long optimistic = this.routingLock.tryOptimisticRead();
+    if (optimistic != 0) {
+      final R result = this.route(id, operation, found);
+      if (this.routingLock.validate(optimistic)) {
+        return result;
+      }
+    }
+    final long stamp = this.routingLock.readLock();
+    try {
+      return this.route(id, operation, found);
+    } finally {
+      this.routingLock.unlockRead(stamp);
+    }
+  }
+
+  private <R> R route(final @NotNull ID id, final @NotNull Function<? super Repository<T, ID>, R> operation, final @NotNull Predicate<? super R> found) {
+    final Routing<T, ID> routing = this.routing;
+    final Repository<T, ID> owner = routing.ring().owner(id);
+    final Repository<T, ID> previous = routing.previousOwner(id);
+    if (previous == null) {
+      return operation.apply(owner);
+    }
+    final Lock lock = this.locks.lock(id).readLock();
+    lock.lock();
+    try {
+      final R result = operation.apply(owner);
+      return found.test(result) ? result : operation.apply(previous);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private <R> R write(final @NotNull ID id, final @NotNull Function<? super Repository<T, ID>, R> operation) {
+    final long stamp = this.routingLock.readLock();
+    try {
+      final Routing<T, ID> routing = this.routing;
+      final Repository<T, ID> owner = routing.ring().owner(id);
+      final Repository<T, ID> previous = routing.previousOwner(id);
+      if (previous == null) {
+        return operation.apply(owner);
+      }
+      final Lock lock = this.locks.lock(id).writeLock();
+      lock.lock();
+      try {
+        move(id, previous, owner);
+        return operation.apply(owner);
+      } finally {
+        lock.unlock();
+      }
+    } finally {
+      this.routingLock.unlockRead(stamp);
+    }
+  }
+
+  private <C extends Collection<@NotNull T>> @NotNull C gather(final @NotNull ShardTask<T, ID, List<T>> task, final @NotNull IntFunction<C> factory) {
+    final List<List<T>> results = this.fanOut(this.routing, task);
+    int size = 0;
+    for (final List<T> result : results) {
+      size += result.size();
+    }
+    final C entities = factory.apply(size);
+    for (final List<T> result : results) {
+      entities.addAll(result);
+    }
+    return entities;
+  }
+
+  private @NotNull List<T> placed(final @NotNull Routing<T, ID> routing, final @NotNull String name, final @NotNull List<T> entities) {
+    if (routing.previous() != null) {
+      entities.removeIf(entity -> !routing.placed(name, entity.id()));
+    }
+    return entities;
+  }
+
+  // The caller runs every shard task the executor has not started yet, so it only ever waits
+  // for tasks already running and cannot starve a bounded executor it is itself a thread of.
+  private <R> @NotNull List<R> fanOut(final @NotNull Routing<T, ID> routing, final @NotNull ShardTask<T, ID, R> task) {
+    final Map<String, Repository<T, ID>> shards = routing.ring().shards();
+    if (shards.size() == 1) {
+      final Map.Entry<String, Repository<T, ID>> shard = shards.entrySet().iterator().next();
+      return Collections.singletonList(task.run(routing, shard.getKey(), shard.getValue()));
+    }
+    final List<ShardCall<R>> calls = new ArrayList<>(shards.size());
+    for (final Map.Entry<String, Repository<T, ID>> shard : shards.entrySet()) {
+      final ShardCall<R> call = new ShardCall<>(() -> task.run(routing, shard.getKey(), shard.getValue()));
+      calls.add(call);
+      if (calls.size() < shards.size()) {
+        try {
+          this.executor.execute(call);
+        } catch (final RejectedExecutionException e) {
+          // run by the caller below
+        }
+      }
+    }
+    for (final ShardCall<R> call : calls) {
+      call.run();
+    }
+    final List<R> results = new ArrayList<>(calls.size());
+    for (final ShardCall<R> call : calls) {
+      try {
+        results.add(call.result.join());
+      } catch (final CompletionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+          throw cause;
+        }
+        throw e;
+      }
+    }
+    return results;
+  }
+
+  /**
+   * A shard task run once, by whichever of the executor and the fanning-out thread claims it
+   * first.
+   */
+  private static final class ShardCall<R> implements Runnable {
+    private final Supplier<R> task;
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    private final CompletableFuture<R> result = new CompletableFuture<>();
+
+    private ShardCall(final @NotNull Supplier<R> task) {
+      this.task = task;
+    }
+
+    @Override
+    public void run() {
+      if (!this.claimed.compareAndSet(false, true)) {
+        return;
+      }
+      try {
+        this.result.complete(this.task.get());
+      } catch (final Throwable e) {
+        this.result.completeExceptionally(e);
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface ShardTask<T extends Identity<ID>, ID, R> {
+    R run(final @NotNull Routing<T, ID> routing, final @NotNull String name, final @NotNull Repository<T, ID> shard);
+  }
+
+  /**
+   * The current ring, and while a rebalance runs the ring it replaced.
+   */
+  private record Routing<T extends Identity<ID>, ID>(@NotNull HashRing<Repository<T, ID>> ring, @Nullable HashRing<Repository<T, ID>> previous) {
+    /**
+     * Returns the shard that owned {@code id} before the rebalance, or {@code null} if no
+     * rebalance runs or the owner did not change.
+     */
+    @Nullable Repository<T, ID> previousOwner(final @NotNull ID id) {
+      if (this.previous == null) {
+        return null;
+      }
+      final String name = this.previous.ownerName(id);
+      return name.equals(this.ring.ownerName(id)) ? null : this.previous.shards().get(name);
+    }
+
+    /**
+     * Returns whether a scan of shard {@code name} should report {@code id}: a copy left on the
+     * previous owner counts only until the new owner holds one.
+     */
+    boolean placed(final @NotNull String name, final @NotNull ID id) {
+      if (this.previous == null) {
+        return true;
+      }
+      final String owner = this.ring.ownerName(id);
+      return owner.equals(name) || !this.ring.shards().get(owner).exists(id);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.shard;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.emptyte.storage.Identity;
+import team.emptyte.storage.repository.Repository;
+import team.emptyte.storage.repository.concurrent.LockStripes;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+public class ShardedRepositoryBuilder<T extends Identity<ID>, ID> {
+  private final Map<String, Repository<T, ID>> shards = new LinkedHashMap<>();
+  private int virtualNodes = 128;
+  private int lockStripes = 64;
+  private @Nullable Set<String> previousShards;
+
+  /**
+   * Adds a shard. Its name decides which ids it owns, so a shard must keep its name across
+   * restarts for its entities to stay reachable.
+   */
+  @Contract("_, _ -> this")
+  public @NotNull ShardedRepositoryBuilder<T, ID> shard(final @NotNull String name, final @NotNull Repository<T, ID> repository) {
+    Objects.requireNonNull(name, "Shard name cannot be null");
+    Objects.requireNonNull(repository, "Shard cannot be null");
+    if (this.shards.putIfAbsent(name, repository) != null) {
+      throw new IllegalArgumentException("Duplicate shard: " + name);
+    }
+    return this;
+  }
+
+  /**
+   * Sets the points each shard owns on the hash ring. More points spread ids more evenly at the
+   * cost of a larger ring. Changing it moves ids between existing shards.
+   */
+  @Contract("_ -> this")
+  public @NotNull ShardedRepositoryBuilder<T, ID> virtualNodes(final int virtualNodes) {
+    if (virtualNodes < 1) {
+      throw new IllegalArgumentException("Virtual nodes must be positive: " + virtualNodes);
+    }
+    this.virtualNodes = virtualNodes;
+    return this;
+  }
+
+  /**
+   * Sets the lock stripes coordinating writes with entity moves while a rebalance runs.
+   */
+  @Contract("_ -> this")
+  public @NotNull ShardedRepositoryBuilder<T, ID> lockStripes(final int lockStripes) {
+    if (lockStripes < 1 || lockStripes > LockStripes.MAX_STRIPES) {
+      throw new IllegalArgumentException("Lock stripes must be between 1 and 2^30: " + lockStripes);
+    }
+    this.lockStripes = lockStripes;
+    return this;
+  }
+
+  /**
+   * Declares the shards the ring had before a rebalance that did not complete, as reported by
+   * {@link ShardedRepository#previousShards()}. The repository starts rebalancing, falling back
+   * to the previous owners, until {@link ShardedRepository#rebalance()} completes.
+   */
+  @Contract("_ -> this")
+  public @NotNull ShardedRepositoryBuilder<T, ID> rebalancingFrom(final @NotNull Collection<String> previousShards) {
+    Objects.requireNonNull(previousShards, "Previous shards cannot be null");
+    if (previousShards.isEmpty()) {
+      throw new IllegalArgumentException("Previous shards cannot be empty");
+    }
+    this.previousShards = new LinkedHashSet<>(previousShards);
+    return this;
+  }
+
+  /**
+   * Builds the repository, fanning scans out and moving entities on {@code executor}. A scan
+   * runs the shards the executor has not picked up yet on the calling thread, so a bounded
+   * executor slows scans down but never blocks them.
+   */
+  public @NotNull ShardedRepository<T, ID> build(final @NotNull Executor executor) {
+    Objects.requireNonNull(executor, "Executor cannot be null");
+    HashRing<Repository<T, ID>> previous = null;
+    if (this.previousShards != null) {
+      final Map<String, Repository<T, ID>> previousShards = new LinkedHashMap<>();
+      for (final String name : this.previousShards) {
+        final Repository<T, ID> shard = this.shards.get(name);
+        if (shard == null) {
+          throw new IllegalArgumentException("Unknown previous shard: " + name);
+        }
+        previousShards.put(name, shard);
+      }
+      previous = HashRing.of(previousShards, this.virtualNodes);
+    }
+    return new ShardedRepository<>(executor, HashRing.of(this.shards, this.virtualNodes), previous, LockStripes.of(this.lockStripes));
+  }
+}
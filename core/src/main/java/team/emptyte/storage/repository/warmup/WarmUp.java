@@ -0,0 +1,182 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.warmup;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.emptyte.storage.Identity;
+import team.emptyte.storage.repository.ModificationAware;
+import team.emptyte.storage.repository.Repository;
+import team.emptyte.storage.repository.concurrent.RateLimiter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Copies entities from a durable repository into a cache-like one in the background, so the
+ * target can serve traffic while it fills.
+ *
+ * <p>Every id is loaded through {@link Repository#insertIfAbsentSync}, so an entity the target
+ * already holds, for example because it was written while the warm-up ran, is never replaced by
+ * the older copy from the source, and loaded entities keep the version they have in the
+ * source.</p>
+ */
+public final class WarmUp<T extends Identity<ID>, ID> {
+  private final Repository<T, ID> source;
+  private final Repository<T, ID> target;
+
+  private @Nullable List<ID> ids;
+  private int mostRecentlyModified = -1;
+  private @Nullable RateLimiter rateLimiter;
+  private int parallelism = 4;
+  private @Nullable Consumer<? super WarmUpProgress> listener;
+  private int reportEvery = 1000;
+
+  private WarmUp(final @NotNull Repository<T, ID> source, final @NotNull Repository<T, ID> target) {
+    this.source = source;
+    this.target = target;
+  }
+
+  public static <T extends Identity<ID>, ID> @NotNull WarmUp<T, ID> from(final @NotNull Repository<T, ID> source, final @NotNull Repository<T, ID> target) {
+    return new WarmUp<>(Objects.requireNonNull(source, "Source cannot be null"), Objects.requireNonNull(target, "Target cannot be null"));
+  }
+
+  /**
+   * Loads only {@code ids}, in iteration order, instead of every entity in the source.
+   */
+  @Contract("_ -> this")
+  public @NotNull WarmUp<T, ID> ids(final @NotNull Collection<? extends ID> ids) {
+    this.ids = List.copyOf(ids);
+    this.mostRecentlyModified = -1;
+    return this;
+  }
+
+  /**
+   * Loads only the {@code limit} most recently modified entities, newest first.
+   *
+   * @throws IllegalArgumentException if the source is not {@link ModificationAware}
+   */
+  @Contract("_ -> this")
+  public @NotNull WarmUp<T, ID> mostRecentlyModified(final int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("Limit cannot be negative: " + limit);
+    }
+    if (!(this.source instanceof ModificationAware<?>)) {
+      throw new IllegalArgumentException("Source does not track modification times: " + this.source.getClass().getName());
+    }
+    this.mostRecentlyModified = limit;
+    this.ids = null;
+    return this;
+  }
+
+  /**
+   * Caps the loads from the source at {@code permitsPerSecond}, shared by all workers. Ids the
+   * target already holds are skipped without taking a permit.
+   */
+  @Contract("_ -> this")
+  public @NotNull WarmUp<T, ID> rateLimit(final double permitsPerSecond) {
+    this.rateLimiter = RateLimiter.of(permitsPerSecond);
+    return this;
+  }
+
+  @Contract("_ -> this")
+  public @NotNull WarmUp<T, ID> parallelism(final int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+    }
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  /**
+   * Reports progress to {@code listener} every {@code every} processed ids and once more when the
+   * warm-up ends. The listener may be called from several worker threads.
+   */
+  @Contract("_, _ -> this")
+  public @NotNull WarmUp<T, ID> onProgress(final @NotNull Consumer<? super WarmUpProgress> listener, final int every) {
+    if (every < 1) {
+      throw new IllegalArgumentException("Report interval must be positive: " + every);
+    }
+    this.listener = Objects.requireNonNull(listener, "Progress listener cannot be null");
+    this.reportEvery = every;
+    return this;
+  }
+
+  /**
+   * Starts the warm-up on {@code executor}, which should have at least {@code parallelism}
+   * threads available, and returns immediately.
+   */
+  public @NotNull WarmUpTask start(final @NotNull Executor executor) {
+    Objects.requireNonNull(executor, "Executor cannot be null");
+    final WarmUpTask task = new WarmUpTask(this.listener, this.reportEvery);
+    final List<ID> ids = this.ids;
+    final int mostRecentlyModified = this.mostRecentlyModified;
+    task.start(executor, this.parallelism, () -> {
+      if (ids != null) {
+        task.total(ids.size());
+        return ids.stream();
+      }
+      if (mostRecentlyModified >= 0) {
+        @SuppressWarnings("unchecked") final List<ID> recent = ((ModificationAware<ID>) this.source).recentlyModifiedIds(mostRecentlyModified);
+        task.total(recent.size());
+        return recent.stream();
+      }
+      task.total(this.source.countSync());
+      return this.source.streamIds();
+    }, this::load);
+    return task;
+  }
+
+  private boolean load(final @NotNull ID id) {
+    if (this.target.exists(id)) {
+      return false;
+    }
+    if (this.rateLimiter != null) {
+      this.rateLimiter.acquire();
+    }
+    final T entity = this.source.findSync(id);
+    if (entity == null) {
+      return false;
+    }
+    return this.target.insertIfAbsentSync(entity) == null;
+  }
+
+  @FunctionalInterface
+  interface Loader<ID> {
+    /**
+     * Returns whether {@code id} was loaded into the target, {@code false} if it was skipped.
+     */
+    boolean load(final @NotNull ID id);
+  }
+
+  @FunctionalInterface
+  interface IdSource<ID> {
+    @NotNull Stream<ID> open();
+  }
+}
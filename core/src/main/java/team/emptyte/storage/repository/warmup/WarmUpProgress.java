@@ -0,0 +1,54 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.warmup;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+
+/**
+ * A snapshot of a running {@link WarmUp}.
+ *
+ * @param loaded  entities copied into the target
+ * @param skipped ids already present in the target or missing from the source
+ * @param failed  ids whose load threw
+ * @param total   ids the warm-up expects to visit, {@code -1} until known
+ * @param elapsed time since the warm-up started
+ */
+public record WarmUpProgress(long loaded, long skipped, long failed, long total, @NotNull Duration elapsed) {
+  public long processed() {
+    return this.loaded + this.skipped + this.failed;
+  }
+
+  /**
+   * Returns the share of ids processed so far, between {@code 0} and {@code 1}, or {@code -1}
+   * while the total is unknown.
+   */
+  public double fraction() {
+    if (this.total < 0) {
+      return -1;
+    }
+    return this.total == 0 ? 1 : Math.min(1, (double) this.processed() / this.total);
+  }
+}
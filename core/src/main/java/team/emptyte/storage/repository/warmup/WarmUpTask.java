@@ -0,0 +1,135 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.warmup;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A warm-up running in the background.
+ */
+public final class WarmUpTask {
+  private final static Logger LOGGER = Logger.getLogger(WarmUpTask.class.getName());
+
+  private final @Nullable Consumer<? super WarmUpProgress> listener;
+  private final int reportEvery;
+  private final long startNanos = System.nanoTime();
+  private final LongAdder loaded = new LongAdder();
+  private final LongAdder skipped = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final AtomicLong processed = new AtomicLong();
+  private final CompletableFuture<WarmUpProgress> completion = new CompletableFuture<>();
+  private volatile long total = -1;
+
+  WarmUpTask(final @Nullable Consumer<? super WarmUpProgress> listener, final int reportEvery) {
+    this.listener = listener;
+    this.reportEvery = reportEvery;
+  }
+
+  /**
+   * Returns a future completed with the final progress once every id was processed, or
+   * exceptionally if the ids could not be listed.
+   */
+  public @NotNull CompletableFuture<WarmUpProgress> completion() {
+    return this.completion;
+  }
+
+  public @NotNull WarmUpProgress progress() {
+    return new WarmUpProgress(this.loaded.sum(), this.skipped.sum(), this.failed.sum(), this.total, Duration.ofNanos(System.nanoTime() - this.startNanos));
+  }
+
+  /**
+   * Stops the warm-up after the loads already in progress; entities loaded so far stay in the
+   * target.
+   */
+  public void cancel() {
+    this.completion.cancel(false);
+  }
+
+  public boolean isDone() {
+    return this.completion.isDone();
+  }
+
+  void total(final long total) {
+    this.total = total;
+  }
+
+  <ID> void start(final @NotNull Executor executor, final int parallelism, final WarmUp.@NotNull IdSource<ID> ids, final WarmUp.@NotNull Loader<ID> loader) {
+    CompletableFuture.supplyAsync(ids::open, executor)
+      .thenCompose(stream -> {
+        final Iterator<ID> iterator = stream.iterator();
+        final CompletableFuture<?>[] workers = new CompletableFuture<?>[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+          workers[i] = CompletableFuture.runAsync(() -> this.drain(iterator, loader), executor);
+        }
+        return CompletableFuture.allOf(workers).whenComplete((result, throwable) -> stream.close());
+      })
+      .whenComplete((result, throwable) -> {
+        if (throwable != null) {
+          this.completion.completeExceptionally(throwable);
+          return;
+        }
+        final WarmUpProgress progress = this.progress();
+        if (this.listener != null && !this.completion.isDone()) {
+          this.listener.accept(progress);
+        }
+        this.completion.complete(progress);
+      });
+  }
+
+  private <ID> void drain(final @NotNull Iterator<ID> iterator, final WarmUp.@NotNull Loader<ID> loader) {
+    while (!this.completion.isDone()) {
+      final ID id;
+      synchronized (iterator) {
+        if (!iterator.hasNext()) {
+          return;
+        }
+        id = iterator.next();
+      }
+      try {
+        if (loader.load(id)) {
+          this.loaded.increment();
+        } else {
+          this.skipped.increment();
+        }
+      } catch (final RuntimeException e) {
+        this.failed.increment();
+        LOGGER.log(Level.WARNING, "Failed to warm up entity " + id, e);
+      }
+      if (this.listener != null && this.processed.incrementAndGet() % this.reportEvery == 0) {
+        this.listener.accept(this.progress());
+      }
+    }
+  }
+}
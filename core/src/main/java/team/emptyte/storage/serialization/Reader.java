@@ -113,7 +113,15 @@ public interface Reader<ReadType> {
     return value.byteValue();
   }
 
-  boolean readBoolean(final @NotNull String field);
+  @Nullable Boolean readNullableBoolean(final @NotNull String field);
+
+  default boolean readBoolean(final @NotNull String field) {
+    final var value = this.readNullableBoolean(field);
+    if (value == null) {
+      return false;
+    }
+    return value;
+  }
 
   <T, C extends Collection<T>> @Nullable C readRawCollection(
     final @NotNull String field,
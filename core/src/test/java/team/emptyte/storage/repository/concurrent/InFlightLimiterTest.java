@@ -0,0 +1,101 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.concurrent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.emptyte.storage.exception.repository.RepositoryOverloadedException;
+import team.emptyte.storage.repository.AsyncRepository;
+import team.emptyte.storage.repository.Operation;
+import team.emptyte.storage.test.MapRepository;
+import team.emptyte.storage.test.User;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InFlightLimiterTest {
+  @Test
+  @DisplayName("async operations beyond the in-flight limit should fail fast and be counted")
+  void asyncOperations_ShouldRejectBeyondInFlightLimit() {
+    final Queue<Runnable> pending = new ArrayDeque<>();
+    final AsyncRepository<User, String> repository = MapRepository.<User, String>builder()
+      .maxInFlight(1, OverflowPolicy.FAIL_FAST)
+      .buildAsync(pending::add);
+
+    final CompletableFuture<Boolean> first = repository.existsAsync("user-1");
+    final CompletableFuture<Boolean> second = repository.existsAsync("user-2");
+
+    final CompletionException exception = assertThrows(CompletionException.class, second::join);
+    assertInstanceOf(RepositoryOverloadedException.class, exception.getCause());
+    assertEquals(1, repository.limiter().inFlight());
+    assertEquals(1, repository.limiter().rejected());
+
+    pending.forEach(Runnable::run);
+    assertFalse(first.join());
+    assertEquals(0, repository.limiter().inFlight());
+  }
+
+  @Test
+  @DisplayName("cancelled operations should keep their in-flight slot until their task has run")
+  void asyncOperations_ShouldHoldSlotUntilTaskRuns() {
+    final Queue<Runnable> pending = new ArrayDeque<>();
+    final AsyncRepository<User, String> repository = MapRepository.<User, String>builder()
+      .maxInFlight(1, OverflowPolicy.FAIL_FAST)
+      .buildAsync(pending::add);
+
+    final CompletableFuture<Boolean> first = repository.existsAsync("user-1");
+    first.cancel(false);
+
+    assertEquals(1, repository.limiter().inFlight());
+    final CompletionException exception = assertThrows(CompletionException.class, () -> repository.existsAsync("user-2").join());
+    assertInstanceOf(RepositoryOverloadedException.class, exception.getCause());
+
+    pending.forEach(Runnable::run);
+    assertEquals(0, repository.limiter().inFlight());
+  }
+
+  @Test
+  @DisplayName("SHED_READS should reject only reads once the limit is reached")
+  void acquire_ShouldShedOnlyReads() {
+    final InFlightLimiter limiter = InFlightLimiter.of(1, OverflowPolicy.SHED_READS);
+    limiter.acquire(Operation.SAVE);
+
+    assertThrows(RepositoryOverloadedException.class, () -> limiter.acquire(Operation.FIND));
+    assertEquals(1, limiter.rejected());
+    limiter.release();
+    limiter.acquire(Operation.FIND);
+    assertEquals(1, limiter.inFlight());
+  }
+
+  @Test
+  @DisplayName("limits below one should be rejected")
+  void of_ShouldRejectNonPositiveLimit() {
+    assertThrows(IllegalArgumentException.class, () -> InFlightLimiter.of(0, OverflowPolicy.BLOCK));
+    assertEquals(Integer.MAX_VALUE, InFlightLimiter.unbounded().maxInFlight());
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.concurrent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.locks.Lock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LockStripesTest {
+  @Test
+  @DisplayName("LockStripes should hand the same key the same lock and exclude its writers")
+  void lock_ShouldExcludeWritersOnSameKey() throws InterruptedException {
+    final LockStripes stripes = LockStripes.of(5);
+    assertEquals(8, stripes.size());
+    assertSame(stripes.lock("user-1"), stripes.lock("user-1"));
+
+    final String[] keys = {"user-1", "user-2", "user-3"};
+    final int[] counters = new int[keys.length];
+    final Thread[] threads = new Thread[6];
+    for (int i = 0; i < threads.length; i++) {
+      final int key = i % keys.length;
+      threads[i] = new Thread(() -> {
+        for (int j = 0; j < 10_000; j++) {
+          final Lock lock = stripes.lock(keys[key]).writeLock();
+          lock.lock();
+          try {
+            counters[key]++;
+          } finally {
+            lock.unlock();
+          }
+        }
+      });
+      threads[i].start();
+    }
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    for (final int counter : counters) {
+      assertEquals(20_000, counter);
+    }
+  }
+
+  @Test
+  @DisplayName("stripe counts outside 1 to 2^30 should be rejected")
+  void of_ShouldRejectOutOfRangeStripes() {
+    assertThrows(IllegalArgumentException.class, () -> LockStripes.of(0));
+    assertThrows(IllegalArgumentException.class, () -> LockStripes.of(LockStripes.MAX_STRIPES + 1));
+    assertEquals(1, LockStripes.of(1).size());
+    assertEquals(4, LockStripes.of(4).size());
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.concurrent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.emptyte.storage.repository.AsyncRepository;
+import team.emptyte.storage.test.MapRepository;
+import team.emptyte.storage.test.User;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriorityExecutorTest {
+  @Test
+  @DisplayName("priority scheduling should run point reads ahead of queued bulk operations")
+  void priorityScheduling_ShouldRunReadsFirst() {
+    final Queue<Runnable> pending = new ArrayDeque<>();
+    final AsyncRepository<User, String> repository = MapRepository.<User, String>builder()
+      .priorityScheduling(PriorityPolicy.defaults())
+      .buildAsync(pending::add);
+
+    final CompletableFuture<Void> deleteAll = repository.deleteAllAsync();
+    final CompletableFuture<Boolean> exists = repository.existsAsync("user-1");
+
+    pending.remove().run();
+    assertTrue(exists.isDone());
+    assertFalse(deleteAll.isDone());
+
+    pending.remove().run();
+    assertTrue(deleteAll.isDone());
+  }
+
+  @Test
+  @DisplayName("execute should share turns between priorities by weight without starving the lowest")
+  void execute_ShouldInterleaveByWeight() {
+    final Queue<Runnable> pending = new ArrayDeque<>();
+    final PriorityExecutor executor = new PriorityExecutor(pending::add, new PriorityPolicy(2, 1, 1, Duration.ofHours(1)));
+    final List<Priority> order = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      executor.lane(Priority.LOW).execute(() -> order.add(Priority.LOW));
+      executor.execute(Priority.HIGH, () -> order.add(Priority.HIGH));
+    }
+    assertEquals(4, executor.pending(Priority.HIGH));
+    assertEquals(4, executor.pending(Priority.LOW));
+
+    while (!pending.isEmpty()) {
+      pending.remove().run();
+    }
+
+    final Priority high = Priority.HIGH;
+    final Priority low = Priority.LOW;
+    assertEquals(List.of(high, low, high, high, low, high, low, low), order);
+    assertEquals(0, executor.pending(Priority.HIGH));
+  }
+
+  @Test
+  @DisplayName("policies with a non-positive weight or delay should be rejected")
+  void policy_ShouldRejectInvalidSettings() {
+    assertThrows(IllegalArgumentException.class, () -> new PriorityPolicy(0, 1, 1, Duration.ofSeconds(1)));
+    assertThrows(IllegalArgumentException.class, () -> new PriorityPolicy(1, 1, 1, Duration.ZERO));
+  }
+}
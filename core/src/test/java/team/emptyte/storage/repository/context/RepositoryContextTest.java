@@ -0,0 +1,94 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.context;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.emptyte.storage.repository.AsyncRepository;
+import team.emptyte.storage.test.MapRepository;
+import team.emptyte.storage.test.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepositoryContextTest {
+  @Test
+  @DisplayName("RepositoryContext should run repositories on its executors and reject new ones once closed")
+  void build_ShouldRunOnSharedExecutorsUntilClosed() {
+    final RepositoryContext context = RepositoryContext.builder()
+      .maxConcurrentIo(2)
+      .computeThreads(1)
+      .build();
+    final AsyncRepository<User, String> repository = context.build(MapRepository.builder());
+
+    repository.saveAsync(new User("user-1", "John")).join();
+    assertEquals("John", repository.findAsync("user-1").join().name());
+    assertNull(repository.findAsync("user-2").join());
+
+    context.close();
+    assertEquals(0, repository.limiter().inFlight());
+    assertThrows(IllegalStateException.class, () -> context.build(MapRepository.<User, String>builder()));
+    assertThrows(IllegalStateException.class, () -> context.register(MapRepository.<User, String>create()));
+    assertDoesNotThrow(context::close);
+  }
+
+  @Test
+  @DisplayName("BufferPool should reuse released buffers up to its bound and ignore foreign ones")
+  void bufferPool_ShouldReuseUpToBound() {
+    final BufferPool pool = BufferPool.of(64, 1);
+    final byte[] first = pool.acquire();
+    final byte[] second = pool.acquire();
+    assertEquals(64, first.length);
+    assertNotSame(first, second);
+
+    pool.release(first);
+    pool.release(second);
+    pool.release(new byte[32]);
+
+    assertSame(first, pool.acquire());
+    assertNotSame(second, pool.acquire());
+    assertThrows(IllegalArgumentException.class, () -> BufferPool.of(0, 1));
+  }
+
+  @Test
+  @DisplayName("MemoryBudget should split its bytes by weight and hand a closed share back")
+  void memoryBudget_ShouldSplitByWeight() {
+    final MemoryBudget budget = new MemoryBudget(1200);
+    final List<Long> small = new ArrayList<>();
+    final List<Long> large = new ArrayList<>();
+
+    final MemoryBudget.Share smallShare = budget.allocate("small", 1, small::add);
+    final MemoryBudget.Share largeShare = budget.allocate("large", 2, large::add);
+    assertEquals(List.of(1200L, 400L), small);
+    assertEquals(List.of(800L), large);
+    assertEquals(400, smallShare.bytes());
+
+    smallShare.close();
+    assertEquals(List.of(800L, 1200L), large);
+    assertEquals(1200, largeShare.bytes());
+    assertThrows(IllegalArgumentException.class, () -> budget.allocate("empty", 0, bytes -> { }));
+  }
+}
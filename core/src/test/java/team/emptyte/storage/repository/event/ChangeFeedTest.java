@@ -0,0 +1,129 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.event;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.emptyte.storage.repository.Repository;
+import team.emptyte.storage.test.MapRepository;
+import team.emptyte.storage.test.User;
+
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeFeedTest {
+  private Repository<User, String> repository;
+
+  @BeforeEach
+  void setUp() {
+    this.repository = MapRepository.create();
+  }
+
+  @Test
+  @DisplayName("subscribe should deliver saves and deletes in write order until closed")
+  void subscribe_ShouldDeliverChangesInOrder() throws InterruptedException {
+    final BlockingQueue<RepositoryEvent<User, String>> events = new LinkedBlockingQueue<>();
+    final Subscription subscription = this.repository.subscribe(events::add);
+
+    this.repository.saveSync(new User("user-1", "John"));
+    this.repository.computeSync("user-1", (id, current) -> new User(id, "Jane"));
+    this.repository.deleteAndRetrieveSync("user-1");
+    this.repository.deleteSync("user-2");
+
+    final RepositoryEvent<User, String> saved = events.poll(5, TimeUnit.SECONDS);
+    final RepositoryEvent<User, String> computed = events.poll(5, TimeUnit.SECONDS);
+    final RepositoryEvent<User, String> deleted = events.poll(5, TimeUnit.SECONDS);
+    assertNotNull(deleted);
+    assertEquals(RepositoryEvent.Type.SAVED, saved.type());
+    assertEquals("Jane", computed.entity().name());
+    assertEquals(RepositoryEvent.Type.DELETED, deleted.type());
+    assertEquals("user-1", deleted.id());
+    assertEquals("Jane", deleted.entity().name());
+
+    subscription.close();
+    // a closed subscription leaves the feed at once, so later writes never reach it
+    this.repository.saveSync(new User("user-3", "Jack"));
+    assertFalse(subscription.isActive());
+    assertEquals(0, subscription.pending());
+    assertTrue(events.isEmpty());
+  }
+
+  @Test
+  @DisplayName("subscribe should deliver off the writing thread and drop events rather than block writers")
+  void subscribe_ShouldNeverBlockWriters() throws InterruptedException {
+    final CountDownLatch release = new CountDownLatch(1);
+    final BlockingQueue<RepositoryEvent<User, String>> events = new LinkedBlockingQueue<>();
+    final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    final Subscription subscription = this.repository.subscribe(event -> {
+      threads.add(Thread.currentThread());
+      // a listener writing back to the repository must not deadlock with the write it observes
+      if (event.id().equals("user-0")) {
+        this.repository.computeSync("echo", (id, current) -> new User(id, "Echo"));
+      }
+      try {
+        release.await();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      events.add(event);
+    }, new DeliveryPolicy(1, 4, true));
+
+    for (int i = 0; i < 20; i++) {
+      this.repository.saveSync(new User("user-" + i, "Name " + i));
+    }
+    assertTrue(subscription.dropped() > 0);
+    release.countDown();
+
+    assertEquals("user-0", events.poll(5, TimeUnit.SECONDS).id());
+    while (subscription.pending() > 0) {
+      assertNotNull(events.poll(5, TimeUnit.SECONDS));
+    }
+    assertEquals("Echo", this.repository.findSync("echo").name());
+    assertFalse(threads.contains(Thread.currentThread()));
+    subscription.close();
+  }
+
+  @Test
+  @DisplayName("subscriptions without entities should receive ids only")
+  void subscribe_ShouldOmitEntitiesWhenAsked() throws InterruptedException {
+    final BlockingQueue<RepositoryEvent<User, String>> events = new LinkedBlockingQueue<>();
+    final Subscription subscription = this.repository.subscribe(events::add, new DeliveryPolicy(2, 16, false));
+
+    this.repository.saveSync(new User("user-1", "John"));
+
+    final RepositoryEvent<User, String> saved = events.poll(5, TimeUnit.SECONDS);
+    assertNotNull(saved);
+    assertEquals("user-1", saved.id());
+    assertNull(saved.entity());
+    subscription.close();
+    assertThrows(IllegalArgumentException.class, () -> new DeliveryPolicy(0, 16, true));
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.query;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.emptyte.storage.repository.Repository;
+import team.emptyte.storage.test.MapRepository;
+import team.emptyte.storage.test.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorTest {
+  @Test
+  @DisplayName("findPageSync should walk every entity in id order with continuation cursors")
+  void findPageSync_ShouldPageInIdOrder() {
+    final Repository<User, String> repository = MapRepository.create();
+    for (int i = 6; i >= 0; i--) {
+      repository.saveSync(new User("user-" + i, "John Doe"));
+    }
+
+    final List<String> ids = new ArrayList<>();
+    Cursor<String> cursor = Cursor.first();
+    int pages = 0;
+    while (cursor != null) {
+      final Page<User, String> page = repository.findPageSync(cursor, 3);
+      page.entities().forEach(user -> ids.add(user.id()));
+      // cursors travel as tokens between requests
+      cursor = page.next() == null ? null : Cursor.parse(page.next().token(), id -> id);
+      pages++;
+    }
+
+    assertEquals(3, pages);
+    assertEquals(List.of("user-0", "user-1", "user-2", "user-3", "user-4", "user-5", "user-6"), ids);
+    assertThrows(IllegalArgumentException.class, () -> repository.findPageSync(Cursor.first(), 0));
+  }
+
+  @Test
+  @DisplayName("tokens should parse back to the same cursor, with the empty token as the first page")
+  void parse_ShouldRoundTripTokens() {
+    final Cursor<Long> after = Cursor.after(42L);
+
+    assertEquals(after, Cursor.parse(after.token(), Long::valueOf));
+    assertEquals(Cursor.first(), Cursor.parse("", Long::valueOf));
+    assertTrue(Cursor.first().isFirst());
+    assertFalse(after.isFirst());
+    assertFalse(after.token().contains("42"));
+  }
+
+  @Test
+  @DisplayName("following should return the ids after the cursor up to the limit")
+  void following_ShouldReturnIdsAfterCursor() {
+    final TreeSet<Integer> ids = new TreeSet<>(List.of(5, 1, 3, 4, 2));
+
+    assertEquals(List.of(1, 2), Cursor.<Integer>first().following(ids, 2));
+    assertEquals(List.of(3, 4, 5), Cursor.after(2).following(ids, 10));
+    assertEquals(List.of(), Cursor.after(5).following(ids, 10));
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.query;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.emptyte.storage.repository.Repository;
+import team.emptyte.storage.test.MapRepository;
+import team.emptyte.storage.test.User;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryTest {
+  private Repository<User, String> repository;
+
+  @BeforeEach
+  void setUp() {
+    this.repository = MapRepository.create();
+  }
+
+  @Test
+  @DisplayName("querySync should filter, project and limit a parallel scan")
+  void querySync_ShouldFilterProjectAndLimit() {
+    for (int i = 0; i < 20; i++) {
+      this.repository.saveSync(new User("user-" + i, i % 2 == 0 ? "even" : "odd"));
+    }
+
+    final Query<User> evens = Query.where(user -> user.name().equals("even"));
+    assertEquals(10, this.repository.countSync(evens));
+    assertEquals(3, this.repository.querySync(evens.limit(3), ArrayList::new).size());
+    assertEquals(5, this.repository.countSync(evens.offset(5)));
+
+    final List<String> ids = this.repository.querySync(evens.and(user -> user.id().endsWith("0")), User::id, ArrayList::new);
+    assertEquals(2, ids.size());
+    assertTrue(ids.contains("user-10"));
+  }
+
+  @Test
+  @DisplayName("querySync should sort before applying the offset and limit")
+  void querySync_ShouldPageInRequestedOrder() {
+    for (int i = 0; i < 20; i++) {
+      this.repository.saveSync(new User("user-" + i, "name-" + (100 + i)));
+    }
+
+    final Query<User> byName = Query.<User>all().orderBy(Comparator.comparing(User::name));
+    final List<String> names = new ArrayList<>();
+    for (int offset = 0; offset < 20; offset += 6) {
+      names.addAll(this.repository.querySync(byName.offset(offset).limit(6), User::name, ArrayList::new));
+    }
+
+    final List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      expected.add("name-" + (100 + i));
+    }
+    assertEquals(expected, names);
+  }
+
+  @Test
+  @DisplayName("findTopSync should return the first k entities in comparator order")
+  void findTopSync_ShouldReturnBoundedSortedHead() {
+    for (int i = 0; i < 50; i++) {
+      this.repository.saveSync(new User("user-" + i, "score-" + (1000 + i * 7 % 50)));
+    }
+
+    final List<User> top = this.repository.findTopSync(3, Comparator.comparing(User::name).reversed());
+
+    assertEquals(3, top.size());
+    assertEquals("score-1049", top.get(0).name());
+    assertEquals("score-1048", top.get(1).name());
+    assertEquals("score-1047", top.get(2).name());
+    assertEquals(50, this.repository.findTopSync(100, Comparator.comparing(User::name)).size());
+    assertThrows(IllegalArgumentException.class, () -> this.repository.findTopSync(0, Comparator.comparing(User::name)));
+  }
+
+  @Test
+  @DisplayName("negative offsets and limits should be rejected")
+  void offsetAndLimit_ShouldRejectNegativeValues() {
+    assertThrows(IllegalArgumentException.class, () -> Query.<User>all().offset(-1));
+    assertThrows(IllegalArgumentException.class, () -> Query.<User>all().limit(-1));
+    assertEquals(0, this.repository.querySync(Query.<User>all().limit(0), ArrayList::new).size());
+  }
+}
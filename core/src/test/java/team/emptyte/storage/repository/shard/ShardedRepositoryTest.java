@@ -0,0 +1,131 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.shard;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.emptyte.storage.exception.repository.VersionConflictException;
+import team.emptyte.storage.repository.Repository;
+import team.emptyte.storage.repository.concurrent.LockStripes;
+import team.emptyte.storage.test.MapRepository;
+import team.emptyte.storage.test.User;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedRepositoryTest {
+  @Test
+  @DisplayName("ShardedRepository should route ids across shards and keep them reachable while adding one")
+  void addShard_ShouldRebalanceOnline() {
+    final ShardedRepository<User, String> sharded = ShardedRepository.<User, String>builder()
+      .shard("disk-1", MapRepository.create())
+      .shard("disk-2", MapRepository.create())
+      .build(Runnable::run);
+    for (int i = 0; i < 60; i++) {
+      sharded.saveSync(new User("user-" + i, "Name " + i));
+    }
+
+    final Repository<User, String> third = MapRepository.create();
+    final long moved = sharded.addShard("disk-3", third).join();
+
+    assertFalse(sharded.isRebalancing());
+    assertTrue(moved > 0);
+    assertEquals(moved, third.countSync());
+    assertEquals(60, sharded.countSync());
+    assertEquals(60, sharded.findAllSync(ArrayList::new).size());
+    for (int i = 0; i < 60; i++) {
+      final String id = "user-" + i;
+      assertEquals("Name " + i, sharded.findSync(id).name());
+      assertTrue(sharded.shards().get(sharded.shardOf(id)).exists(id));
+    }
+    sharded.deleteAllSync();
+    assertEquals(0, sharded.countSync());
+  }
+
+  @Test
+  @DisplayName("ShardedRepository should keep versions across a rebalance resumed after a restart")
+  void rebalance_ShouldResumeKeepingVersions() {
+    final Map<String, Repository<User, String>> disks = new LinkedHashMap<>();
+    for (int i = 1; i <= 3; i++) {
+      disks.put("disk-" + i, MapRepository.create());
+    }
+    final ShardedRepository<User, String> before = ShardedRepository.<User, String>builder()
+      .shard("disk-1", disks.get("disk-1"))
+      .shard("disk-2", disks.get("disk-2"))
+      .build(Runnable::run);
+    for (int i = 0; i < 60; i++) {
+      before.saveIfVersionSync(new User("user-" + i, "Name " + i), 0);
+      before.saveIfVersionSync(new User("user-" + i, "Name " + i), 1);
+    }
+
+    final ShardedRepository<User, String> after = ShardedRepository.<User, String>builder()
+      .shard("disk-1", disks.get("disk-1"))
+      .shard("disk-2", disks.get("disk-2"))
+      .shard("disk-3", disks.get("disk-3"))
+      .rebalancingFrom(List.of("disk-1", "disk-2"))
+      .build(Runnable::run);
+    assertTrue(after.isRebalancing());
+    assertEquals(Set.of("disk-1", "disk-2"), after.previousShards());
+    assertEquals(60, after.countSync());
+
+    final String moving = IntStream.range(0, 60).mapToObj(i -> "user-" + i)
+      .filter(id -> after.shardOf(id).equals("disk-3"))
+      .findFirst()
+      .orElseThrow();
+    assertEquals(2, after.findSync(moving).version());
+    assertEquals(3, after.saveIfVersionSync(new User(moving, "Moved"), 2).version());
+    assertTrue(disks.get("disk-3").exists(moving));
+
+    assertTrue(after.rebalance().join() > 0);
+    assertFalse(after.isRebalancing());
+    assertNull(after.previousShards());
+    assertEquals(60, after.countSync());
+    for (int i = 0; i < 60; i++) {
+      final String id = "user-" + i;
+      final User user = after.findSync(id);
+      assertEquals(id.equals(moving) ? 3 : 2, user.version());
+      assertTrue(after.shards().get(after.shardOf(id)).exists(id));
+    }
+    assertThrows(VersionConflictException.class, () -> after.saveIfVersionSync(new User(moving, "Stale"), 2));
+  }
+
+  @Test
+  @DisplayName("the builder should reject invalid shard settings without building anything")
+  void builder_ShouldRejectInvalidSettings() {
+    final ShardedRepositoryBuilder<User, String> builder = ShardedRepository.<User, String>builder()
+      .shard("disk-1", MapRepository.create());
+
+    assertThrows(IllegalArgumentException.class, () -> builder.lockStripes(0));
+    assertThrows(IllegalArgumentException.class, () -> builder.lockStripes(LockStripes.MAX_STRIPES + 1));
+    assertThrows(IllegalArgumentException.class, () -> builder.virtualNodes(0));
+    assertThrows(IllegalArgumentException.class, () -> builder.shard("disk-1", MapRepository.create()));
+    assertThrows(IllegalArgumentException.class, () -> builder.rebalancingFrom(List.of("disk-0")).build(Runnable::run));
+  }
+}
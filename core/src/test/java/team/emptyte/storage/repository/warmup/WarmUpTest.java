@@ -0,0 +1,123 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.repository.warmup;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.emptyte.storage.exception.repository.VersionConflictException;
+import team.emptyte.storage.repository.Repository;
+import team.emptyte.storage.repository.shard.ShardedRepository;
+import team.emptyte.storage.test.MapRepository;
+import team.emptyte.storage.test.User;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WarmUpTest {
+  private Repository<User, String> source;
+  private Repository<User, String> cache;
+
+  @BeforeEach
+  void setUp() {
+    this.source = MapRepository.create();
+    this.cache = MapRepository.create();
+  }
+
+  @Test
+  @DisplayName("WarmUp should load the most recently modified entities without replacing cached ones")
+  void warmUp_ShouldLoadRecentEntities() {
+    for (int i = 1; i <= 3; i++) {
+      this.source.saveSync(new User("user-" + i, "Name " + i));
+    }
+    this.cache.saveSync(new User("user-3", "Cached"));
+
+    final WarmUpProgress progress = WarmUp.from(this.source, this.cache)
+      .mostRecentlyModified(2)
+      .start(Runnable::run)
+      .completion()
+      .join();
+
+    assertEquals(1, progress.loaded());
+    assertEquals(1, progress.skipped());
+    assertEquals(2, progress.total());
+    assertEquals("Name 2", this.cache.findSync("user-2").name());
+    assertEquals("Cached", this.cache.findSync("user-3").name());
+    assertFalse(this.cache.exists("user-1"));
+  }
+
+  @Test
+  @DisplayName("WarmUp should keep the versions entities have in the source")
+  void warmUp_ShouldKeepVersions() {
+    this.source.saveIfVersionSync(new User("user-1", "John"), 0);
+    this.source.saveIfVersionSync(new User("user-1", "Jane"), 1);
+
+    final WarmUpProgress progress = WarmUp.from(this.source, this.cache)
+      .mostRecentlyModified(1)
+      .start(Runnable::run)
+      .completion()
+      .join();
+
+    assertEquals(1, progress.loaded());
+    assertEquals(2, this.cache.findSync("user-1").version());
+    assertEquals(3, this.cache.saveIfVersionSync(new User("user-1", "Jim"), 2).version());
+    assertThrows(VersionConflictException.class, () -> this.cache.saveIfVersionSync(new User("user-1", "Stale"), 1));
+  }
+
+  @Test
+  @DisplayName("WarmUp should load listed ids, skip missing ones and report its progress")
+  void warmUp_ShouldLoadListedIds() {
+    this.source.saveSync(new User("user-1", "John"));
+    this.source.saveSync(new User("user-2", "Jane"));
+    final Queue<WarmUpProgress> reports = new ConcurrentLinkedQueue<>();
+
+    final WarmUpProgress progress = WarmUp.from(this.source, this.cache)
+      .ids(List.of("user-1", "user-3"))
+      .onProgress(reports::add, 1)
+      .start(Runnable::run)
+      .completion()
+      .join();
+
+    assertEquals(1, progress.loaded());
+    assertEquals(1, progress.skipped());
+    assertEquals(1, progress.fraction());
+    assertEquals(progress.processed(), reports.stream().mapToLong(WarmUpProgress::processed).max().orElse(0));
+    assertTrue(this.cache.exists("user-1"));
+    assertFalse(this.cache.exists("user-2"));
+  }
+
+  @Test
+  @DisplayName("WarmUp should reject recency ordering from sources that do not track modifications")
+  void mostRecentlyModified_ShouldRequireModificationAwareSource() {
+    final Repository<User, String> sharded = ShardedRepository.<User, String>builder()
+      .shard("memory", this.source)
+      .build(Runnable::run);
+
+    assertThrows(IllegalArgumentException.class, () -> WarmUp.from(sharded, this.cache).mostRecentlyModified(1));
+    assertThrows(IllegalArgumentException.class, () -> WarmUp.from(this.source, this.cache).parallelism(0));
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.test;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.emptyte.storage.Identity;
+import team.emptyte.storage.repository.AsyncRepository;
+import team.emptyte.storage.repository.ModificationAware;
+import team.emptyte.storage.repository.builder.RepositoryBuilder;
+import team.emptyte.storage.repository.concurrent.InFlightLimiter;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * A map-backed repository for testing the core features on top of the plain {@link AsyncRepository}
+ * contract. Modification order comes from a counter rather than a clock, so it is deterministic.
+ */
+public class MapRepository<T extends Identity<ID>, ID> extends AsyncRepository<T, ID> implements ModificationAware<ID> {
+  private final Map<ID, T> entities = new ConcurrentHashMap<>();
+  private final Map<ID, Long> modifications = new ConcurrentHashMap<>();
+  private final AtomicLong clock = new AtomicLong();
+
+  public MapRepository(final @NotNull Executor ioExecutor, final @NotNull Executor computeExecutor, final @NotNull InFlightLimiter limiter) {
+    super(ioExecutor, computeExecutor, limiter);
+  }
+
+  public static <T extends Identity<ID>, ID> @NotNull MapRepository<T, ID> create() {
+    return new MapRepository<>(Runnable::run, Runnable::run, InFlightLimiter.unbounded());
+  }
+
+  public static <T extends Identity<ID>, ID> @NotNull Builder<T, ID> builder() {
+    return new Builder<>();
+  }
+
+  @Override
+  public boolean exists(final @NotNull ID id) {
+    return this.entities.containsKey(id);
+  }
+
+  @Override
+  public @Nullable T findSync(final @NotNull ID id) {
+    return this.entities.get(id);
+  }
+
+  @Override
+  public <C extends Collection<@NotNull T>> @NotNull C findAllSync(final @NotNull IntFunction<C> factory) {
+    final C entities = factory.apply(this.entities.size());
+    entities.addAll(this.entities.values());
+    return entities;
+  }
+
+  @Override
+  public @NotNull List<@NotNull ID> recentlyModifiedIds(final int limit) {
+    return this.modifications.entrySet().stream()
+      .sorted(Map.Entry.<ID, Long>comparingByValue(Comparator.reverseOrder()))
+      .limit(limit)
+      .map(Map.Entry::getKey)
+      .toList();
+  }
+
+  @Override
+  public boolean deleteSync(final @NotNull ID id) {
+    return this.deleteAndRetrieveSync(id) != null;
+  }
+
+  @Override
+  public @Nullable T deleteAndRetrieveSync(final @NotNull ID id) {
+    return this.changes().staged(() -> {
+      final T entity = this.entities.remove(id);
+      this.modifications.remove(id);
+      if (entity != null) {
+        this.changes().deleted(id, entity);
+      }
+      return entity;
+    });
+  }
+
+  @Override
+  public void deleteAllSync() {
+    this.entities.keySet().forEach(this::deleteSync);
+  }
+
+  @Override
+  public @NotNull T saveSync(final @NotNull T entity) {
+    return this.changes().staged(() -> {
+      this.entities.put(entity.id(), entity);
+      this.modifications.put(entity.id(), this.clock.incrementAndGet());
+      this.changes().saved(entity);
+      return entity;
+    });
+  }
+
+  public static final class Builder<T extends Identity<ID>, ID> extends RepositoryBuilder<T, ID, Builder<T, ID>> {
+    private Builder() {
+    }
+
+    @Override
+    public @NotNull MapRepository<T, ID> buildAsync(final @NotNull Executor ioExecutor, final @NotNull Executor computeExecutor) {
+      final Executor scheduledIoExecutor = this.scheduled(ioExecutor);
+      final Executor scheduledComputeExecutor = computeExecutor == ioExecutor ? scheduledIoExecutor : this.scheduled(computeExecutor);
+      return new MapRepository<>(scheduledIoExecutor, scheduledComputeExecutor, this.limiter());
+    }
+  }
+}
@@ -0,0 +1,3 @@
+plugins {
+  alias(libs.plugins.storage.java.library)
+}
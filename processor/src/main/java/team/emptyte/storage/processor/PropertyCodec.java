@@ -0,0 +1,146 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.processor;
+
+import java.util.List;
+
+/**
+ * Emits the {@code Writer}/{@code Reader} calls used to (de)serialize a single property.
+ */
+interface PropertyCodec {
+  /**
+   * Statements serializing {@code value} under {@code field}, using the {@code $writer} local.
+   */
+  List<String> write(final String field, final String value);
+
+  /**
+   * Statements declaring a {@code variable} of {@code typeName} read from {@code field}, using
+   * the {@code $reader} local.
+   */
+  List<String> read(final String field, final String variable, final String typeName);
+
+  static PropertyCodec direct(final String writeMethod, final String readMethod) {
+    return new PropertyCodec() {
+      @Override
+      public List<String> write(final String field, final String value) {
+        return List.of("$writer." + writeMethod + "(" + field + ", " + value + ");");
+      }
+
+      @Override
+      public List<String> read(final String field, final String variable, final String typeName) {
+        return List.of("final " + typeName + " " + variable + " = $reader." + readMethod + "(" + field + ");");
+      }
+    };
+  }
+
+  static PropertyCodec boxedNumber(final String unboxMethod) {
+    return new PropertyCodec() {
+      @Override
+      public List<String> write(final String field, final String value) {
+        return List.of("$writer.writeNumber(" + field + ", " + value + ");");
+      }
+
+      @Override
+      public List<String> read(final String field, final String variable, final String typeName) {
+        return List.of(
+          "final java.lang.Number " + variable + "Number = $reader.readNumber(" + field + ");",
+          "final " + typeName + " " + variable + " = " + variable + "Number == null ? null : " + variable + "Number." + unboxMethod + "();"
+        );
+      }
+    };
+  }
+
+  static PropertyCodec enumeration() {
+    return new PropertyCodec() {
+      @Override
+      public List<String> write(final String field, final String value) {
+        return List.of("$writer.writeString(" + field + ", " + value + " == null ? null : " + value + ".name());");
+      }
+
+      @Override
+      public List<String> read(final String field, final String variable, final String typeName) {
+        return List.of(
+          "final java.lang.String " + variable + "Name = $reader.readString(" + field + ");",
+          "final " + typeName + " " + variable + " = " + variable + "Name == null ? null : " + typeName + ".valueOf(" + variable + "Name);"
+        );
+      }
+    };
+  }
+
+  static PropertyCodec object(final String serializer) {
+    return new PropertyCodec() {
+      @Override
+      public List<String> write(final String field, final String value) {
+        return List.of("$writer.writeObject(" + field + ", " + value + ", " + serializer + ".<O>instance());");
+      }
+
+      @Override
+      public List<String> read(final String field, final String variable, final String typeName) {
+        return List.of("final " + typeName + " " + variable + " = $reader.readObject(" + field + ", " + serializer + ".<O>instance());");
+      }
+    };
+  }
+
+  static PropertyCodec objectCollection(final String serializer, final String factory) {
+    return new PropertyCodec() {
+      @Override
+      public List<String> write(final String field, final String value) {
+        return List.of("$writer.writeCollection(" + field + ", " + value + ", " + serializer + ".<O>instance());");
+      }
+
+      @Override
+      public List<String> read(final String field, final String variable, final String typeName) {
+        return List.of("final " + typeName + " " + variable + " = $reader.readCollection(" + field + ", " + factory + ", " + serializer + ".<O>instance());");
+      }
+    };
+  }
+
+  static PropertyCodec rawCollection(final String elementType, final String factory) {
+    return new PropertyCodec() {
+      @Override
+      public List<String> write(final String field, final String value) {
+        return List.of("$writer.writeRawCollection(" + field + ", " + value + ");");
+      }
+
+      @Override
+      public List<String> read(final String field, final String variable, final String typeName) {
+        return List.of("final " + typeName + " " + variable + " = $reader.readRawCollection(" + field + ", " + elementType + ".class, " + factory + ");");
+      }
+    };
+  }
+
+  static PropertyCodec uuidCollection(final String factory) {
+    return new PropertyCodec() {
+      @Override
+      public List<String> write(final String field, final String value) {
+        return List.of("$writer.writeDetailedUuids(" + field + ", " + value + ");");
+      }
+
+      @Override
+      public List<String> read(final String field, final String variable, final String typeName) {
+        return List.of("final " + typeName + " " + variable + " = $reader.readDetailedUuids(" + field + ", " + factory + ");");
+      }
+    };
+  }
+}
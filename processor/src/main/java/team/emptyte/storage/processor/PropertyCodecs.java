@@ -0,0 +1,155 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.processor;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+final class PropertyCodecs {
+  private static final Map<TypeKind, PropertyCodec> PRIMITIVES = Map.of(
+    TypeKind.BOOLEAN, PropertyCodec.direct("writeBoolean", "readBoolean"),
+    TypeKind.BYTE, PropertyCodec.direct("writeNumber", "readByte"),
+    TypeKind.SHORT, PropertyCodec.direct("writeNumber", "readShort"),
+    TypeKind.INT, PropertyCodec.direct("writeNumber", "readInt"),
+    TypeKind.LONG, PropertyCodec.direct("writeNumber", "readLong"),
+    TypeKind.FLOAT, PropertyCodec.direct("writeNumber", "readFloat"),
+    TypeKind.DOUBLE, PropertyCodec.direct("writeNumber", "readDouble")
+  );
+  private static final Map<String, PropertyCodec> DECLARED = Map.of(
+    "java.lang.String", PropertyCodec.direct("writeString", "readString"),
+    "java.lang.Boolean", PropertyCodec.direct("writeBoolean", "readNullableBoolean"),
+    "java.lang.Byte", PropertyCodec.boxedNumber("byteValue"),
+    "java.lang.Short", PropertyCodec.boxedNumber("shortValue"),
+    "java.lang.Integer", PropertyCodec.boxedNumber("intValue"),
+    "java.lang.Long", PropertyCodec.boxedNumber("longValue"),
+    "java.lang.Float", PropertyCodec.boxedNumber("floatValue"),
+    "java.lang.Double", PropertyCodec.boxedNumber("doubleValue"),
+    "java.util.UUID", PropertyCodec.direct("writeUuid", "readUuid"),
+    "java.util.Date", PropertyCodec.direct("writeDate", "readDate")
+  );
+  private static final Set<String> RAW_ELEMENTS = Set.of(
+    "java.lang.String",
+    "java.lang.Boolean",
+    "java.lang.Byte",
+    "java.lang.Short",
+    "java.lang.Integer",
+    "java.lang.Long",
+    "java.lang.Float",
+    "java.lang.Double"
+  );
+  private static final Map<String, String> COLLECTION_FACTORIES = Map.of(
+    "java.util.Collection", "java.util.ArrayList::new",
+    "java.util.List", "java.util.ArrayList::new",
+    "java.util.Set", "java.util.LinkedHashSet::new"
+  );
+
+  private final Types types;
+  private final Elements elements;
+
+  PropertyCodecs(final Types types, final Elements elements) {
+    this.types = types;
+    this.elements = elements;
+  }
+
+  PropertyCodec resolve(final TypeMirror type, final Element owner) {
+    if (type.getKind().isPrimitive()) {
+      final PropertyCodec codec = PRIMITIVES.get(type.getKind());
+      if (codec == null) {
+        throw new ProcessingException("Unsupported primitive type " + type.getKind().name().toLowerCase(), owner);
+      }
+      return codec;
+    }
+    if (type.getKind() != TypeKind.DECLARED) {
+      throw new ProcessingException("Unsupported property type " + this.typeName(type), owner);
+    }
+    final DeclaredType declaredType = (DeclaredType) type;
+    final TypeElement element = (TypeElement) declaredType.asElement();
+    final String qualifiedName = element.getQualifiedName().toString();
+
+    final PropertyCodec codec = DECLARED.get(qualifiedName);
+    if (codec != null) {
+      return codec;
+    }
+    if (element.getKind() == ElementKind.ENUM) {
+      return PropertyCodec.enumeration();
+    }
+    if (this.generated(element)) {
+      return PropertyCodec.object(this.serializerTypeName(element));
+    }
+
+    final String factory = COLLECTION_FACTORIES.get(qualifiedName);
+    if (factory != null && declaredType.getTypeArguments().size() == 1 && declaredType.getTypeArguments().get(0).getKind() == TypeKind.DECLARED) {
+      final TypeElement elementType = (TypeElement) ((DeclaredType) declaredType.getTypeArguments().get(0)).asElement();
+      final String elementName = elementType.getQualifiedName().toString();
+      if (RAW_ELEMENTS.contains(elementName)) {
+        return PropertyCodec.rawCollection(elementName, factory);
+      }
+      if (elementName.equals("java.util.UUID")) {
+        return PropertyCodec.uuidCollection(factory);
+      }
+      if (this.generated(elementType)) {
+        return PropertyCodec.objectCollection(this.serializerTypeName(elementType), factory);
+      }
+    }
+    throw new ProcessingException("Unsupported property type " + this.typeName(type)
+      + "; annotate it with @GenerateSerializer or write a TypeSerializer by hand", owner);
+  }
+
+  String typeName(final TypeMirror type) {
+    if (type.getKind().isPrimitive()) {
+      return type.getKind().name().toLowerCase();
+    }
+    if (type.getKind() != TypeKind.DECLARED) {
+      return this.types.erasure(type).toString();
+    }
+    final DeclaredType declaredType = (DeclaredType) type;
+    final String name = ((TypeElement) declaredType.asElement()).getQualifiedName().toString();
+    if (declaredType.getTypeArguments().isEmpty()) {
+      return name;
+    }
+    return declaredType.getTypeArguments().stream()
+      .map(this::typeName)
+      .collect(Collectors.joining(", ", name + "<", ">"));
+  }
+
+  private boolean generated(final TypeElement element) {
+    return element.getAnnotationMirrors().stream()
+      .anyMatch(mirror -> ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(TypeSerializerProcessor.ANNOTATION));
+  }
+
+  private String serializerTypeName(final TypeElement element) {
+    final String packageName = this.elements.getPackageOf(element).getQualifiedName().toString();
+    final String serializerName = SerializedType.serializerName(element, this.elements);
+    return packageName.isEmpty() ? serializerName : packageName + "." + serializerName;
+  }
+}
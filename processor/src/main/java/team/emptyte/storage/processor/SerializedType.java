@@ -0,0 +1,265 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+final class SerializedType {
+  private static final String SERIALIZER_SUFFIX = "TypeSerializer";
+
+  private final TypeElement element;
+  private final String packageName;
+  private final String serializerName;
+  private final boolean identity;
+  private final List<Property> properties;
+  private final List<Property> constructorArguments;
+
+  private SerializedType(
+    final TypeElement element,
+    final String packageName,
+    final String serializerName,
+    final boolean identity,
+    final List<Property> properties,
+    final List<Property> constructorArguments
+  ) {
+    this.element = element;
+    this.packageName = packageName;
+    this.serializerName = serializerName;
+    this.identity = identity;
+    this.properties = properties;
+    this.constructorArguments = constructorArguments;
+  }
+
+  static SerializedType of(final ProcessingEnvironment environment, final TypeElement type) {
+    final Types types = environment.getTypeUtils();
+    final Elements elements = environment.getElementUtils();
+    if (type.getNestingKind() != NestingKind.TOP_LEVEL && type.getNestingKind() != NestingKind.MEMBER) {
+      throw new ProcessingException("@GenerateSerializer types must be top-level or member types", type);
+    }
+    if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC) && type.getKind() != ElementKind.RECORD) {
+      throw new ProcessingException("@GenerateSerializer member classes must be static", type);
+    }
+    if (type.getModifiers().contains(Modifier.PRIVATE)) {
+      throw new ProcessingException("@GenerateSerializer types cannot be private", type);
+    }
+    if (!type.getTypeParameters().isEmpty()) {
+      throw new ProcessingException("@GenerateSerializer types cannot declare type parameters", type);
+    }
+
+    final String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+    final PropertyCodecs codecs = new PropertyCodecs(types, elements);
+    if (type.getKind() == ElementKind.RECORD) {
+      final List<Property> properties = new ArrayList<>();
+      for (final RecordComponentElement component : type.getRecordComponents()) {
+        final String name = component.getSimpleName().toString();
+        properties.add(new Property(
+          name,
+          component.asType(),
+          codecs.typeName(component.asType()),
+          "$object." + name + "()",
+          codecs.resolve(component.asType(), component)
+        ));
+      }
+      return new SerializedType(type, packageName, serializerName(type, elements), false, properties, properties);
+    }
+
+    if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)) {
+      throw new ProcessingException("@GenerateSerializer supports records and concrete classes extending Identity", type);
+    }
+    final TypeElement identityType = elements.getTypeElement(TypeSerializerProcessor.IDENTITY);
+    if (identityType == null || !types.isSubtype(types.erasure(type.asType()), types.erasure(identityType.asType()))) {
+      throw new ProcessingException("@GenerateSerializer classes must extend " + TypeSerializerProcessor.IDENTITY, type);
+    }
+
+    final DeclaredType declaredType = (DeclaredType) type.asType();
+    final Map<String, Property> properties = new HashMap<>();
+    final List<Property> ordered = new ArrayList<>();
+    for (final VariableElement field : instanceFields(type)) {
+      final String name = field.getSimpleName().toString();
+      if (properties.containsKey(name)) {
+        throw new ProcessingException("Field '" + name + "' is hidden by a subclass field", field);
+      }
+      final TypeMirror fieldType = types.asMemberOf(declaredType, field);
+      final Property property = new Property(
+        name,
+        fieldType,
+        codecs.typeName(fieldType),
+        accessExpression(types, elements, type, packageName, field, fieldType),
+        codecs.resolve(fieldType, field)
+      );
+      properties.put(name, property);
+      ordered.add(property);
+    }
+
+    final List<Property> constructorArguments = constructorArguments(types, type, declaredType, properties);
+    return new SerializedType(type, packageName, serializerName(type, elements), true, ordered, constructorArguments);
+  }
+
+  static String serializerName(final TypeElement type, final Elements elements) {
+    final String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+    final String qualifiedName = type.getQualifiedName().toString();
+    final String relativeName = packageName.isEmpty() ? qualifiedName : qualifiedName.substring(packageName.length() + 1);
+    return relativeName.replace('.', '_') + SERIALIZER_SUFFIX;
+  }
+
+  private static List<VariableElement> instanceFields(final TypeElement type) {
+    final Deque<TypeElement> hierarchy = new ArrayDeque<>();
+    TypeElement current = type;
+    while (current != null) {
+      hierarchy.push(current);
+      final TypeMirror superclass = current.getSuperclass();
+      current = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+    }
+    final List<VariableElement> fields = new ArrayList<>();
+    for (final TypeElement element : hierarchy) {
+      for (final VariableElement field : ElementFilter.fieldsIn(element.getEnclosedElements())) {
+        if (field.getModifiers().contains(Modifier.STATIC) || field.getModifiers().contains(Modifier.TRANSIENT)) {
+          continue;
+        }
+        fields.add(field);
+      }
+    }
+    return fields;
+  }
+
+  private static String accessExpression(
+    final Types types,
+    final Elements elements,
+    final TypeElement type,
+    final String packageName,
+    final VariableElement field,
+    final TypeMirror fieldType
+  ) {
+    final String name = field.getSimpleName().toString();
+    if (accessible(elements, field, packageName)) {
+      return "$object." + name;
+    }
+    final String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    final List<String> candidates = List.of(name, "get" + capitalized, "is" + capitalized);
+    for (final ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+      if (!candidates.contains(method.getSimpleName().toString())
+        || !method.getParameters().isEmpty()
+        || method.getModifiers().contains(Modifier.STATIC)
+        || !accessible(elements, method, packageName)) {
+        continue;
+      }
+      final TypeMirror returnType = ((ExecutableType) types.asMemberOf((DeclaredType) type.asType(), method)).getReturnType();
+      if (types.isSameType(returnType, fieldType)) {
+        return "$object." + method.getSimpleName() + "()";
+      }
+    }
+    throw new ProcessingException("Field '" + name + "' is not accessible and has no " + name + "() or get" + capitalized + "() accessor", field);
+  }
+
+  private static boolean accessible(final Elements elements, final Element member, final String packageName) {
+    if (member.getModifiers().contains(Modifier.PUBLIC)) {
+      return true;
+    }
+    if (member.getModifiers().contains(Modifier.PRIVATE)) {
+      return false;
+    }
+    return elements.getPackageOf(member).getQualifiedName().contentEquals(packageName);
+  }
+
+  private static List<Property> constructorArguments(
+    final Types types,
+    final TypeElement type,
+    final DeclaredType declaredType,
+    final Map<String, Property> properties
+  ) {
+    constructors:
+    for (final ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+      if (constructor.getModifiers().contains(Modifier.PRIVATE) || constructor.getParameters().size() != properties.size()) {
+        continue;
+      }
+      final List<? extends TypeMirror> parameterTypes = ((ExecutableType) types.asMemberOf(declaredType, constructor)).getParameterTypes();
+      final List<Property> arguments = new ArrayList<>(properties.size());
+      for (int i = 0; i < parameterTypes.size(); i++) {
+        final Property property = properties.get(constructor.getParameters().get(i).getSimpleName().toString());
+        if (property == null || !types.isSameType(parameterTypes.get(i), property.type())) {
+          continue constructors;
+        }
+        arguments.add(property);
+      }
+      return arguments;
+    }
+    throw new ProcessingException("No constructor accepting every serialized field (" + String.join(", ", properties.keySet()) + ") was found", type);
+  }
+
+  TypeElement element() {
+    return this.element;
+  }
+
+  String packageName() {
+    return this.packageName;
+  }
+
+  String serializerName() {
+    return this.serializerName;
+  }
+
+  String typeName() {
+    return this.element.getQualifiedName().toString();
+  }
+
+  boolean identity() {
+    return this.identity;
+  }
+
+  boolean isPublic() {
+    return this.element.getModifiers().contains(Modifier.PUBLIC);
+  }
+
+  List<Property> properties() {
+    return this.properties;
+  }
+
+  List<Property> constructorArguments() {
+    return this.constructorArguments;
+  }
+
+  record Property(String name, TypeMirror type, String typeName, String accessor, PropertyCodec codec) {
+  }
+}
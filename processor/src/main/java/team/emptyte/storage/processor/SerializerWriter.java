@@ -0,0 +1,121 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.processor;
+
+import javax.annotation.processing.Filer;
+import java.io.IOException;
+import java.io.Writer;
+
+final class SerializerWriter {
+  private static final String TYPE_SERIALIZER = "team.emptyte.storage.serialization.TypeSerializer";
+  private static final String WRITER = "team.emptyte.storage.serialization.Writer";
+  private static final String READER = "team.emptyte.storage.serialization.Reader";
+  private static final String SERIALIZATION_EXCEPTION = "team.emptyte.storage.exception.serialization.SerializationException";
+
+  private final SerializedType type;
+  private final StringBuilder builder = new StringBuilder();
+
+  SerializerWriter(final SerializedType type) {
+    this.type = type;
+  }
+
+  void writeTo(final Filer filer) throws IOException {
+    final String packageName = this.type.packageName();
+    final String qualifiedName = packageName.isEmpty()
+      ? this.type.serializerName()
+      : packageName + "." + this.type.serializerName();
+    try (final Writer writer = filer.createSourceFile(qualifiedName, this.type.element()).openWriter()) {
+      writer.write(this.source());
+    }
+  }
+
+  String source() {
+    final String name = this.type.serializerName();
+    final String typeName = this.type.typeName();
+
+    if (!this.type.packageName().isEmpty()) {
+      this.line(0, "package " + this.type.packageName() + ";");
+      this.line(0, "");
+    }
+    this.line(0, "@javax.annotation.processing.Generated(\"" + TypeSerializerProcessor.class.getName() + "\")");
+    this.line(0, (this.type.isPublic() ? "public " : "") + "final class " + name + "<O> implements " + TYPE_SERIALIZER + "<" + typeName + ", O> {");
+    this.line(1, "private static final " + name + "<?> INSTANCE = new " + name + "<>();");
+    this.line(0, "");
+    this.line(1, "private " + name + "() {");
+    this.line(1, "}");
+    this.line(0, "");
+    this.line(1, "@SuppressWarnings(\"unchecked\")");
+    this.line(1, "public static <O> " + name + "<O> instance() {");
+    this.line(2, "return (" + name + "<O>) INSTANCE;");
+    this.line(1, "}");
+    this.line(0, "");
+
+    this.line(1, "@Override");
+    this.line(1, "public void serialize(final " + typeName + " $object, final " + WRITER + "<O> $writer) {");
+    for (final SerializedType.Property property : this.type.properties()) {
+      for (final String statement : property.codec().write(quote(property.name()), property.accessor())) {
+        this.line(2, statement);
+      }
+    }
+    this.line(2, "$writer.end();");
+    this.line(1, "}");
+    this.line(0, "");
+
+    this.line(1, "@Override");
+    this.line(1, "public " + typeName + " deserialize(final " + READER + "<O> $reader) {");
+    for (final SerializedType.Property property : this.type.properties()) {
+      final String variable = "$" + property.name();
+      for (final String statement : property.codec().read(quote(property.name()), variable, property.typeName())) {
+        this.line(2, statement);
+      }
+      if (this.type.identity() && property.name().equals("id")) {
+        this.line(2, "if (" + variable + " == null) {");
+        this.line(3, "throw new " + SERIALIZATION_EXCEPTION + "(\"Missing required field 'id' for " + typeName + "\");");
+        this.line(2, "}");
+      }
+    }
+    final StringBuilder arguments = new StringBuilder();
+    for (final SerializedType.Property argument : this.type.constructorArguments()) {
+      if (!arguments.isEmpty()) {
+        arguments.append(", ");
+      }
+      arguments.append('$').append(argument.name());
+    }
+    this.line(2, "return new " + typeName + "(" + arguments + ");");
+    this.line(1, "}");
+    this.line(0, "}");
+    return this.builder.toString();
+  }
+
+  private void line(final int indent, final String line) {
+    if (!line.isEmpty()) {
+      this.builder.append("  ".repeat(indent)).append(line);
+    }
+    this.builder.append('\n');
+  }
+
+  private static String quote(final String value) {
+    return '"' + value + '"';
+  }
+}
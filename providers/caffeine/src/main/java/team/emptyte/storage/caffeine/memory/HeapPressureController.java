@@ -0,0 +1,237 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.caffeine.memory;
+
+import com.github.benmanes.caffeine.cache.Policy;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Adapts a bounded Caffeine cache's maximum size or weight to heap pressure.
+ *
+ * <p>The controller watches the heap pools that support usage thresholds, in practice the old
+ * generation. Crossing {@link HeapPressurePolicy#highUsage()} shrinks the cache right away.
+ * After every garbage collection the pools' usage reported by that collection is checked: the
+ * cache keeps shrinking while it stays high after a collection that reclaimed the pools, and
+ * grows back step by step once it drops below {@link HeapPressurePolicy#lowUsage()}. Resizes are
+ * at least {@link HeapPressurePolicy#cooldown()} apart.</p>
+ *
+ * <p>Usage thresholds are JVM-wide, so controllers started with different thresholds overwrite
+ * each other's; closing a controller restores the thresholds it found.</p>
+ */
+public final class HeapPressureController implements AutoCloseable {
+  private final static Logger LOGGER = Logger.getLogger(HeapPressureController.class.getName());
+  private static final String MAJOR_GC = "end of major GC";
+
+  private final Policy.Eviction<?, ?> eviction;
+  private final HeapPressurePolicy policy;
+  // the monitored pools and the usage thresholds they had before
+  private final List<MemoryPoolMXBean> pools = new ArrayList<>();
+  private final List<Long> previousThresholds = new ArrayList<>();
+  private final List<NotificationEmitter> emitters = new ArrayList<>();
+  private final NotificationListener listener = this::handle;
+  private volatile Set<String> poolNames;
+  private volatile boolean closed;
+  private boolean resized;
+  private long lastResize;
+
+  HeapPressureController(final @NotNull Policy.Eviction<?, ?> eviction, final @NotNull HeapPressurePolicy policy, final @NotNull Set<String> poolNames) {
+    this.eviction = eviction;
+    this.policy = policy;
+    this.poolNames = poolNames;
+  }
+
+  /**
+   * Starts controlling {@code eviction}, taken from {@code cache.policy().eviction()}, first
+   * clamping its current maximum into the policy's bounds.
+   */
+  public static @NotNull HeapPressureController start(final @NotNull Policy.Eviction<?, ?> eviction, final @NotNull HeapPressurePolicy policy) {
+    final HeapPressureController controller = new HeapPressureController(
+      Objects.requireNonNull(eviction, "Eviction policy cannot be null"),
+      Objects.requireNonNull(policy, "Heap pressure policy cannot be null"),
+      Set.of()
+    );
+    controller.resize(eviction.getMaximum());
+    controller.register();
+    return controller;
+  }
+
+  /**
+   * Returns the cache's current maximum size or weight.
+   */
+  public long maximum() {
+    return this.eviction.getMaximum();
+  }
+
+  private void register() {
+    final Set<String> poolNames = new HashSet<>();
+    for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      final long max = pool.getUsage().getMax();
+      if (pool.getType() != MemoryType.HEAP || max <= 0 || !pool.isUsageThresholdSupported()) {
+        continue;
+      }
+      this.previousThresholds.add(pool.getUsageThreshold());
+      pool.setUsageThreshold((long) (max * this.policy.highUsage()));
+      this.pools.add(pool);
+      poolNames.add(pool.getName());
+    }
+    if (this.pools.isEmpty()) {
+      LOGGER.warning("No heap memory pool supports usage thresholds; the cache size will not adapt to heap pressure");
+      return;
+    }
+    this.poolNames = Set.copyOf(poolNames);
+    this.listen(ManagementFactory.getMemoryMXBean());
+    for (final GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      this.listen(collector);
+    }
+  }
+
+  private void listen(final @NotNull Object bean) {
+    if (bean instanceof NotificationEmitter emitter) {
+      emitter.addNotificationListener(this.listener, null, null);
+      this.emitters.add(emitter);
+    }
+  }
+
+  private void handle(final @NotNull Notification notification, final @Nullable Object handback) {
+    if (this.closed) {
+      return;
+    }
+    switch (notification.getType()) {
+      case MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED -> this.shrink(System.nanoTime());
+      case GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION -> {
+        final GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        final GcInfo gcInfo = info.getGcInfo();
+        this.afterCollection(info.getGcAction(), gcInfo.getMemoryUsageBeforeGc(), gcInfo.getMemoryUsageAfterGc(), System.nanoTime());
+      }
+      default -> {
+      }
+    }
+  }
+
+  /**
+   * Reacts to one collection from the usage it reported for the monitored pools. A young
+   * collection that did not reclaim them says nothing about their garbage, so it may grow the
+   * cache but never shrinks it.
+   */
+  void afterCollection(final @NotNull String action, final @NotNull Map<String, MemoryUsage> before, final @NotNull Map<String, MemoryUsage> after, final long now) {
+    double usage = -1;
+    boolean reclaimed = MAJOR_GC.equals(action);
+    for (final String name : this.poolNames) {
+      final MemoryUsage afterUsage = after.get(name);
+      if (afterUsage == null || afterUsage.getMax() <= 0) {
+        continue;
+      }
+      usage = Math.max(usage, (double) afterUsage.getUsed() / afterUsage.getMax());
+      final MemoryUsage beforeUsage = before.get(name);
+      if (beforeUsage != null && afterUsage.getUsed() < beforeUsage.getUsed()) {
+        reclaimed = true;
+      }
+    }
+    if (usage < 0) {
+      return;
+    }
+    if (usage >= this.policy.highUsage()) {
+      if (reclaimed) {
+        this.shrink(now);
+      }
+    } else if (usage <= this.policy.lowUsage()) {
+      this.grow(now);
+    }
+  }
+
+  synchronized void shrink(final long now) {
+    if (this.cooling(now)) {
+      return;
+    }
+    this.resize((long) (this.eviction.getMaximum() * this.policy.shrinkFactor()));
+  }
+
+  private synchronized void grow(final long now) {
+    if (this.cooling(now)) {
+      return;
+    }
+    final long current = this.eviction.getMaximum();
+    this.resize(Math.max(current + 1, (long) (current * this.policy.growFactor())));
+  }
+
+  // Also claims the resize, so it must be called holding the controller's lock.
+  private boolean cooling(final long now) {
+    if (this.closed || (this.resized && now - this.lastResize < this.policy.cooldown().toNanos())) {
+      return true;
+    }
+    this.resized = true;
+    this.lastResize = now;
+    return false;
+  }
+
+  private void resize(final long maximum) {
+    final long bounded = Math.max(this.policy.minimum(), Math.min(this.policy.maximum(), maximum));
+    if (bounded != this.eviction.getMaximum()) {
+      this.eviction.setMaximum(bounded);
+    }
+  }
+
+  /**
+   * Stops adapting the cache, restores the usage thresholds and the policy's maximum.
+   */
+  @Override
+  public synchronized void close() {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    for (final NotificationEmitter emitter : this.emitters) {
+      try {
+        emitter.removeNotificationListener(this.listener);
+      } catch (final ListenerNotFoundException ignored) {
+      }
+    }
+    for (int i = 0; i < this.pools.size(); i++) {
+      this.pools.get(i).setUsageThreshold(this.previousThresholds.get(i));
+    }
+    this.eviction.setMaximum(this.policy.maximum());
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.caffeine.memory;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Bounds and thresholds used by {@link HeapPressureController}.
+ *
+ * @param minimum      the smallest maximum size or weight the cache is shrunk to
+ * @param maximum      the largest maximum size or weight the cache is grown back to
+ * @param lowUsage     the old generation usage after a collection below which the cache grows
+ * @param highUsage    the old generation usage above which the cache shrinks
+ * @param shrinkFactor the factor the cache's maximum is multiplied by on each shrink
+ * @param growFactor   the factor the cache's maximum is multiplied by on each grow
+ * @param cooldown     the least time between two resizes, so one burst of pressure shrinks the
+ *                     cache once
+ */
+public record HeapPressurePolicy(
+  long minimum,
+  long maximum,
+  double lowUsage,
+  double highUsage,
+  double shrinkFactor,
+  double growFactor,
+  @NotNull Duration cooldown
+) {
+  public HeapPressurePolicy {
+    if (minimum < 0 || maximum < minimum) {
+      throw new IllegalArgumentException("Bounds must satisfy 0 <= minimum <= maximum: " + minimum + ", " + maximum);
+    }
+    if (!(lowUsage > 0 && lowUsage < highUsage && highUsage < 1)) {
+      throw new IllegalArgumentException("Usage thresholds must satisfy 0 < low < high < 1: " + lowUsage + ", " + highUsage);
+    }
+    if (!(shrinkFactor > 0 && shrinkFactor < 1)) {
+      throw new IllegalArgumentException("Shrink factor must be between 0 and 1: " + shrinkFactor);
+    }
+    if (!(growFactor > 1)) {
+      throw new IllegalArgumentException("Grow factor must be greater than 1: " + growFactor);
+    }
+    Objects.requireNonNull(cooldown, "Cooldown cannot be null");
+    if (cooldown.isNegative()) {
+      throw new IllegalArgumentException("Cooldown cannot be negative: " + cooldown);
+    }
+  }
+
+  /**
+   * Returns a policy within {@code minimum} and {@code maximum} that halves the cache above 85%
+   * old generation usage and grows it by a quarter below 60%, at most once per second.
+   */
+  public static @NotNull HeapPressurePolicy bounds(final long minimum, final long maximum) {
+    return new HeapPressurePolicy(minimum, maximum, 0.6, 0.85, 0.5, 1.25, Duration.ofSeconds(1));
+  }
+
+  /**
+   * Returns a copy of this policy with {@code cooldown} between two resizes.
+   */
+  public @NotNull HeapPressurePolicy withCooldown(final @NotNull Duration cooldown) {
+    return new HeapPressurePolicy(this.minimum, this.maximum, this.lowUsage, this.highUsage, this.shrinkFactor, this.growFactor, cooldown);
+  }
+}
@@ -0,0 +1,265 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.caffeine.repository;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.emptyte.storage.Identity;
+import team.emptyte.storage.repository.AsyncRepository;
+import team.emptyte.storage.repository.Operation;
+import team.emptyte.storage.repository.concurrent.InFlightLimiter;
+import team.emptyte.storage.repository.context.MemoryBudget;
+import team.emptyte.storage.repository.index.SecondaryIndex;
+import team.emptyte.storage.repository.query.Cursor;
+import team.emptyte.storage.repository.query.Page;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+/**
+ * An {@link AsyncRepository} over a Caffeine {@link AsyncCache}. Lookups return the cache's own
+ * futures, already completed on a hit, and point reads and single-key writes run inline; scans,
+ * bulk operations, writes running caller code and anything that may wait on a load of an
+ * {@link AsyncLoadingCache} are scheduled on an executor.
+ *
+ * <p>Synchronous operations and writes go through a {@link CaffeineRepository} over the
+ * cache's synchronous view, keeping its indexes consistent however an entity was written.</p>
+ */
+public class CaffeineAsyncRepository<T extends Identity<ID>, ID> extends AsyncRepository<T, ID> implements AutoCloseable {
+  private final AsyncCache<ID, T> cache;
+  private final CaffeineRepository<T, ID> delegate;
+
+  CaffeineAsyncRepository(final @NotNull AsyncCache<ID, T> cache, final @NotNull Executor ioExecutor, final @NotNull Executor computeExecutor, final @NotNull InFlightLimiter limiter) {
+    this(cache, new CaffeineRepository<>(cache.synchronous()), ioExecutor, computeExecutor, limiter);
+  }
+
+  // Shares the delegate's feed, since every write goes through the delegate.
+  private CaffeineAsyncRepository(final @NotNull AsyncCache<ID, T> cache, final @NotNull CaffeineRepository<T, ID> delegate, final @NotNull Executor ioExecutor, final @NotNull Executor computeExecutor, final @NotNull InFlightLimiter limiter) {
+    super(ioExecutor, computeExecutor, limiter, delegate.changes());
+    this.cache = cache;
+    this.delegate = delegate;
+  }
+
+  public static @NotNull <T extends Identity<ID>, ID> CaffeineAsyncRepository<T, ID> of(final @NotNull AsyncCache<ID, T> cache) {
+    return of(cache, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates a repository running scans and other non-cache work on {@code executor}.
+   */
+  public static @NotNull <T extends Identity<ID>, ID> CaffeineAsyncRepository<T, ID> of(final @NotNull AsyncCache<ID, T> cache, final @NotNull Executor executor) {
+    return new CaffeineAsyncRepository<>(cache, executor, executor, InFlightLimiter.unbounded());
+  }
+
+  /**
+   * @see CaffeineRepository#index(String, Function)
+   */
+  public @NotNull CaffeineAsyncRepository<T, ID> index(final @NotNull String name, final @NotNull Function<? super T, ?> extractor) {
+    this.delegate.index(name, extractor);
+    return this;
+  }
+
+  void index(final @NotNull SecondaryIndex<T, ID> index) {
+    this.delegate.index(index);
+  }
+
+  @NotNull CaffeineRepository<T, ID> delegate() {
+    return this.delegate;
+  }
+
+  void memoryShare(final MemoryBudget.@Nullable Share memoryShare) {
+    this.delegate.memoryShare(memoryShare);
+  }
+
+  /**
+   * @see CaffeineRepository#close()
+   */
+  @Override
+  public void close() {
+    this.delegate.close();
+  }
+
+  /**
+   * @see CaffeineRepository#stats()
+   */
+  public @NotNull CacheStats stats() {
+    return this.delegate.stats();
+  }
+
+  /**
+   * @see CaffeineRepository#policy()
+   */
+  public @NotNull Policy<ID, T> policy() {
+    return this.delegate.policy();
+  }
+
+  @Override
+  public @NotNull CompletableFuture<@Nullable T> findAsync(final @NotNull ID id) {
+    if (this.cache instanceof AsyncLoadingCache<ID, T> loadingCache) {
+      return loadingCache.get(id);
+    }
+    final CompletableFuture<T> future = this.cache.getIfPresent(id);
+    return future == null ? CompletableFuture.completedFuture(null) : future;
+  }
+
+  // Times out a copy, as the cache's own future may be shared with other callers.
+  @Override
+  public @NotNull CompletableFuture<@Nullable T> findAsync(final @NotNull ID id, final @NotNull Duration timeout) {
+    return this.findAsync(id).copy().orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Runs point reads and single-key writes inline, since they only touch one entry of the
+   * in-memory map. Scans, bulk deletes and index lookups walk many entries, and computes and
+   * merges run caller code, so they are scheduled; with a loading cache every operation but
+   * {@link Operation#EXISTS} is, as the synchronous view waits for loads in flight.
+   */
+  @Override
+  protected boolean nonBlocking(final @NotNull Operation operation) {
+    return switch (operation) {
+      case EXISTS -> true;
+      case FIND, SAVE, SAVE_IF_VERSION, DELETE, DELETE_AND_RETRIEVE -> !(this.cache instanceof AsyncLoadingCache);
+      default -> false;
+    };
+  }
+
+  @Override
+  public boolean exists(final @NotNull ID id) {
+    return this.delegate.exists(id);
+  }
+
+  /**
+   * Returns the cached entity, loading it first when the cache is an {@link AsyncLoadingCache}.
+   */
+  @Override
+  public @Nullable T findSync(final @NotNull ID id) {
+    // the synchronous view of a loading cache loads misses itself, surfacing the loader's
+    // unchecked exceptions as they are rather than wrapped in a CompletionException
+    return this.delegate.findSync(id);
+  }
+
+  @Override
+  public <C extends Collection<@NotNull T>> @NotNull C findAllSync(final @NotNull IntFunction<C> factory) {
+    return this.delegate.findAllSync(factory);
+  }
+
+  @Override
+  public @NotNull Stream<@NotNull T> stream() {
+    return this.delegate.stream();
+  }
+
+  @Override
+  public @NotNull Stream<@NotNull ID> streamIds() {
+    return this.delegate.streamIds();
+  }
+
+  @Override
+  public long countSync() {
+    return this.delegate.countSync();
+  }
+
+  @Override
+  public <C extends Collection<@NotNull T>> @NotNull C findByIndexSync(final @NotNull String index, final @NotNull Object key, final @NotNull IntFunction<C> factory) {
+    return this.delegate.findByIndexSync(index, key, factory);
+  }
+
+  @Override
+  public <C extends Collection<@NotNull T>> @NotNull C findIdRangeSync(final @NotNull ID from, final @NotNull ID to, final @NotNull IntFunction<C> factory) {
+    return this.delegate.findIdRangeSync(from, to, factory);
+  }
+
+  @Override
+  public <C extends Collection<@NotNull T>> @NotNull C findByIdPrefixSync(final @NotNull String prefix, final @NotNull IntFunction<C> factory) {
+    return this.delegate.findByIdPrefixSync(prefix, factory);
+  }
+
+  @Override
+  public @NotNull Page<T, ID> findPageSync(final @NotNull Cursor<ID> cursor, final int pageSize) {
+    return this.delegate.findPageSync(cursor, pageSize);
+  }
+
+  @Override
+  public @NotNull List<@NotNull T> findTopSync(final int k, final @NotNull Comparator<? super T> comparator) {
+    return this.delegate.findTopSync(k, comparator);
+  }
+
+  @Override
+  public boolean deleteSync(final @NotNull ID id) {
+    return this.delegate.deleteSync(id);
+  }
+
+  @Override
+  public @Nullable T deleteAndRetrieveSync(final @NotNull ID id) {
+    return this.delegate.deleteAndRetrieveSync(id);
+  }
+
+  @Override
+  public void deleteAllSync() {
+    this.delegate.deleteAllSync();
+  }
+
+  @Override
+  public @NotNull T saveSync(final @NotNull T entity) {
+    return this.delegate.saveSync(entity);
+  }
+
+  @Override
+  public @NotNull T saveIfVersionSync(final @NotNull T entity, final long expectedVersion) {
+    return this.delegate.saveIfVersionSync(entity, expectedVersion);
+  }
+
+  @Override
+  public @Nullable T computeSync(final @NotNull ID id, final @NotNull BiFunction<? super ID, ? super @Nullable T, ? extends @Nullable T> remapping) {
+    return this.delegate.computeSync(id, remapping);
+  }
+
+  @Override
+  public @NotNull T computeIfAbsentSync(final @NotNull ID id, final @NotNull Function<? super ID, ? extends @NotNull T> factory) {
+    return this.delegate.computeIfAbsentSync(id, factory);
+  }
+
+  @Override
+  public @Nullable T insertIfAbsentSync(final @NotNull T entity) {
+    return this.delegate.insertIfAbsentSync(entity);
+  }
+
+  @Override
+  public @Nullable T mergeSync(final @NotNull T entity, final @NotNull BiFunction<? super @NotNull T, ? super @NotNull T, ? extends @Nullable T> remapping) {
+    return this.delegate.mergeSync(entity, remapping);
+  }
+}
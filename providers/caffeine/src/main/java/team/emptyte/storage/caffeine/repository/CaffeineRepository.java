@@ -24,19 +24,45 @@
 package team.emptyte.storage.caffeine.repository;
 
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.jetbrains.annotations.NotNull;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 import team.emptyte.storage.Identity;
+import team.emptyte.storage.exception.repository.VersionConflictException;
 import team.emptyte.storage.repository.Repository;
+import team.emptyte.storage.repository.context.MemoryBudget;
+import team.emptyte.storage.repository.event.ChangeFeed;
+import team.emptyte.storage.repository.event.DeliveryPolicy;
+import team.emptyte.storage.repository.event.RepositoryListener;
+import team.emptyte.storage.repository.event.Subscription;
+import team.emptyte.storage.repository.index.SecondaryIndex;
+import team.emptyte.storage.repository.index.SecondaryIndexes;
+import team.emptyte.storage.repository.query.Cursor;
+import team.emptyte.storage.repository.query.IdRanges;
+import team.emptyte.storage.repository.query.Page;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.function.IntFunction;
+import java.util.stream.Stream;
 
-public class CaffeineRepository<T extends Identity<ID>, ID> implements Repository<T, ID> {
+public class CaffeineRepository<T extends Identity<ID>, ID> implements Repository<T, ID>, AutoCloseable {
   private final Cache<ID, T> cache;
+  private final SecondaryIndexes<T, ID> indexes = new SecondaryIndexes<>();
+  private final ChangeFeed<T, ID> changes = new ChangeFeed<>();
+  private volatile @Nullable ConcurrentSkipListSet<ID> sortedIds;
+  private volatile boolean sortedIdsReady;
+  private volatile MemoryBudget.@Nullable Share memoryShare;
 
-  private CaffeineRepository(final @NotNull Cache<ID, T> cache) {
+  CaffeineRepository(final @NotNull Cache<ID, T> cache) {
     this.cache = cache;
   }
 
@@ -44,6 +70,69 @@ public class CaffeineRepository<T extends Identity<ID>, ID> implements Repositor
     return new CaffeineRepository<>(cache);
   }
 
+  public static @NotNull <T extends Identity<ID>, ID> CaffeineRepositoryBuilder<T, ID> builder() {
+    return new CaffeineRepositoryBuilder<>();
+  }
+
+  /**
+   * Registers a secondary index over the cached entities, indexing those already present.
+   * Indexes should be registered before the repository is shared between threads.
+   */
+  public @NotNull CaffeineRepository<T, ID> index(final @NotNull String name, final @NotNull Function<? super T, ?> extractor) {
+    this.index(new SecondaryIndex<T, ID>(name, extractor));
+    return this;
+  }
+
+  void index(final @NotNull SecondaryIndex<T, ID> index) {
+    this.indexes.add(index);
+    this.cache.asMap().values().forEach(index::update);
+  }
+
+  void memoryShare(final MemoryBudget.@Nullable Share memoryShare) {
+    this.memoryShare = memoryShare;
+  }
+
+  /**
+   * Hands the repository's share of the memory budget it was built with, if any, back to the
+   * other caches. The cache stays usable with its last maximum weight.
+   */
+  @Override
+  public void close() {
+    final MemoryBudget.Share memoryShare = this.memoryShare;
+    if (memoryShare != null) {
+      memoryShare.close();
+    }
+  }
+
+  /**
+   * Returns a snapshot of the cache's hit, load and eviction counters, all zero unless the
+   * cache records stats.
+   */
+  public @NotNull CacheStats stats() {
+    return this.cache.stats();
+  }
+
+  /**
+   * Returns the cache's runtime policy, for example to resize a bounded cache with a
+   * {@link team.emptyte.storage.caffeine.memory.HeapPressureController}.
+   */
+  public @NotNull Policy<ID, T> policy() {
+    return this.cache.policy();
+  }
+
+  @NotNull ChangeFeed<T, ID> changes() {
+    return this.changes;
+  }
+
+  /**
+   * Subscribes to the entities written through this repository. Evictions and expirations are
+   * not reported.
+   */
+  @Override
+  public @NotNull Subscription subscribe(final @NotNull RepositoryListener<T, ID> listener, final @NotNull DeliveryPolicy policy) {
+    return this.changes.subscribe(listener, policy);
+  }
+
   @Override
   public boolean exists(@NonNull final ID id) {
     return this.cache.asMap().containsKey(id);
@@ -51,6 +140,9 @@ public class CaffeineRepository<T extends Identity<ID>, ID> implements Repositor
 
   @Override
   public @Nullable T findSync(@NonNull final ID id) {
+    if (this.cache instanceof LoadingCache<ID, T> loadingCache) {
+      return loadingCache.get(id);
+    }
     return this.cache.getIfPresent(id);
   }
 
@@ -61,24 +153,279 @@ public class CaffeineRepository<T extends Identity<ID>, ID> implements Repositor
     return collection;
   }
 
+  @Override
+  public @NotNull Stream<@NotNull T> stream() {
+    return this.cache.asMap().values().stream();
+  }
+
+  @Override
+  public @NotNull Stream<@NotNull ID> streamIds() {
+    return this.cache.asMap().keySet().stream();
+  }
+
+  /**
+   * Returns the cache's estimated size, which may briefly include entries pending eviction.
+   */
+  @Override
+  public long countSync() {
+    return this.cache.estimatedSize();
+  }
+
+  // In caches the builder did not build, entities evicted on their own stay indexed until a
+  // lookup finds them missing.
+  @Override
+  public <C extends Collection<@NotNull T>> @NotNull C findByIndexSync(final @NotNull String index, final @NotNull Object key, final @NotNull IntFunction<C> factory) {
+    return this.indexes.find(index, key, factory, this::findOrPrune);
+  }
+
+  @Override
+  public <C extends Collection<@NotNull T>> @NotNull C findIdRangeSync(final @NotNull ID from, final @NotNull ID to, final @NotNull IntFunction<C> factory) {
+    return this.findSorted(this.sortedIds().subSet(from, true, to, false), factory);
+  }
+
+  /**
+   * Seeks the page in the sorted id index, so a page costs the same however deep it is.
+   */
+  @Override
+  public @NotNull Page<T, ID> findPageSync(final @NotNull Cursor<ID> cursor, final int pageSize) {
+    if (pageSize < 1) {
+      throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+    }
+    final List<ID> ids = cursor.following(this.sortedIds(), pageSize + 1);
+    final List<T> entities = new ArrayList<>(pageSize);
+    for (final ID id : ids.subList(0, Math.min(pageSize, ids.size()))) {
+      final T entity = this.findOrPrune(id);
+      if (entity != null) {
+        entities.add(entity);
+      }
+    }
+    return new Page<>(entities, ids.size() > pageSize ? Cursor.after(ids.get(pageSize - 1)) : null);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <C extends Collection<@NotNull T>> @NotNull C findByIdPrefixSync(final @NotNull String prefix, final @NotNull IntFunction<C> factory) {
+    final NavigableSet<ID> ids = this.sortedIds();
+    if (ids.isEmpty()) {
+      return factory.apply(0);
+    }
+    if (!(ids.first() instanceof String)) {
+      return Repository.super.findByIdPrefixSync(prefix, factory);
+    }
+    final String end = IdRanges.prefixEnd(prefix);
+    return this.findSorted(end == null ? ids.tailSet((ID) prefix, true) : ids.subSet((ID) prefix, true, (ID) end, false), factory);
+  }
+
+  private <C extends Collection<@NotNull T>> @NotNull C findSorted(final @NotNull NavigableSet<ID> ids, final @NotNull IntFunction<C> factory) {
+    final C collection = factory.apply(0);
+    for (final ID id : ids) {
+      final T entity = this.findOrPrune(id);
+      if (entity != null) {
+        collection.add(entity);
+      }
+    }
+    return collection;
+  }
+
+  private @Nullable T findOrPrune(final @NotNull ID id) {
+    final T entity = this.cache.getIfPresent(id);
+    if (entity == null) {
+      this.cache.asMap().computeIfAbsent(id, this::pruned);
+    }
+    return entity;
+  }
+
+  // Indexes an entity the cache loaded itself, without reporting it, since it was never written.
+  // Runs inside the load, before a write to the same id can replace the entity; a reload that
+  // found nothing removes the entity, so it is pruned instead.
+  @Nullable T loaded(final @NotNull ID id, final @Nullable T entity) {
+    if (entity == null) {
+      return this.pruned(id);
+    }
+    this.indexes.saved(entity);
+    final ConcurrentSkipListSet<ID> sortedIds = this.sortedIds;
+    if (sortedIds != null) {
+      sortedIds.add(id);
+    }
+    return entity;
+  }
+
+  // Runs within the eviction of the entity, so a write racing it cannot be unindexed.
+  void evicted(final @NotNull ID id) {
+    this.pruned(id);
+  }
+
+  // Drops an evicted entity from the indexes without reporting it, since it was never deleted.
+  private @Nullable T pruned(final @NotNull ID id) {
+    this.indexes.deleted(id);
+    final ConcurrentSkipListSet<ID> sortedIds = this.sortedIds;
+    if (sortedIds != null) {
+      sortedIds.remove(id);
+    }
+    return null;
+  }
+
+  /**
+   * Returns the sorted id index, built from the cache's keys on first use and maintained by
+   * every write from then on, so repositories that never run range queries pay nothing for it.
+   */
+  private @NotNull NavigableSet<ID> sortedIds() {
+    if (!this.sortedIdsReady) {
+      synchronized (this) {
+        if (!this.sortedIdsReady) {
+          final ConcurrentSkipListSet<ID> ids = new ConcurrentSkipListSet<>();
+          this.sortedIds = ids;
+          ids.addAll(this.cache.asMap().keySet());
+          this.sortedIdsReady = true;
+        }
+      }
+    }
+    return this.sortedIds;
+  }
+
+  private boolean tracked() {
+    return !this.indexes.isEmpty() || this.sortedIds != null || this.changes.hasSubscribers();
+  }
+
   @Override
   public boolean deleteSync(@NonNull final ID id) {
-    return this.cache.asMap().remove(id) != null;
+    return this.remove(id) != null;
   }
 
   @Override
   public @Nullable T deleteAndRetrieveSync(@NonNull final ID id) {
-    return this.cache.asMap().remove(id);
+    return this.remove(id);
+  }
+
+  private @Nullable T remove(final @NotNull ID id) {
+    if (!this.tracked()) {
+      return this.cache.asMap().remove(id);
+    }
+    final List<T> removed = new ArrayList<>(1);
+    this.changes.staged(() -> this.cache.asMap().computeIfPresent(id, (key, current) -> {
+      removed.add(current);
+      return this.indexed(key, current, null);
+    }));
+    return removed.isEmpty() ? null : removed.get(0);
   }
 
   @Override
   public void deleteAllSync() {
+    if (this.changes.hasSubscribers()) {
+      for (final ID id : this.cache.asMap().keySet()) {
+        this.remove(id);
+      }
+    }
     this.cache.invalidateAll();
+    this.indexes.cleared();
+    final ConcurrentSkipListSet<ID> sortedIds = this.sortedIds;
+    if (sortedIds != null) {
+      sortedIds.clear();
+    }
   }
 
   @Override
   public @NonNull T saveSync(@NonNull final T entity) {
-    this.cache.put(entity.id(), entity);
+    if (!this.tracked()) {
+      this.cache.put(entity.id(), entity);
+      // The sorted index may have been built between the check and the put; a stale id is
+      // pruned on lookup, a missing one would never be found.
+      final ConcurrentSkipListSet<ID> sortedIds = this.sortedIds;
+      if (sortedIds != null) {
+        sortedIds.add(entity.id());
+      }
+    } else {
+      this.changes.staged(() -> this.cache.asMap().compute(entity.id(), (id, current) -> this.indexed(id, entity)));
+    }
+    return entity;
+  }
+
+  @Override
+  public @NonNull T saveIfVersionSync(@NonNull final T entity, final long expectedVersion) {
+    final long previousVersion = entity.version();
+    try {
+      this.changes.staged(() -> this.cache.asMap().compute(entity.id(), (id, current) -> {
+        final long actualVersion = current == null ? 0 : current.version();
+        if (actualVersion != expectedVersion) {
+          throw new VersionConflictException(id, expectedVersion, actualVersion);
+        }
+        entity.version(expectedVersion + 1);
+        return this.indexed(id, entity);
+      }));
+    } catch (final RuntimeException e) {
+      entity.version(previousVersion);
+      throw e;
+    }
+    return entity;
+  }
+
+  @Override
+  public @Nullable T computeSync(@NonNull final ID id, final @NotNull BiFunction<? super ID, ? super @Nullable T, ? extends @Nullable T> remapping) {
+    return this.changes.staged(() -> this.cache.asMap().compute(id, (key, current) -> {
+      final long currentVersion = current == null ? 0 : current.version();
+      final T updated = checkId(key, remapping.apply(key, current));
+      if (updated == null && current == null) {
+        return null;
+      }
+      if (updated != null) {
+        updated.version(currentVersion + 1);
+      }
+      return this.indexed(key, current, updated);
+    }));
+  }
+
+  @Override
+  public @NonNull T computeIfAbsentSync(@NonNull final ID id, final @NotNull Function<? super ID, ? extends @NotNull T> factory) {
+    return this.changes.staged(() -> this.cache.asMap().computeIfAbsent(id, key -> {
+      final T created = checkId(key, factory.apply(key));
+      created.version(1);
+      return this.indexed(key, created);
+    }));
+  }
+
+  @Override
+  public @Nullable T insertIfAbsentSync(@NonNull final T entity) {
+    final boolean[] inserted = new boolean[1];
+    final T current = this.changes.staged(() -> this.cache.asMap().computeIfAbsent(entity.id(), id -> {
+      inserted[0] = true;
+      return this.indexed(id, entity);
+    }));
+    return inserted[0] ? null : current;
+  }
+
+  @Override
+  public @Nullable T mergeSync(@NonNull final T entity, final @NotNull BiFunction<? super @NotNull T, ? super @NotNull T, ? extends @Nullable T> remapping) {
+    return this.computeSync(entity.id(), (id, current) -> current == null ? entity : remapping.apply(current, entity));
+  }
+
+  // Called inside the map's compute functions so index updates and events for one id are
+  // ordered like its writes; the events are staged and delivered once the compute returns.
+  private @Nullable T indexed(final @NotNull ID id, final @Nullable T entity) {
+    return this.indexed(id, null, entity);
+  }
+
+  private @Nullable T indexed(final @NotNull ID id, final @Nullable T previous, final @Nullable T entity) {
+    final ConcurrentSkipListSet<ID> sortedIds = this.sortedIds;
+    if (entity == null) {
+      this.indexes.deleted(id);
+      if (sortedIds != null) {
+        sortedIds.remove(id);
+      }
+      this.changes.deleted(id, previous);
+    } else {
+      this.indexes.saved(entity);
+      if (sortedIds != null) {
+        sortedIds.add(id);
+      }
+      this.changes.saved(entity);
+    }
+    return entity;
+  }
+
+  private static <T extends Identity<ID>, ID> @Nullable T checkId(final @NotNull ID id, final @Nullable T entity) {
+    if (entity != null && !id.equals(entity.id())) {
+      throw new IllegalArgumentException("Computed entity id " + entity.id() + " does not match key " + id);
+    }
     return entity;
   }
 }
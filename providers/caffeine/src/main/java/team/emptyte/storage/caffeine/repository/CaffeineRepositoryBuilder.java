@@ -0,0 +1,266 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.caffeine.repository;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.emptyte.storage.Identity;
+import team.emptyte.storage.repository.builder.RepositoryBuilder;
+import team.emptyte.storage.repository.context.MemoryBudget;
+import team.emptyte.storage.repository.index.SecondaryIndex;
+import team.emptyte.storage.serialization.TypeSerializer;
+import team.emptyte.storage.serialization.Writer;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Configures the Caffeine cache behind a {@link CaffeineRepository} or
+ * {@link CaffeineAsyncRepository}. Bounds, expiry and stats map directly onto Caffeine's own
+ * builder; stats are exposed through the built repository's {@code stats()}.
+ *
+ * <p>A cache bounded by {@link #maximumWeight(long, ToIntFunction) weight} joins the
+ * {@link #memoryBudget(MemoryBudget) memory budget}, if
+ * one is set, reading its weights as bytes; its maximum weight then follows its share of the
+ * budget until the repository is closed. Caches bounded by size keep their own bound.</p>
+ */
+public class CaffeineRepositoryBuilder<T extends Identity<ID>, ID> extends RepositoryBuilder<T, ID, CaffeineRepositoryBuilder<T, ID>> {
+  private long maximumSize = -1;
+  private long maximumWeight = -1;
+  private @Nullable ToIntFunction<? super T> weigher;
+  private @Nullable Duration expireAfterWrite;
+  private @Nullable Duration expireAfterAccess;
+  private @Nullable Duration refreshAfterWrite;
+  private @Nullable Function<? super ID, ? extends @Nullable T> loader;
+  private @Nullable Executor executor;
+  private boolean recordStats;
+
+  /**
+   * Bounds the cache by entity count.
+   *
+   * @throws IllegalStateException if the cache is already bounded by {@link #maximumWeight(long, ToIntFunction) weight}
+   */
+  @Contract("_ -> this")
+  public @NotNull CaffeineRepositoryBuilder<T, ID> maximumSize(final long maximumSize) {
+    if (maximumSize < 0) {
+      throw new IllegalArgumentException("Maximum size cannot be negative: " + maximumSize);
+    }
+    if (this.weigher != null) {
+      throw new IllegalStateException("Maximum size and maximum weight cannot be combined");
+    }
+    this.maximumSize = maximumSize;
+    return this;
+  }
+
+  /**
+   * Bounds the cache by the summed weight of its entities, as estimated by {@code weigher}.
+   * Weights are computed once per write, so the estimate should be cheap or cover entities that
+   * change rarely.
+   *
+   * @throws IllegalStateException if the cache is already bounded by {@link #maximumSize(long) size}
+   * @see #serializedSize(TypeSerializer, Supplier, ToIntFunction)
+   */
+  @Contract("_, _ -> this")
+  public @NotNull CaffeineRepositoryBuilder<T, ID> maximumWeight(final long maximumWeight, final @NotNull ToIntFunction<? super T> weigher) {
+    if (maximumWeight < 0) {
+      throw new IllegalArgumentException("Maximum weight cannot be negative: " + maximumWeight);
+    }
+    if (this.maximumSize >= 0) {
+      throw new IllegalStateException("Maximum size and maximum weight cannot be combined");
+    }
+    this.maximumWeight = maximumWeight;
+    this.weigher = Objects.requireNonNull(weigher, "Weigher cannot be null");
+    return this;
+  }
+
+  @Contract("_ -> this")
+  public @NotNull CaffeineRepositoryBuilder<T, ID> expireAfterWrite(final @NotNull Duration expireAfterWrite) {
+    this.expireAfterWrite = Objects.requireNonNull(expireAfterWrite, "Expiry cannot be null");
+    return this;
+  }
+
+  @Contract("_ -> this")
+  public @NotNull CaffeineRepositoryBuilder<T, ID> expireAfterAccess(final @NotNull Duration expireAfterAccess) {
+    this.expireAfterAccess = Objects.requireNonNull(expireAfterAccess, "Expiry cannot be null");
+    return this;
+  }
+
+  /**
+   * Reloads entities through the {@link #loader(Function) loader} once they are older than
+   * {@code refreshAfterWrite}, serving the stale value until the reload completes.
+   */
+  @Contract("_ -> this")
+  public @NotNull CaffeineRepositoryBuilder<T, ID> refreshAfterWrite(final @NotNull Duration refreshAfterWrite) {
+    this.refreshAfterWrite = Objects.requireNonNull(refreshAfterWrite, "Refresh interval cannot be null");
+    return this;
+  }
+
+  /**
+   * Loads entities missing from the cache on lookup, making the built cache a loading cache.
+   * The loader may return {@code null} for ids that do not exist.
+   */
+  @Contract("_ -> this")
+  public @NotNull CaffeineRepositoryBuilder<T, ID> loader(final @NotNull Function<? super ID, ? extends @Nullable T> loader) {
+    this.loader = Objects.requireNonNull(loader, "Loader cannot be null");
+    return this;
+  }
+
+  /**
+   * Sets the executor Caffeine runs loads, refreshes and maintenance on. Defaults to the I/O
+   * executor for {@link #buildAsync(Executor, Executor)} and to Caffeine's own otherwise.
+   */
+  @Contract("_ -> this")
+  public @NotNull CaffeineRepositoryBuilder<T, ID> executor(final @NotNull Executor executor) {
+    this.executor = Objects.requireNonNull(executor, "Executor cannot be null");
+    return this;
+  }
+
+  @Contract("_ -> this")
+  public @NotNull CaffeineRepositoryBuilder<T, ID> recordStats(final boolean recordStats) {
+    this.recordStats = recordStats;
+    return this;
+  }
+
+  public @NotNull CaffeineRepository<T, ID> build() {
+    final CacheHooks<T, ID> hooks = new CacheHooks<>();
+    final Caffeine<ID, T> caffeine = this.caffeine(this.executor, hooks);
+    final Function<? super ID, ? extends @Nullable T> loader = this.loader;
+    final Cache<ID, T> cache = loader == null ? caffeine.build() : caffeine.build(id -> hooks.loaded(id, loader.apply(id)));
+    final CaffeineRepository<T, ID> repository = new CaffeineRepository<>(cache);
+    hooks.repository = repository;
+    for (final SecondaryIndex<T, ID> index : this.indexes()) {
+      repository.index(index);
+    }
+    repository.memoryShare(this.memoryShare(cache));
+    return repository;
+  }
+
+  @Override
+  public @NotNull CaffeineAsyncRepository<T, ID> buildAsync(final @NotNull Executor ioExecutor, final @NotNull Executor computeExecutor) {
+    Objects.requireNonNull(ioExecutor, "I/O executor cannot be null");
+    Objects.requireNonNull(computeExecutor, "Compute executor cannot be null");
+
+    final Executor scheduledIoExecutor = this.scheduled(ioExecutor);
+    final Executor scheduledComputeExecutor = computeExecutor == ioExecutor ? scheduledIoExecutor : this.scheduled(computeExecutor);
+    final CacheHooks<T, ID> hooks = new CacheHooks<>();
+    final Caffeine<ID, T> caffeine = this.caffeine(this.executor == null ? scheduledIoExecutor : this.executor, hooks);
+    final Function<? super ID, ? extends @Nullable T> loader = this.loader;
+    final AsyncCache<ID, T> cache = loader == null ? caffeine.buildAsync() : caffeine.buildAsync(id -> hooks.loaded(id, loader.apply(id)));
+    final CaffeineAsyncRepository<T, ID> repository = new CaffeineAsyncRepository<>(cache, scheduledIoExecutor, scheduledComputeExecutor, this.limiter());
+    hooks.repository = repository.delegate();
+    for (final SecondaryIndex<T, ID> index : this.indexes()) {
+      repository.index(index);
+    }
+    repository.memoryShare(this.memoryShare(cache.synchronous()));
+    return repository;
+  }
+
+  private MemoryBudget.@Nullable Share memoryShare(final @NotNull Cache<ID, T> cache) {
+    if (this.weigher == null) {
+      return null;
+    }
+    final Policy.Eviction<ID, T> eviction = cache.policy().eviction().orElseThrow();
+    return this.joinMemoryBudget("caffeine", eviction::setMaximum);
+  }
+
+  @SuppressWarnings("unchecked")
+  private @NotNull Caffeine<ID, T> caffeine(final @Nullable Executor executor, final @NotNull CacheHooks<T, ID> hooks) {
+    if (this.refreshAfterWrite != null && this.loader == null) {
+      throw new IllegalStateException("Refreshing entities requires a loader");
+    }
+    final Caffeine<Object, Object> caffeine = Caffeine.newBuilder();
+    if (this.maximumSize >= 0) {
+      caffeine.maximumSize(this.maximumSize);
+    }
+    final ToIntFunction<? super T> weigher = this.weigher;
+    if (weigher != null) {
+      caffeine.maximumWeight(this.maximumWeight).weigher((id, entity) -> weigher.applyAsInt((T) entity));
+    }
+    if (this.expireAfterWrite != null) {
+      caffeine.expireAfterWrite(this.expireAfterWrite);
+    }
+    if (this.expireAfterAccess != null) {
+      caffeine.expireAfterAccess(this.expireAfterAccess);
+    }
+    if (this.refreshAfterWrite != null) {
+      caffeine.refreshAfterWrite(this.refreshAfterWrite);
+    }
+    if (executor != null) {
+      caffeine.executor(executor);
+    }
+    if (this.recordStats) {
+      caffeine.recordStats();
+    }
+    caffeine.evictionListener((id, entity, cause) -> {
+      if (id != null) {
+        hooks.evicted((ID) id);
+      }
+    });
+    return (Caffeine<ID, T>) (Caffeine<?, ?>) caffeine;
+  }
+
+  // Forwards the cache's own loads and evictions to the repository built over it, keeping its
+  // indexes in step with entries no write went through. The repository only exists once the
+  // cache does, and neither loads nor evicts anything before it is handed out.
+  private static final class CacheHooks<T extends Identity<ID>, ID> {
+    private volatile @Nullable CaffeineRepository<T, ID> repository;
+
+    private @Nullable T loaded(final @NotNull ID id, final @Nullable T entity) {
+      final CaffeineRepository<T, ID> repository = this.repository;
+      return repository == null ? entity : repository.loaded(id, entity);
+    }
+
+    private void evicted(final @NotNull ID id) {
+      final CaffeineRepository<T, ID> repository = this.repository;
+      if (repository != null) {
+        repository.evicted(id);
+      }
+    }
+  }
+
+  /**
+   * Returns a weigher estimating an entity's footprint as the size of its serialized form, for
+   * example {@code serializedSize(serializer, JsonWriter::new, json -> json.toString().length())}.
+   */
+  public static <T, O> @NotNull ToIntFunction<T> serializedSize(
+    final @NotNull TypeSerializer<T, O> serializer,
+    final @NotNull Supplier<? extends Writer<O>> writers,
+    final @NotNull ToIntFunction<? super O> size
+  ) {
+    return entity -> {
+      final Writer<O> writer = writers.get();
+      serializer.serialize(entity, writer);
+      return size.applyAsInt(writer.end());
+    };
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.caffeine.memory;
+
+import com.github.benmanes.caffeine.cache.Policy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeapPressureControllerTest {
+  private static final String OLD = "Old Gen";
+  private static final String MINOR_GC = "end of minor GC";
+  private static final String MAJOR_GC = "end of major GC";
+  private static final HeapPressurePolicy POLICY = HeapPressurePolicy.bounds(10, 1000).withCooldown(Duration.ofSeconds(1));
+
+  private static Policy.Eviction<?, ?> eviction(final AtomicLong maximum) {
+    return (Policy.Eviction<?, ?>) Proxy.newProxyInstance(
+      HeapPressureControllerTest.class.getClassLoader(),
+      new Class<?>[]{Policy.Eviction.class},
+      (proxy, method, args) -> switch (method.getName()) {
+        case "getMaximum" -> maximum.get();
+        case "setMaximum" -> {
+          maximum.set((Long) args[0]);
+          yield null;
+        }
+        case "hashCode" -> System.identityHashCode(proxy);
+        case "equals" -> proxy == args[0];
+        case "toString" -> "Eviction";
+        default -> throw new UnsupportedOperationException(method.getName());
+      }
+    );
+  }
+
+  private static Map<String, MemoryUsage> old(final long used) {
+    return Map.of(OLD, new MemoryUsage(0, used, 100, 100), "Eden", new MemoryUsage(0, 0, 100, 100));
+  }
+
+  private static long seconds(final long seconds) {
+    return TimeUnit.SECONDS.toNanos(seconds);
+  }
+
+  @Test
+  @DisplayName("afterCollection should shrink only after collections that reclaimed the monitored pools")
+  void afterCollection_ShouldIgnoreHighUsageAfterYoungCollections() {
+    final AtomicLong maximum = new AtomicLong(1000);
+    final HeapPressureController controller = new HeapPressureController(eviction(maximum), POLICY, Set.of(OLD));
+
+    controller.afterCollection(MINOR_GC, old(80), old(90), seconds(1));
+    assertEquals(1000, maximum.get());
+
+    controller.afterCollection(MINOR_GC, old(95), old(90), seconds(2));
+    assertEquals(500, maximum.get());
+
+    controller.afterCollection(MAJOR_GC, old(90), old(90), seconds(4));
+    assertEquals(250, maximum.get());
+
+    controller.afterCollection(MAJOR_GC, Map.of(), Map.of("Eden", new MemoryUsage(0, 99, 100, 100)), seconds(6));
+    assertEquals(250, maximum.get());
+  }
+
+  @Test
+  @DisplayName("resizes should be debounced so a threshold crossing and the next collection shrink once")
+  void shrink_ShouldBeDebounced() {
+    final AtomicLong maximum = new AtomicLong(1000);
+    final HeapPressureController controller = new HeapPressureController(eviction(maximum), POLICY, Set.of(OLD));
+
+    controller.shrink(seconds(10));
+    controller.afterCollection(MAJOR_GC, old(95), old(90), seconds(10) + 1);
+    assertEquals(500, maximum.get());
+
+    controller.afterCollection(MAJOR_GC, old(90), old(50), seconds(10) + 2);
+    assertEquals(500, maximum.get());
+
+    controller.afterCollection(MAJOR_GC, old(90), old(50), seconds(11));
+    assertEquals(625, maximum.get());
+
+    controller.afterCollection(MAJOR_GC, old(90), old(50), seconds(12));
+    assertEquals(781, maximum.get());
+
+    controller.afterCollection(MAJOR_GC, old(90), old(70), seconds(13));
+    assertEquals(781, maximum.get());
+  }
+
+  @Test
+  @DisplayName("close should restore the usage thresholds the pools had and the policy's maximum")
+  void close_ShouldRestorePreviousThresholds() {
+    final List<MemoryPoolMXBean> pools = new ArrayList<>();
+    final List<Long> original = new ArrayList<>();
+    for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP && pool.getUsage().getMax() > 0 && pool.isUsageThresholdSupported()) {
+        pools.add(pool);
+        original.add(pool.getUsageThreshold());
+      }
+    }
+    try {
+      for (final MemoryPoolMXBean pool : pools) {
+        pool.setUsageThreshold(pool.getUsage().getMax() - 1);
+      }
+      final AtomicLong maximum = new AtomicLong(5000);
+      final HeapPressureController controller = HeapPressureController.start(eviction(maximum), POLICY);
+      assertEquals(1000, controller.maximum());
+      for (final MemoryPoolMXBean pool : pools) {
+        assertEquals((long) (pool.getUsage().getMax() * POLICY.highUsage()), pool.getUsageThreshold());
+      }
+
+      controller.close();
+      for (final MemoryPoolMXBean pool : pools) {
+        assertEquals(pool.getUsage().getMax() - 1, pool.getUsageThreshold());
+      }
+      assertEquals(1000, maximum.get());
+    } finally {
+      for (int i = 0; i < pools.size(); i++) {
+        pools.get(i).setUsageThreshold(original.get(i));
+      }
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.caffeine.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.emptyte.storage.Identity;
+import team.emptyte.storage.repository.event.DeliveryPolicy;
+import team.emptyte.storage.repository.event.RepositoryEvent;
+import team.emptyte.storage.repository.event.Subscription;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CaffeineAsyncRepositoryTest {
+  @Test
+  @DisplayName("point reads and single-key writes should complete inline without the executor")
+  void nonBlocking_ShouldRunPointOperationsInline() {
+    final Queue<Runnable> pending = new ArrayDeque<>();
+    final CaffeineAsyncRepository<Player, String> repository = CaffeineRepository.<Player, String>builder()
+      .executor(Runnable::run)
+      .buildAsync(pending::add, pending::add);
+
+    final CompletableFuture<Player> saved = repository.saveAsync(new Player("player-1", "Jane"));
+    final CompletableFuture<Player> found = repository.findAsync("player-1");
+    final CompletableFuture<Boolean> exists = repository.existsAsync("player-1");
+    final CompletableFuture<Player> versioned = repository.saveIfVersionAsync(new Player("player-2", "John"), 0);
+    final CompletableFuture<Boolean> deleted = repository.deleteAsync("player-2");
+
+    assertTrue(pending.isEmpty());
+    assertTrue(saved.isDone());
+    assertEquals("Jane", found.getNow(null).name());
+    assertTrue(exists.getNow(false));
+    assertEquals(1, versioned.getNow(null).version());
+    assertTrue(deleted.getNow(false));
+  }
+
+  @Test
+  @DisplayName("scans and operations running caller code should be scheduled on the executor")
+  void nonBlocking_ShouldScheduleScansAndCallerCode() {
+    final Queue<Runnable> pending = new ArrayDeque<>();
+    final CaffeineAsyncRepository<Player, String> repository = CaffeineRepository.<Player, String>builder()
+      .executor(Runnable::run)
+      .buildAsync(pending::add, pending::add);
+    repository.saveSync(new Player("player-1", "Jane"));
+
+    final CompletableFuture<List<Player>> all = repository.findAllAsync(ArrayList::new);
+    final CompletableFuture<Player> computed = repository.computeAsync("player-1", (id, current) -> new Player(id, "John"));
+
+    assertFalse(all.isDone());
+    assertFalse(computed.isDone());
+    assertEquals(2, pending.size());
+    pending.forEach(Runnable::run);
+    assertEquals(1, all.join().size());
+    assertEquals("John", computed.join().name());
+  }
+
+  @Test
+  @DisplayName("a loading cache should schedule every operation but exists, as they may wait on loads")
+  void nonBlocking_ShouldScheduleWhenLoading() {
+    final Queue<Runnable> pending = new ArrayDeque<>();
+    final CaffeineAsyncRepository<Player, String> repository = CaffeineRepository.<Player, String>builder()
+      .loader(id -> new Player(id, "loaded"))
+      .executor(Runnable::run)
+      .buildAsync(pending::add, pending::add);
+
+    final CompletableFuture<Player> saved = repository.saveAsync(new Player("player-1", "Jane"));
+    final CompletableFuture<Boolean> exists = repository.existsAsync("player-2");
+
+    assertFalse(saved.isDone());
+    assertFalse(exists.getNow(true));
+    pending.forEach(Runnable::run);
+    assertEquals("Jane", saved.join().name());
+    assertEquals("loaded", repository.findAsync("player-2").join().name());
+  }
+
+  @Test
+  @DisplayName("subscribers should receive writes made through the async repository")
+  void subscribe_ShouldDeliverWritesThroughDelegate() throws InterruptedException {
+    final CaffeineAsyncRepository<Player, String> repository = CaffeineRepository.<Player, String>builder()
+      .executor(Runnable::run)
+      .buildAsync(Runnable::run, Runnable::run);
+    final BlockingQueue<RepositoryEvent<Player, String>> events = new LinkedBlockingQueue<>();
+
+    try (final Subscription ignored = repository.subscribe(events::add, new DeliveryPolicy(1, 4, true))) {
+      repository.saveAsync(new Player("player-1", "Jane")).join();
+      repository.deleteAsync("player-1").join();
+
+      final RepositoryEvent<Player, String> saved = events.poll(5, TimeUnit.SECONDS);
+      assertNotNull(saved);
+      assertEquals(RepositoryEvent.Type.SAVED, saved.type());
+      assertEquals("Jane", saved.entity().name());
+      final RepositoryEvent<Player, String> deleted = events.poll(5, TimeUnit.SECONDS);
+      assertNotNull(deleted);
+      assertEquals(RepositoryEvent.Type.DELETED, deleted.type());
+    }
+  }
+
+  private static final class Player extends Identity<String> {
+    private final String name;
+
+    private Player(final String id, final String name) {
+      super(id);
+      this.name = name;
+    }
+
+    private String name() {
+      return this.name;
+    }
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.caffeine.repository;
+
+import com.github.benmanes.caffeine.cache.Policy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.emptyte.storage.Identity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CaffeineRepositoryBuilderTest {
+  @Test
+  @DisplayName("maximumSize and maximumWeight should reject each other as soon as both are set")
+  void bounds_ShouldRejectSizeAndWeightTogether() {
+    assertThrows(IllegalStateException.class, () -> CaffeineRepository.<Player, String>builder()
+      .maximumSize(10)
+      .maximumWeight(10, player -> 1));
+    assertThrows(IllegalStateException.class, () -> CaffeineRepository.<Player, String>builder()
+      .maximumWeight(10, player -> 1)
+      .maximumSize(10));
+    assertThrows(IllegalArgumentException.class, () -> CaffeineRepository.<Player, String>builder().maximumSize(-1));
+  }
+
+  @Test
+  @DisplayName("refreshAfterWrite should require a loader")
+  void refreshAfterWrite_ShouldRequireLoader() {
+    final CaffeineRepositoryBuilder<Player, String> builder = CaffeineRepository.<Player, String>builder()
+      .refreshAfterWrite(Duration.ofMinutes(1));
+
+    assertThrows(IllegalStateException.class, builder::build);
+  }
+
+  @Test
+  @DisplayName("maximumWeight should bound the cache by the weigher's estimate")
+  void maximumWeight_ShouldBoundByWeigher() {
+    final CaffeineRepository<Player, String> repository = CaffeineRepository.<Player, String>builder()
+      .maximumWeight(10, player -> 5)
+      .executor(Runnable::run)
+      .build();
+    for (int i = 0; i < 5; i++) {
+      repository.saveSync(new Player("player-" + i, "Player " + i));
+    }
+
+    final Policy.Eviction<String, Player> eviction = repository.policy().eviction().orElseThrow();
+    assertTrue(eviction.isWeighted());
+    assertEquals(10, eviction.getMaximum());
+    assertTrue(repository.countSync() <= 2, () -> "Cache kept " + repository.countSync() + " entities");
+  }
+
+  @Test
+  @DisplayName("recordStats should count hits and misses only when enabled")
+  void recordStats_ShouldCountLookups() {
+    final CaffeineRepository<Player, String> recording = CaffeineRepository.<Player, String>builder()
+      .recordStats(true)
+      .build();
+    final CaffeineRepository<Player, String> silent = CaffeineRepository.<Player, String>builder().build();
+    for (final CaffeineRepository<Player, String> repository : List.of(recording, silent)) {
+      repository.saveSync(new Player("player-1", "Jane"));
+      repository.findSync("player-1");
+      repository.findSync("player-2");
+    }
+
+    assertEquals(1, recording.stats().hitCount());
+    assertEquals(1, recording.stats().missCount());
+    assertEquals(0, silent.stats().hitCount());
+    assertEquals(0, silent.stats().missCount());
+  }
+
+  @Test
+  @DisplayName("expireAfterWrite should drop entities once they are older than the expiry")
+  void expireAfterWrite_ShouldDropExpiredEntities() {
+    final CaffeineRepository<Player, String> repository = CaffeineRepository.<Player, String>builder()
+      .expireAfterWrite(Duration.ZERO)
+      .executor(Runnable::run)
+      .build();
+    repository.saveSync(new Player("player-1", "Jane"));
+
+    assertNull(repository.findSync("player-1"));
+  }
+
+  @Test
+  @DisplayName("a loader should load missing entities and index them like saved ones")
+  void loader_ShouldLoadAndIndexMisses() {
+    final CaffeineRepository<Player, String> repository = CaffeineRepository.<Player, String>builder()
+      .loader(id -> id.startsWith("player-") ? new Player(id, "loaded") : null)
+      .index("name", Player::name)
+      .executor(Runnable::run)
+      .build();
+
+    assertEquals("loaded", repository.findSync("player-1").name());
+    assertNull(repository.findSync("unknown"));
+    assertEquals(List.of("player-1"), repository.findByIndexSync("name", "loaded", ArrayList::new).stream().map(Player::id).toList());
+  }
+
+  @Test
+  @DisplayName("refreshAfterWrite should reload stale entities through the loader and reindex them")
+  void refreshAfterWrite_ShouldReloadThroughLoader() {
+    final AtomicInteger loads = new AtomicInteger();
+    final CaffeineRepository<Player, String> repository = CaffeineRepository.<Player, String>builder()
+      .loader(id -> new Player(id, "v" + loads.incrementAndGet()))
+      .refreshAfterWrite(Duration.ofNanos(1))
+      .index("name", Player::name)
+      .executor(Runnable::run)
+      .build();
+
+    assertEquals("v1", repository.findSync("player-1").name());
+    // A due refresh serves the stale entity while the reload replaces it.
+    assertEquals("v1", repository.findSync("player-1").name());
+    assertEquals("v2", repository.findSync("player-1").name());
+    assertTrue(repository.findByIndexSync("name", "v1", ArrayList::new).isEmpty());
+  }
+
+  private static final class Player extends Identity<String> {
+    private final String name;
+
+    private Player(final String id, final String name) {
+      super(id);
+      this.name = name;
+    }
+
+    private String name() {
+      return this.name;
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.caffeine.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.emptyte.storage.Identity;
+import team.emptyte.storage.repository.query.Cursor;
+import team.emptyte.storage.repository.query.Page;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CaffeineRepositoryTest {
+  @Test
+  @DisplayName("findPageSync should walk every entity in id order with continuation cursors")
+  void findPageSync_ShouldPageInIdOrder() {
+    final CaffeineRepository<Player, String> repository = CaffeineRepository.<Player, String>builder().build();
+    for (final String id : List.of("player-3", "player-1", "player-5", "player-2", "player-4")) {
+      repository.saveSync(new Player(id, id));
+    }
+
+    final List<String> ids = new ArrayList<>();
+    Cursor<String> cursor = Cursor.first();
+    int pages = 0;
+    while (cursor != null) {
+      final Page<Player, String> page = repository.findPageSync(cursor, 2);
+      page.entities().forEach(player -> ids.add(player.id()));
+      cursor = page.next();
+      pages++;
+    }
+
+    assertEquals(List.of("player-1", "player-2", "player-3", "player-4", "player-5"), ids);
+    assertEquals(3, pages);
+  }
+
+  @Test
+  @DisplayName("saveIfVersionSync should leave the entity's version untouched when the write fails")
+  void saveIfVersionSync_ShouldRollBackVersionOnFailure() {
+    final CaffeineRepository<Player, String> repository = CaffeineRepository.<Player, String>builder()
+      .index("name", player -> {
+        if (player.name == null) {
+          throw new IllegalStateException("Unnamed player");
+        }
+        return player.name;
+      })
+      .build();
+    repository.saveIfVersionSync(new Player("player-1", "Jane"), 0);
+    final Player unnamed = new Player("player-1", null);
+    unnamed.version(1);
+
+    assertThrows(IllegalStateException.class, () -> repository.saveIfVersionSync(unnamed, 1));
+    assertEquals(1, unnamed.version());
+    assertEquals("Jane", repository.findSync("player-1").name);
+  }
+
+  private static final class Player extends Identity<String> {
+    private final String name;
+
+    private Player(final String id, final String name) {
+      super(id);
+      this.name = name;
+    }
+  }
+}
@@ -10,6 +10,8 @@ dependencies {
   api(libs.gson)
 
   // Test dependencies
+  testAnnotationProcessor(project(":${rootProject.name}-processor"))
+
   testImplementation(platform("org.junit:junit-bom:6.0.3"))
   testImplementation("org.junit.jupiter:junit-jupiter")
 
@@ -0,0 +1,165 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.json.repository;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.emptyte.storage.Identity;
+import team.emptyte.storage.exception.repository.RepositoryException;
+import team.emptyte.storage.repository.index.SecondaryIndex;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Persists a {@link SecondaryIndex} as an append-only log of JSON lines, one per change, so a
+ * repository can restore it at startup instead of parsing every entity.
+ *
+ * <p>The log assumes a single writer: it only records the changes made through its own
+ * repository, so entities written by another process sharing the folder are missing from the
+ * index until the next restart reindexes their files.</p>
+ */
+final class GsonIndexLog<T extends Identity<String>> {
+  private final static Logger LOGGER = Logger.getLogger(GsonIndexLog.class.getName());
+
+  private final static String FOLDER = ".index";
+  private final static String EXTENSION = ".log";
+  private final static String ID_FIELD = "id";
+  private final static String KEY_FIELD = "key";
+
+  private final SecondaryIndex<T, String> index;
+  private final Path path;
+  private @Nullable FileChannel channel;
+
+  GsonIndexLog(final @NotNull Path folderPath, final @NotNull SecondaryIndex<T, String> index) {
+    this.index = index;
+    this.path = folderPath.resolve(FOLDER).resolve(index.name() + EXTENSION);
+  }
+
+  @NotNull SecondaryIndex<T, String> index() {
+    return this.index;
+  }
+
+  /**
+   * Loads the logged entries into the index.
+   *
+   * @return when the log was last written, or {@code null} if there is no log yet
+   */
+  @Nullable FileTime replay() {
+    final FileTime lastModified;
+    try {
+      lastModified = Files.getLastModifiedTime(this.path);
+    } catch (final NoSuchFileException e) {
+      return null;
+    } catch (final IOException e) {
+      throw new RepositoryException("Failed to read index log: " + this.path, e);
+    }
+    try (final BufferedReader reader = Files.newBufferedReader(this.path, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isEmpty()) {
+          continue;
+        }
+        try {
+          final JsonObject entry = JsonParser.parseString(line).getAsJsonObject();
+          final JsonElement key = entry.get(KEY_FIELD);
+          this.index.put(entry.get(ID_FIELD).getAsString(), key == null ? null : key.getAsString());
+        } catch (final JsonParseException | IllegalStateException | NullPointerException e) {
+          LOGGER.warning("Skipping corrupt entry in index log " + this.path + ": " + line);
+        }
+      }
+    } catch (final IOException e) {
+      throw new RepositoryException("Failed to read index log: " + this.path, e);
+    }
+    return lastModified;
+  }
+
+  synchronized void append(final @NotNull String id, final @Nullable String key) {
+    final JsonObject entry = new JsonObject();
+    entry.addProperty(ID_FIELD, id);
+    if (key != null) {
+      entry.addProperty(KEY_FIELD, key);
+    }
+    final ByteBuffer buffer = StandardCharsets.UTF_8.encode(entry + "\n");
+    try {
+      final FileChannel channel = this.channel();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } catch (final IOException e) {
+      throw new RepositoryException("Failed to append to index log: " + this.path, e);
+    }
+  }
+
+  // Opened on the first append and kept open until the log is compacted.
+  private @NotNull FileChannel channel() throws IOException {
+    if (this.channel == null) {
+      Files.createDirectories(this.path.getParent());
+      this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+    return this.channel;
+  }
+
+  /**
+   * Rewrites the log to hold one line per indexed id, closing the channel appends went through.
+   */
+  synchronized void compact() {
+    final Path tempPath = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+    try {
+      if (this.channel != null) {
+        this.channel.close();
+        this.channel = null;
+      }
+      Files.createDirectories(this.path.getParent());
+      try (final BufferedWriter writer = Files.newBufferedWriter(tempPath, StandardCharsets.UTF_8)) {
+        for (final Map.Entry<String, String> indexed : this.index.snapshot().entrySet()) {
+          final JsonObject entry = new JsonObject();
+          entry.addProperty(ID_FIELD, indexed.getKey());
+          entry.addProperty(KEY_FIELD, indexed.getValue());
+          writer.write(entry.toString());
+          writer.newLine();
+        }
+      }
+      Files.move(tempPath, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (final IOException e) {
+      throw new RepositoryException("Failed to compact index log: " + this.path, e);
+    }
+  }
+}
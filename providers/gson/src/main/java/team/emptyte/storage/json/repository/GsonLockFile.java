@@ -0,0 +1,136 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.json.repository;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.emptyte.storage.exception.repository.RepositoryException;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * The {@code .lock} file of a repository folder, shared by every {@link GsonRepository} of this
+ * JVM opened on that folder.
+ *
+ * <p>File locks are held per JVM, so two repositories locking the same byte range through their
+ * own channels would fail with an {@link java.nio.channels.OverlappingFileLockException}. All of
+ * them lock through one channel instead, taking a JVM lock on the byte range first, and the
+ * channel is closed once the last repository releases the file.</p>
+ */
+final class GsonLockFile {
+  private final static Logger LOGGER = Logger.getLogger(GsonLockFile.class.getName());
+  private final static String LOCK_FILE = ".lock";
+  private final static int REGIONS = 1024;
+  private final static Map<Path, GsonLockFile> OPEN = new HashMap<>();
+
+  private final Path path;
+  private final ReentrantLock[] regions = new ReentrantLock[REGIONS];
+  private @Nullable FileChannel channel;
+  private int references;
+
+  private GsonLockFile(final @NotNull Path path) {
+    this.path = path;
+    for (int i = 0; i < REGIONS; i++) {
+      this.regions[i] = new ReentrantLock();
+    }
+  }
+
+  static @NotNull GsonLockFile acquire(final @NotNull Path folderPath) {
+    final Path path = folderPath.toAbsolutePath().normalize().resolve(LOCK_FILE);
+    synchronized (OPEN) {
+      final GsonLockFile lockFile = OPEN.computeIfAbsent(path, GsonLockFile::new);
+      lockFile.references++;
+      return lockFile;
+    }
+  }
+
+  /**
+   * Runs {@code action} holding the byte range {@code id} maps to, both against other threads of
+   * this JVM and against other processes sharing the folder. The range depends on the id alone,
+   * so repositories configured with different lock stripes still exclude each other.
+   */
+  <R> R lock(final @NotNull String id, final @NotNull Supplier<R> action) {
+    final int region = Math.floorMod(id.hashCode(), REGIONS);
+    final ReentrantLock lock = this.regions[region];
+    lock.lock();
+    try {
+      final FileLock fileLock;
+      try {
+        fileLock = this.channel().lock(region, 1, false);
+      } catch (final IOException e) {
+        throw new RepositoryException("Failed to lock entity with id: " + id, e);
+      }
+      try {
+        return action.get();
+      } finally {
+        try {
+          fileLock.release();
+        } catch (final IOException e) {
+          LOGGER.warning("Failed to release lock file range " + region + " in " + this.path + ": " + e.getMessage());
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private synchronized @NotNull FileChannel channel() throws IOException {
+    if (this.channel == null) {
+      this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+    return this.channel;
+  }
+
+  /**
+   * Drops one reference, closing the channel when it was the last.
+   */
+  void release() {
+    synchronized (OPEN) {
+      if (--this.references > 0) {
+        return;
+      }
+      OPEN.remove(this.path);
+    }
+    synchronized (this) {
+      if (this.channel == null) {
+        return;
+      }
+      try {
+        this.channel.close();
+      } catch (final IOException e) {
+        LOGGER.warning("Failed to close lock file " + this.path + ": " + e.getMessage());
+      }
+      this.channel = null;
+    }
+  }
+}
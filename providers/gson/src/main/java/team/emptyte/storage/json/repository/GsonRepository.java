@@ -23,6 +23,7 @@
  */
 package team.emptyte.storage.json.repository;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.internal.bind.TypeAdapters;
 import com.google.gson.stream.JsonReader;
@@ -31,43 +32,165 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import team.emptyte.storage.Identity;
 import team.emptyte.storage.exception.repository.RepositoryException;
+import team.emptyte.storage.exception.repository.VersionConflictException;
+import team.emptyte.storage.exception.serialization.SerializationException;
 import team.emptyte.storage.repository.AsyncRepository;
+import team.emptyte.storage.repository.ModificationAware;
+import team.emptyte.storage.repository.Operation;
+import team.emptyte.storage.repository.ProjectableRepository;
+import team.emptyte.storage.repository.concurrent.Cancellation;
+import team.emptyte.storage.repository.concurrent.InFlightLimiter;
+import team.emptyte.storage.repository.concurrent.LockStripes;
+import team.emptyte.storage.repository.context.BufferPool;
+import team.emptyte.storage.repository.index.SecondaryIndex;
+import team.emptyte.storage.repository.index.SecondaryIndexes;
+import team.emptyte.storage.repository.query.BoundedHeap;
+import team.emptyte.storage.repository.query.Cursor;
+import team.emptyte.storage.repository.query.IdRanges;
+import team.emptyte.storage.repository.query.Page;
+import team.emptyte.storage.json.serialization.LazyJsonReader;
 import team.emptyte.storage.serialization.TypeSerializer;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class GsonRepository<T extends Identity<String>> extends AsyncRepository<T, String> {
+public class GsonRepository<T extends Identity<String>> extends AsyncRepository<T, String> implements ProjectableRepository<T, String, JsonObject>, ModificationAware<String>, AutoCloseable {
   private final static Logger LOGGER = Logger.getLogger(GsonRepository.class.getName());
 
   private final static String FILE_EXTENSION = ".json";
   private final static String FILE_FORMAT = "%s" + FILE_EXTENSION;
+  private final static String VERSION_FIELD = "_version";
+  private final static String TEMP_EXTENSION = ".tmp";
+  private final static int FIND_ALL_BATCH_SIZE = 64;
 
   private final Path folderPath;
   private final TypeSerializer<T, JsonObject> typeSerializer;
   private final boolean serializeNulls;
   private final boolean prettyPrinting;
+  private final LockStripes locks;
+  private final SecondaryIndexes<T, String> indexes;
+  private final List<GsonIndexLog<T>> indexLogs = new ArrayList<>();
+  private final NavigableSet<String> ids = new ConcurrentSkipListSet<>();
+  private final @Nullable BufferPool bufferPool;
+  private final GsonLockFile lockFile;
+  private final AtomicBoolean closed = new AtomicBoolean();
+  private volatile boolean indexesLoaded;
 
   GsonRepository(
-    final @NotNull Executor executor,
+    final @NotNull Executor ioExecutor,
+    final @NotNull Executor computeExecutor,
+    final @NotNull InFlightLimiter limiter,
+    final @NotNull LockStripes locks,
+    final @NotNull List<SecondaryIndex<T, String>> indexes,
     final @NotNull Path folderPath,
     final @NotNull TypeSerializer<T, JsonObject> typeSerializer,
     final boolean serializeNulls,
-    final boolean prettyPrinting
+    final boolean prettyPrinting,
+    final @Nullable BufferPool bufferPool
   ) {
-    super(executor);
+    super(ioExecutor, computeExecutor, limiter);
 
+    this.locks = locks;
     this.folderPath = folderPath;
     this.typeSerializer = typeSerializer;
     this.serializeNulls = serializeNulls;
     this.prettyPrinting = prettyPrinting;
+    this.bufferPool = bufferPool;
+    this.lockFile = GsonLockFile.acquire(folderPath);
+    this.indexes = new SecondaryIndexes<>(indexes);
+    for (final SecondaryIndex<T, String> index : indexes) {
+      this.indexLogs.add(new GsonIndexLog<>(folderPath, index));
+    }
+  }
+
+  // Loads the sorted id index and the secondary indexes on first use rather than in the
+  // constructor, so building a repository does no I/O; the first lookup or write waits for it.
+  private void ensureIndexesLoaded() {
+    if (this.indexesLoaded) {
+      return;
+    }
+    synchronized (this.indexLogs) {
+      if (!this.indexesLoaded) {
+        this.loadIndexes();
+        this.indexesLoaded = true;
+      }
+    }
+  }
+
+  // Collects the ids of the folder, replays each index log, then reindexes the entity files
+  // written after it (or every file for an index without a log) and drops ids whose files are
+  // gone, before compacting the logs.
+  private void loadIndexes() {
+    final FileTime[] replayed = new FileTime[this.indexLogs.size()];
+    for (int i = 0; i < replayed.length; i++) {
+      replayed[i] = this.indexLogs.get(i).replay();
+    }
+    if (Files.isDirectory(this.folderPath)) {
+      for (final Path path : this.listFiles()) {
+        this.ids.add(this.id(path));
+        if (replayed.length == 0) {
+          continue;
+        }
+        final FileTime lastModified;
+        try {
+          lastModified = Files.getLastModifiedTime(path);
+        } catch (final IOException e) {
+          continue;
+        }
+        T entity = null;
+        for (int i = 0; i < replayed.length; i++) {
+          if (replayed[i] == null || lastModified.compareTo(replayed[i]) >= 0) {
+            if (entity == null && (entity = this.internalFind(path)) == null) {
+              break;
+            }
+            this.indexLogs.get(i).index().update(entity);
+          }
+        }
+      }
+    }
+    for (int i = 0; i < replayed.length; i++) {
+      final GsonIndexLog<T> indexLog = this.indexLogs.get(i);
+      if (replayed[i] != null) {
+        for (final String id : indexLog.index().snapshot().keySet()) {
+          if (!Files.exists(this.filePath(id))) {
+            indexLog.index().remove(id);
+          }
+        }
+      }
+      indexLog.compact();
+    }
   }
 
   public static <T extends Identity<String>> GsonRepositoryBuilder<T> builder(final @NotNull Path folderPath, final @NotNull TypeSerializer<T, JsonObject> typeSerializer) {
@@ -82,6 +205,11 @@ public class GsonRepository<T extends Identity<String>> extends AsyncRepository<
     return this.folderPath.resolve(this.fileName(id));
   }
 
+  private @NotNull String id(final @NotNull Path path) {
+    final String fileName = path.getFileName().toString();
+    return fileName.substring(0, fileName.length() - FILE_EXTENSION.length());
+  }
+
   @Override
   public boolean exists(final @NotNull String id) {
     return Files.exists(this.filePath(id));
@@ -89,41 +217,188 @@ public class GsonRepository<T extends Identity<String>> extends AsyncRepository<
 
   @Override
   public @Nullable T findSync(final @NotNull String id) {
-    return this.internalFind(id);
+    return this.readLocked(id, () -> this.internalFind(id));
+  }
+
+  @Override
+  public <P> @Nullable P findProjectedSync(final @NotNull String id, final @NotNull TypeSerializer<P, JsonObject> projection) {
+    final Path path = this.filePath(id);
+    final byte[] bytes = this.readLocked(id, () -> this.readBytes(path));
+    return bytes == null ? null : this.project(path, bytes, projection);
+  }
+
+  public <P> @NotNull CompletableFuture<@Nullable P> findProjectedAsync(final @NotNull String id, final @NotNull TypeSerializer<P, JsonObject> projection) {
+    return this.admit(Operation.FIND_PROJECTED, null, cancellation -> this.projectStages(id, projection, cancellation));
+  }
+
+  public <P> @NotNull CompletableFuture<@Nullable P> findProjectedAsync(final @NotNull String id, final @NotNull TypeSerializer<P, JsonObject> projection, final @NotNull Duration timeout) {
+    return this.admit(Operation.FIND_PROJECTED, timeout, cancellation -> this.projectStages(id, projection, cancellation));
+  }
+
+  private <P> @NotNull CompletableFuture<@Nullable P> projectStages(final @NotNull String id, final @NotNull TypeSerializer<P, JsonObject> projection, final @NotNull Cancellation cancellation) {
+    final Path path = this.filePath(id);
+    return CompletableFuture.supplyAsync(() -> {
+        cancellation.checkpoint();
+        return this.readLocked(id, () -> this.readBytes(path));
+      }, this.executor(Operation.FIND_PROJECTED))
+      .thenApplyAsync(bytes -> {
+        cancellation.checkpoint();
+        return bytes == null ? null : this.project(path, bytes, projection);
+      }, this.computeExecutor(Operation.FIND_PROJECTED));
+  }
+
+  private <P> @NotNull P project(final @NotNull Path path, final byte @NotNull [] bytes, final @NotNull TypeSerializer<P, JsonObject> projection) {
+    try {
+      return projection.deserialize(new LazyJsonReader(bytes));
+    } catch (final SerializationException e) {
+      throw new RepositoryException("Failed to project entity from file: " + path, e);
+    }
   }
 
   @Override
   public @NotNull <C extends Collection<@NotNull T>> C findAllSync(final @NotNull IntFunction<C> factory) {
-    final C collection = factory.apply(0);
-    try (final DirectoryStream<Path> directoryStream = Files.newDirectoryStream(this.folderPath, "*" + FILE_EXTENSION)) {
-      directoryStream.forEach(path -> {
-        final T entity = this.internalFind(path);
-        if (entity != null) {
-          collection.add(entity);
-        }
-      });
-    } catch (final IOException e) {
-      throw new RepositoryException("Failed to find all entities", e);
+    return this.findAllSync(factory, Cancellation.NONE);
+  }
+
+  @Override
+  public @NotNull <C extends Collection<@NotNull T>> C findAllSync(final @NotNull IntFunction<C> factory, final @NotNull Cancellation cancellation) {
+    final List<Path> paths = this.listFiles();
+    final C collection = factory.apply(paths.size());
+    for (final Path path : paths) {
+      cancellation.checkpoint();
+      final T entity = this.readLocked(this.id(path), () -> this.internalFind(path));
+      if (entity != null) {
+        collection.add(entity);
+      }
     }
     return collection;
   }
 
+  /**
+   * Streams the entities of the folder, listed eagerly but parsed one file at a time as the
+   * stream is consumed, in parallel when the stream is.
+   */
   @Override
-  public boolean deleteSync(final @NotNull String id) {
+  public @NotNull Stream<@NotNull T> stream() {
+    return this.listFiles().stream()
+      .map(path -> this.readLocked(this.id(path), () -> this.internalFind(path)))
+      .filter(Objects::nonNull);
+  }
+
+  /**
+   * Streams ids straight from the directory listing without opening any file. The stream holds
+   * the directory open until closed.
+   */
+  @Override
+  public @NotNull Stream<@NotNull String> streamIds() {
+    final DirectoryStream<Path> directoryStream;
     try {
-      return Files.deleteIfExists(this.filePath(id));
+      directoryStream = Files.newDirectoryStream(this.folderPath, "*" + FILE_EXTENSION);
     } catch (final IOException e) {
-      throw new RepositoryException("Failed to delete entity with id: " + id, e);
+      throw new RepositoryException("Failed to list entity ids", e);
     }
+    return StreamSupport.stream(directoryStream.spliterator(), false)
+      .map(this::id)
+      .onClose(() -> {
+        try {
+          directoryStream.close();
+        } catch (final IOException e) {
+          throw new RepositoryException("Failed to close directory stream", e);
+        }
+      });
   }
 
   @Override
-  public @Nullable T deleteAndRetrieveSync(final @NotNull String id) {
-    final T entity = this.internalFind(id);
-    if (entity != null) {
-      this.deleteSync(id);
+  public <C extends Collection<@NotNull T>> @NotNull C findIdRangeSync(final @NotNull String from, final @NotNull String to, final @NotNull IntFunction<C> factory) {
+    return this.findSortedIds(from, to, factory);
+  }
+
+  @Override
+  public <C extends Collection<@NotNull T>> @NotNull C findByIdPrefixSync(final @NotNull String prefix, final @NotNull IntFunction<C> factory) {
+    return this.findSortedIds(prefix, IdRanges.prefixEnd(prefix), factory);
+  }
+
+  // Reads the range off the sorted id index and parses only the files in it.
+  private <C extends Collection<@NotNull T>> @NotNull C findSortedIds(final @NotNull String from, final @Nullable String to, final @NotNull IntFunction<C> factory) {
+    this.ensureIndexesLoaded();
+    final NavigableSet<String> ids = to == null ? this.ids.tailSet(from, true) : this.ids.subSet(from, true, to, false);
+    final C collection = factory.apply(0);
+    for (final String id : ids) {
+      final T entity = this.findSync(id);
+      if (entity != null) {
+        collection.add(entity);
+      }
     }
-    return entity;
+    return collection;
+  }
+
+  /**
+   * Seeks the page in the sorted id index and parses only the entities on it, so a page costs
+   * the same however deep into the folder it is.
+   */
+  @Override
+  public @NotNull Page<T, String> findPageSync(final @NotNull Cursor<String> cursor, final int pageSize) {
+    if (pageSize < 1) {
+      throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+    }
+    this.ensureIndexesLoaded();
+    final List<String> ids = cursor.following(this.ids, pageSize + 1);
+    final List<T> entities = new ArrayList<>(pageSize);
+    for (final String id : ids.subList(0, Math.min(pageSize, ids.size()))) {
+      final T entity = this.findSync(id);
+      if (entity != null) {
+        entities.add(entity);
+      }
+    }
+    // The cursor comes from the index, so an entity deleted meanwhile cannot end paging early.
+    return new Page<>(entities, ids.size() > pageSize ? Cursor.after(ids.get(pageSize - 1)) : null);
+  }
+
+  /**
+   * Ranks entity files by their last modified time, skipping files deleted while listing.
+   */
+  @Override
+  public @NotNull List<@NotNull String> recentlyModifiedIds(final int limit) {
+    if (limit < 1) {
+      return List.of();
+    }
+    final BoundedHeap<Modified> heap = new BoundedHeap<>(limit, Comparator.comparing(Modified::time).reversed());
+    for (final Path path : this.listFiles()) {
+      try {
+        heap.offer(new Modified(this.id(path), Files.getLastModifiedTime(path)));
+      } catch (final NoSuchFileException ignored) {
+      } catch (final IOException e) {
+        throw new RepositoryException("Failed to read modification time of " + path, e);
+      }
+    }
+    final List<String> ids = new ArrayList<>(heap.size());
+    for (final Modified modified : heap.toSortedList()) {
+      ids.add(modified.id());
+    }
+    return ids;
+  }
+
+  @Override
+  public <C extends Collection<@NotNull T>> @NotNull C findByIndexSync(final @NotNull String index, final @NotNull Object key, final @NotNull IntFunction<C> factory) {
+    this.ensureIndexesLoaded();
+    return this.indexes.find(index, key, factory, this::findSync);
+  }
+
+  @Override
+  public boolean deleteSync(final @NotNull String id) {
+    return this.writeLocked(id, () -> this.remove(this.filePath(id)));
+  }
+
+  @Override
+  public @Nullable T deleteAndRetrieveSync(final @NotNull String id) {
+    return this.writeLocked(id, () -> {
+      final Path path = this.filePath(id);
+      final T entity = this.internalFind(path);
+      if (entity != null) {
+        this.remove(path, entity);
+      }
+      return entity;
+    });
   }
 
   @Override
@@ -131,9 +406,9 @@ public class GsonRepository<T extends Identity<String>> extends AsyncRepository<
     try (final DirectoryStream<Path> stream = Files.newDirectoryStream(this.folderPath, "*" + FILE_EXTENSION)) {
       for (final Path path : stream) {
         try {
-          Files.deleteIfExists(path);
-        } catch (final IOException e) {
-          LOGGER.warning("Failed to delete file: " + path + ". Skipping. Error: " + e.getMessage());
+          this.writeLocked(this.id(path), () -> this.remove(path));
+        } catch (final RepositoryException e) {
+          LOGGER.log(Level.WARNING, "Failed to delete file: " + path + ". Skipping.", e);
         }
       }
     } catch (final IOException e) {
@@ -143,45 +418,401 @@ public class GsonRepository<T extends Identity<String>> extends AsyncRepository<
 
   @Override
   public @NotNull T saveSync(@NotNull final T entity) {
+    final JsonObject jsonObject = this.serialize(entity);
+    return this.writeLocked(entity.id(), () -> {
+      this.store(this.filePath(entity.id()), entity, jsonObject);
+      return entity;
+    });
+  }
+
+  @Override
+  public @NotNull T saveIfVersionSync(final @NotNull T entity, final long expectedVersion) {
+    final String id = entity.id();
+    return this.exclusive(id, () -> {
+      final Path path = this.filePath(id);
+      final T current = this.internalFind(path);
+      final long actualVersion = current == null ? 0 : current.version();
+      if (actualVersion != expectedVersion) {
+        throw new VersionConflictException(id, expectedVersion, actualVersion);
+      }
+      this.storeVersioned(path, entity, expectedVersion + 1);
+      return entity;
+    });
+  }
+
+  @Override
+  public @Nullable T computeSync(final @NotNull String id, final @NotNull BiFunction<? super String, ? super @Nullable T, ? extends @Nullable T> remapping) {
+    return this.exclusive(id, () -> {
+      final Path path = this.filePath(id);
+      final T current = this.internalFind(path);
+      final T updated = remapping.apply(id, current);
+      if (updated == null) {
+        if (current != null) {
+          this.remove(path, current);
+        }
+        return null;
+      }
+      this.storeVersioned(path, checkId(id, updated), (current == null ? 0 : current.version()) + 1);
+      return updated;
+    });
+  }
+
+  @Override
+  public @Nullable T insertIfAbsentSync(final @NotNull T entity) {
+    return this.exclusive(entity.id(), () -> {
+      final Path path = this.filePath(entity.id());
+      final T current = this.internalFind(path);
+      if (current == null) {
+        this.store(path, entity, this.serialize(entity));
+      }
+      return current;
+    });
+  }
+
+  @Override
+  public @NotNull T computeIfAbsentSync(final @NotNull String id, final @NotNull Function<? super String, ? extends @NotNull T> factory) {
+    return this.exclusive(id, () -> {
+      final Path path = this.filePath(id);
+      final T current = this.internalFind(path);
+      if (current != null) {
+        return current;
+      }
+      final T created = checkId(id, factory.apply(id));
+      this.storeVersioned(path, created, 1);
+      return created;
+    });
+  }
+
+  @Override
+  public @Nullable T mergeSync(final @NotNull T entity, final @NotNull BiFunction<? super @NotNull T, ? super @NotNull T, ? extends @Nullable T> remapping) {
+    return this.computeSync(entity.id(), (id, current) -> current == null ? entity : remapping.apply(current, entity));
+  }
+
+  /**
+   * Runs {@code action} holding the write lock of the id's stripe in this JVM and the matching
+   * byte range of the directory lock file, so read-modify-write cycles are also exclusive
+   * against other repositories and processes sharing the folder.
+   */
+  private <R> R exclusive(final @NotNull String id, final @NotNull Supplier<R> action) {
+    return this.writeLocked(id, () -> this.lockFile.lock(id, action));
+  }
+
+  private <R> R readLocked(final @NotNull String id, final @NotNull Supplier<R> action) {
+    return locked(this.locks.lock(id).readLock(), action);
+  }
+
+  // Events published under the lock are delivered once it is released.
+  private <R> R writeLocked(final @NotNull String id, final @NotNull Supplier<R> action) {
+    return this.changes().staged(() -> locked(this.locks.lock(id).writeLock(), action));
+  }
+
+  private static <R> R locked(final @NotNull Lock lock, final @NotNull Supplier<R> action) {
+    lock.lock();
+    try {
+      return action.get();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static <T extends Identity<String>> @NotNull T checkId(final @NotNull String id, final @NotNull T entity) {
+    if (!id.equals(entity.id())) {
+      throw new IllegalArgumentException("Computed entity id " + entity.id() + " does not match key " + id);
+    }
+    return entity;
+  }
+
+  @Override
+  public @NotNull CompletableFuture<@Nullable T> findAsync(final @NotNull String id) {
+    return this.admit(Operation.FIND, null, cancellation -> this.findStages(id, cancellation));
+  }
+
+  @Override
+  public @NotNull CompletableFuture<@Nullable T> findAsync(final @NotNull String id, final @NotNull Duration timeout) {
+    return this.admit(Operation.FIND, timeout, cancellation -> this.findStages(id, cancellation));
+  }
+
+  @Override
+  public <C extends @NotNull Collection<@NotNull T>> @NotNull CompletableFuture<C> findAllAsync(final @NotNull IntFunction<C> factory) {
+    return this.admit(Operation.FIND_ALL, null, cancellation -> this.findAllStages(factory, cancellation));
+  }
+
+  @Override
+  public <C extends @NotNull Collection<@NotNull T>> @NotNull CompletableFuture<C> findAllAsync(final @NotNull IntFunction<C> factory, final @NotNull Duration timeout) {
+    return this.admit(Operation.FIND_ALL, timeout, cancellation -> this.findAllStages(factory, cancellation));
+  }
+
+  @Override
+  public @NotNull CompletableFuture<@NotNull T> saveAsync(final @NotNull T entity) {
+    return this.admit(Operation.SAVE, null, cancellation -> this.saveStages(entity, cancellation));
+  }
+
+  @Override
+  public @NotNull CompletableFuture<@NotNull T> saveAsync(final @NotNull T entity, final @NotNull Duration timeout) {
+    return this.admit(Operation.SAVE, timeout, cancellation -> this.saveStages(entity, cancellation));
+  }
+
+  private @NotNull CompletableFuture<@Nullable T> findStages(final @NotNull String id, final @NotNull Cancellation cancellation) {
+    return this.readStages(this.filePath(id), Operation.FIND, cancellation);
+  }
+
+  private @NotNull CompletableFuture<@Nullable T> readStages(final @NotNull Path path, final @NotNull Operation operation, final @NotNull Cancellation cancellation) {
+    return CompletableFuture.supplyAsync(() -> {
+        cancellation.checkpoint();
+        return this.readLocked(this.id(path), () -> this.readBytes(path));
+      }, this.executor(operation))
+      .thenApplyAsync(bytes -> {
+        cancellation.checkpoint();
+        return bytes == null ? null : this.deserialize(path, bytes);
+      }, this.computeExecutor(operation));
+  }
+
+  // One admitted findAll reads its files in batches no larger than the limiter's capacity, so
+  // it never holds more reads in flight than the limiter would admit on its own.
+  private <C extends @NotNull Collection<@NotNull T>> @NotNull CompletableFuture<C> findAllStages(final @NotNull IntFunction<C> factory, final @NotNull Cancellation cancellation) {
+    return CompletableFuture.supplyAsync(() -> {
+        cancellation.checkpoint();
+        return this.listFiles();
+      }, this.executor(Operation.FIND_ALL))
+      .thenCompose(paths -> {
+        final int batchSize = Math.min(this.limiter().maxInFlight(), FIND_ALL_BATCH_SIZE);
+        return this.readBatches(paths, 0, batchSize, factory.apply(paths.size()), cancellation);
+      });
+  }
+
+  private <C extends @NotNull Collection<@NotNull T>> @NotNull CompletableFuture<C> readBatches(final @NotNull List<Path> paths, final int from, final int batchSize, final @NotNull C collection, final @NotNull Cancellation cancellation) {
+    if (from >= paths.size()) {
+      return CompletableFuture.completedFuture(collection);
+    }
+    final int to = Math.min(paths.size(), from + batchSize);
+    final List<CompletableFuture<@Nullable T>> futures = new ArrayList<>(to - from);
+    for (final Path path : paths.subList(from, to)) {
+      futures.add(this.readStages(path, Operation.FIND_ALL, cancellation));
+    }
+    return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+      .thenCompose(ignored -> {
+        for (final CompletableFuture<@Nullable T> future : futures) {
+          final T entity = future.join();
+          if (entity != null) {
+            collection.add(entity);
+          }
+        }
+        return this.readBatches(paths, to, batchSize, collection, cancellation);
+      });
+  }
+
+  private @NotNull CompletableFuture<@NotNull T> saveStages(final @NotNull T entity, final @NotNull Cancellation cancellation) {
     final Path path = this.filePath(entity.id());
+    return CompletableFuture.supplyAsync(() -> {
+        cancellation.checkpoint();
+        return this.serialize(entity);
+      }, this.computeExecutor(Operation.SAVE))
+      .thenApplyAsync(jsonObject -> {
+        cancellation.checkpoint();
+        return this.writeLocked(entity.id(), () -> {
+          this.store(path, entity, jsonObject);
+          return entity;
+        });
+      }, this.executor(Operation.SAVE));
+  }
+
+  private @NotNull List<Path> listFiles() {
+    final List<Path> paths = new ArrayList<>();
+    try (final DirectoryStream<Path> directoryStream = Files.newDirectoryStream(this.folderPath, "*" + FILE_EXTENSION)) {
+      directoryStream.forEach(paths::add);
+    } catch (final IOException e) {
+      throw new RepositoryException("Failed to find all entities", e);
+    }
+    return paths;
+  }
+
+  private @NotNull JsonObject serialize(final @NotNull T entity) {
+    final team.emptyte.storage.json.serialization.JsonWriter gsonJsonWriter = new team.emptyte.storage.json.serialization.JsonWriter();
+    this.typeSerializer.serialize(entity, gsonJsonWriter);
+    final JsonObject jsonObject = gsonJsonWriter.end();
+    if (entity.version() > 0) {
+      jsonObject.addProperty(VERSION_FIELD, entity.version());
+    }
+    return jsonObject;
+  }
+
+  // Writes to a sibling temporary file and renames it over the target, so readers in this or
+  // another process never observe a partially written entity. Each write gets a temporary file
+  // of its own, as plain saves from other processes do not take the folder's lock file.
+  private void write(final @NotNull Path path, final @NotNull JsonObject jsonObject) {
+    final Path tempPath = path.resolveSibling(path.getFileName() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + TEMP_EXTENSION);
     try {
-      if (Files.exists(path)) {
-        Files.createFile(path);
-      }
-      final team.emptyte.storage.json.serialization.JsonWriter gsonJsonWriter = new team.emptyte.storage.json.serialization.JsonWriter();
-      this.typeSerializer.serialize(entity, gsonJsonWriter);
-      final JsonObject jsonObject = gsonJsonWriter.end();
-      try (final JsonWriter jsonWriter = new JsonWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+      try (final JsonWriter jsonWriter = new JsonWriter(Files.newBufferedWriter(tempPath, StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE))) {
         jsonWriter.setSerializeNulls(this.serializeNulls);
         if (this.prettyPrinting) {
           jsonWriter.setIndent("  ");
         }
         TypeAdapters.JSON_ELEMENT.write(jsonWriter, jsonObject);
-        return entity;
+      }
+      try {
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (final AtomicMoveNotSupportedException e) {
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
       }
     } catch (final IOException e) {
+      try {
+        Files.deleteIfExists(tempPath);
+      } catch (final IOException suppressed) {
+        e.addSuppressed(suppressed);
+      }
       throw new RepositoryException("Failed to create file: " + path, e);
     }
   }
 
+  // Callers hold the write lock of the entity's stripe, keeping index changes and events in
+  // write order.
+  private void store(final @NotNull Path path, final @NotNull T entity, final @NotNull JsonObject jsonObject) {
+    this.ensureIndexesLoaded();
+    this.write(path, jsonObject);
+    this.ids.add(entity.id());
+    for (final GsonIndexLog<T> indexLog : this.indexLogs) {
+      final String key = indexLog.index().key(entity);
+      if (indexLog.index().put(entity.id(), key)) {
+        indexLog.append(entity.id(), key);
+      }
+    }
+    this.changes().saved(entity);
+  }
+
+  // Restores the entity's version if it could not be written, so a retry sees the old one.
+  private void storeVersioned(final @NotNull Path path, final @NotNull T entity, final long version) {
+    final long previousVersion = entity.version();
+    entity.version(version);
+    try {
+      this.store(path, entity, this.serialize(entity));
+    } catch (final RuntimeException e) {
+      entity.version(previousVersion);
+      throw e;
+    }
+  }
+
+  private boolean remove(final @NotNull Path path) {
+    return this.remove(path, null);
+  }
+
+  private boolean remove(final @NotNull Path path, final @Nullable T entity) {
+    this.ensureIndexesLoaded();
+    if (!this.delete(path)) {
+      return false;
+    }
+    final String id = this.id(path);
+    this.ids.remove(id);
+    for (final GsonIndexLog<T> indexLog : this.indexLogs) {
+      if (indexLog.index().remove(id)) {
+        indexLog.append(id, null);
+      }
+    }
+    this.changes().deleted(id, entity);
+    return true;
+  }
+
+  private boolean delete(final @NotNull Path path) {
+    try {
+      return Files.deleteIfExists(path);
+    } catch (final IOException e) {
+      throw new RepositoryException("Failed to delete file: " + path, e);
+    }
+  }
+
   private @Nullable T internalFind(final @NotNull String id) {
     return this.internalFind(this.filePath(id));
   }
 
   private @Nullable T internalFind(final @NotNull Path path) {
-    if (!Files.exists(path)) {
+    if (this.bufferPool != null) {
+      return this.pooledFind(path, this.bufferPool);
+    }
+    final byte[] bytes = this.readBytes(path);
+    if (bytes == null) {
       return null;
     }
-    try (final JsonReader jsonReader = new JsonReader(Files.newBufferedReader(path))) {
+    return this.deserialize(path, bytes);
+  }
+
+  // Reads files that fit in a pooled buffer without allocating a buffer of their own; the rest
+  // of a bigger file is read from the same stream and appended to the pooled prefix.
+  private @Nullable T pooledFind(final @NotNull Path path, final @NotNull BufferPool bufferPool) {
+    final byte[] buffer = bufferPool.acquire();
+    try {
+      final int length;
+      try (final InputStream input = Files.newInputStream(path)) {
+        length = input.readNBytes(buffer, 0, buffer.length);
+        if (length == buffer.length) {
+          final byte[] rest = input.readAllBytes();
+          if (rest.length > 0) {
+            final byte[] bytes = Arrays.copyOf(buffer, length + rest.length);
+            System.arraycopy(rest, 0, bytes, length, rest.length);
+            return this.deserialize(path, bytes);
+          }
+        }
+      } catch (final NoSuchFileException e) {
+        return null;
+      } catch (final IOException e) {
+        throw new RepositoryException("Failed to read entity from file: " + path, e);
+      }
+      return this.deserialize(path, buffer, 0, length);
+    } finally {
+      bufferPool.release(buffer);
+    }
+  }
+
+  private byte @Nullable [] readBytes(final @NotNull Path path) {
+    try {
+      return Files.readAllBytes(path);
+    } catch (final NoSuchFileException e) {
+      return null;
+    } catch (final IOException e) {
+      throw new RepositoryException("Failed to read entity from file: " + path, e);
+    }
+  }
+
+  private @NotNull T deserialize(final @NotNull Path path, final byte @NotNull [] bytes) {
+    return this.deserialize(path, bytes, 0, bytes.length);
+  }
+
+  private @NotNull T deserialize(final @NotNull Path path, final byte @NotNull [] bytes, final int offset, final int length) {
+    // decoded in one pass, sparing the 8 KiB byte buffer an InputStreamReader allocates per file
+    try (final JsonReader jsonReader = new JsonReader(new StringReader(new String(bytes, offset, length, StandardCharsets.UTF_8)))) {
       final JsonObject jsonObject = new JsonObject();
       jsonReader.beginObject();
       while (jsonReader.hasNext()) {
         jsonObject.add(jsonReader.nextName(), TypeAdapters.JSON_ELEMENT.read(jsonReader));
       }
       jsonReader.endObject();
-      return this.typeSerializer.deserialize(new team.emptyte.storage.json.serialization.JsonReader(jsonObject));
+      final JsonElement version = jsonObject.remove(VERSION_FIELD);
+      final T entity = this.typeSerializer.deserialize(new team.emptyte.storage.json.serialization.JsonReader(jsonObject));
+      if (version != null) {
+        entity.version(version.getAsLong());
+      }
+      return entity;
     } catch (final IOException e) {
       throw new RepositoryException("Failed to deserialize entity from file: " + path, e);
     }
   }
+
+  /**
+   * Compacts the index logs and releases the lock file. Close the repository only once it is
+   * drained; later calls do nothing.
+   */
+  @Override
+  public void close() {
+    if (!this.closed.compareAndSet(false, true)) {
+      return;
+    }
+    this.lockFile.release();
+    if (!this.indexesLoaded) {
+      return;
+    }
+    for (final GsonIndexLog<T> indexLog : this.indexLogs) {
+      indexLog.compact();
+    }
+  }
+
+  private record Modified(@NotNull String id, @NotNull FileTime time) {
+  }
 }
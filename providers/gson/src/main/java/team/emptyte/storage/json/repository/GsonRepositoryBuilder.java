@@ -29,18 +29,20 @@ import org.jetbrains.annotations.NotNull;
 import team.emptyte.storage.Identity;
 import team.emptyte.storage.repository.AsyncRepository;
 import team.emptyte.storage.repository.builder.RepositoryBuilder;
+import team.emptyte.storage.repository.concurrent.LockStripes;
 import team.emptyte.storage.serialization.TypeSerializer;
 
 import java.nio.file.Path;
 import java.util.Objects;
 import java.util.concurrent.Executor;
 
-public class GsonRepositoryBuilder<T extends Identity<String>> extends RepositoryBuilder<T, String> {
+public class GsonRepositoryBuilder<T extends Identity<String>> extends RepositoryBuilder<T, String, GsonRepositoryBuilder<T>> {
   private final Path folderPath;
   private final TypeSerializer<T, JsonObject> typeSerializer;
 
   private boolean serializeNulls = true;
   private boolean prettyPrinting = false;
+  private int lockStripes = 64;
 
   public GsonRepositoryBuilder(final @NotNull Path folderPath, final @NotNull TypeSerializer<T, JsonObject> typeSerializer) {
     this.typeSerializer = typeSerializer;
@@ -59,12 +61,29 @@ public class GsonRepositoryBuilder<T extends Identity<String>> extends Repositor
     return this;
   }
 
+  /**
+   * Sets how many read/write locks entity ids are spread across, rounded up to a power of two.
+   * Operations on the same id are always serialized; more stripes make unrelated ids less
+   * likely to share a lock.
+   */
+  @Contract("_ -> this")
+  public GsonRepositoryBuilder<T> lockStripes(final int lockStripes) {
+    if (lockStripes < 1) {
+      throw new IllegalArgumentException("Lock stripes must be positive: " + lockStripes);
+    }
+    this.lockStripes = lockStripes;
+    return this;
+  }
+
   @Override
-  public @NotNull AsyncRepository<T, String> buildAsync(final @NotNull Executor executor) {
+  public @NotNull AsyncRepository<T, String> buildAsync(final @NotNull Executor ioExecutor, final @NotNull Executor computeExecutor) {
     Objects.requireNonNull(this.folderPath, "Folder path cannot be null");
     Objects.requireNonNull(this.typeSerializer, "Type serializer cannot be null");
-    Objects.requireNonNull(executor, "Executor cannot be null");
+    Objects.requireNonNull(ioExecutor, "I/O executor cannot be null");
+    Objects.requireNonNull(computeExecutor, "Compute executor cannot be null");
 
-    return new GsonRepository<>(executor, this.folderPath, this.typeSerializer, this.serializeNulls, this.prettyPrinting);
+    final Executor scheduledIoExecutor = this.scheduled(ioExecutor);
+    final Executor scheduledComputeExecutor = computeExecutor == ioExecutor ? scheduledIoExecutor : this.scheduled(computeExecutor);
+    return new GsonRepository<>(scheduledIoExecutor, scheduledComputeExecutor, this.limiter(), LockStripes.of(this.lockStripes), this.indexes(), this.folderPath, this.typeSerializer, this.serializeNulls, this.prettyPrinting, this.bufferPool());
   }
 }
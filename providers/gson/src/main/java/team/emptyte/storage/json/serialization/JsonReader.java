@@ -23,6 +23,7 @@
  */
 package team.emptyte.storage.json.serialization;
 
+import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import org.jetbrains.annotations.NotNull;
@@ -57,6 +58,14 @@ public class JsonReader implements Reader<JsonObject> {
     this.jsonObject = jsonObject;
   }
 
+  /**
+   * Returns the value of the top-level {@code field}, the single access point subclasses can
+   * override to resolve fields lazily.
+   */
+  protected @Nullable JsonElement element(final @NotNull String field) {
+    return this.jsonObject.get(field);
+  }
+
   @Override
   public @NotNull JsonObject raw() {
     return this.jsonObject;
@@ -64,12 +73,12 @@ public class JsonReader implements Reader<JsonObject> {
 
   @Override
   public @Nullable JsonObject readThis(final @NotNull String field) {
-    return this.jsonObject.getAsJsonObject(field);
+    return (JsonObject) this.element(field);
   }
 
   @Override
   public @Nullable String readString(final @NotNull String field) {
-    final var element = this.jsonObject.get(field);
+    final var element = this.element(field);
     if (element == null) {
       return null;
     }
@@ -78,7 +87,7 @@ public class JsonReader implements Reader<JsonObject> {
 
   @Override
   public @Nullable Number readNumber(final @NotNull String field) {
-    final var element = this.jsonObject.get(field);
+    final var element = this.element(field);
     if (element == null) {
       return null;
     }
@@ -86,10 +95,10 @@ public class JsonReader implements Reader<JsonObject> {
   }
 
   @Override
-  public boolean readBoolean(final @NotNull String field) {
-    final var element = this.jsonObject.get(field);
-    if (element == null) {
-      return false;
+  public @Nullable Boolean readNullableBoolean(final @NotNull String field) {
+    final var element = this.element(field);
+    if (element == null || element.isJsonNull()) {
+      return null;
     }
     return element.getAsBoolean();
   }
@@ -101,7 +110,7 @@ public class JsonReader implements Reader<JsonObject> {
     final @NotNull Class<T> clazz,
     final @NotNull Function<Integer, C> collectionFactory
   ) {
-    final var element = this.jsonObject.get(field);
+    final var element = this.element(field);
     if (element == null) {
       return null;
     }
@@ -119,7 +128,7 @@ public class JsonReader implements Reader<JsonObject> {
     final @NotNull String field,
     final @NotNull TypeSerializer<T, JsonObject> typeSerializer
   ) {
-    final JsonElement element = this.jsonObject.get(field);
+    final JsonElement element = this.element(field);
     if (element == null) {
       return null;
     }
@@ -132,7 +141,7 @@ public class JsonReader implements Reader<JsonObject> {
     final @NotNull Function<V, K> keyParser,
     final @NotNull TypeSerializer<V, JsonObject> typeSerializer
   ) {
-    final var element = this.jsonObject.get(field);
+    final var element = this.element(field);
     if (element == null) {
       return null;
     }
@@ -151,7 +160,7 @@ public class JsonReader implements Reader<JsonObject> {
     final @NotNull Function<Integer, C> collectionFactory,
     final @NotNull TypeSerializer<T, JsonObject> typeSerializer
   ) {
-    final var array = this.jsonObject.getAsJsonArray(field);
+    final var array = (JsonArray) this.element(field);
     if (array == null) {
       return null;
     }
@@ -168,7 +177,7 @@ public class JsonReader implements Reader<JsonObject> {
     final @NotNull Function<JsonElement, T> reader,
     final @NotNull Function<Integer, C> collectionFactory
   ) {
-    final var array = this.jsonObject.getAsJsonArray(field);
+    final var array = (JsonArray) this.element(field);
     if (array == null) {
       return null;
     }
@@ -185,7 +194,7 @@ public class JsonReader implements Reader<JsonObject> {
     final @NotNull Function<JsonElement, T> reader,
     final @NotNull Function<Integer, T[]> arrayFactory
   ) {
-    final var array = this.jsonObject.getAsJsonArray(field);
+    final var array = (JsonArray) this.element(field);
     if (array == null) {
       return null;
     }
@@ -200,7 +209,7 @@ public class JsonReader implements Reader<JsonObject> {
 
   @Override
   public @Nullable UUID readDetailedUuid(final @NotNull String field) {
-    final var element = this.jsonObject.get(field);
+    final var element = this.element(field);
     if (!(element instanceof JsonObject serializedUuid)) {
       return null;
     }
@@ -212,7 +221,7 @@ public class JsonReader implements Reader<JsonObject> {
     final @NotNull String field,
     final @NotNull Function<Integer, C> factory
   ) {
-    final var array = this.jsonObject.getAsJsonArray(field);
+    final var array = (JsonArray) this.element(field);
     if (array == null) {
       return null;
     }
@@ -233,7 +242,7 @@ public class JsonReader implements Reader<JsonObject> {
     final @NotNull Function<JsonElement, V> valueParser,
     final @NotNull Function<Integer, M> mapFactory
   ) {
-    final var element = this.jsonObject.get(field);
+    final var element = this.element(field);
     if (!(element instanceof JsonObject object)) {
       return null;
     }
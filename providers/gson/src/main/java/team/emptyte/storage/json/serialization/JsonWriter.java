@@ -38,8 +38,6 @@ import java.util.UUID;
 import java.util.function.Function;
 
 public class JsonWriter implements Writer<JsonObject> {
-  private final static JsonObject EMPTY_JSON_OBJECT = new JsonObject();
-
   private final JsonObject jsonObject;
 
   public JsonWriter(final @NotNull JsonObject jsonObject) {
@@ -47,7 +45,7 @@ public class JsonWriter implements Writer<JsonObject> {
   }
 
   public JsonWriter() {
-    this(EMPTY_JSON_OBJECT);
+    this(new JsonObject());
   }
 
   @Override
@@ -0,0 +1,142 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.json.serialization;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.internal.bind.TypeAdapters;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.emptyte.storage.exception.serialization.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A {@link JsonReader} over a serialized JSON object that only builds the top-level fields it
+ * is asked for. Other values are skipped by the streaming parser without allocating a tree, so
+ * reading a couple of fields from a large entity costs little more than scanning its bytes.
+ *
+ * <p>Fields are found by scanning forward, which suits serializers that read fields in the
+ * order they were written; asking for a field that was already skipped restarts the scan.</p>
+ */
+public final class LazyJsonReader extends JsonReader {
+  private final byte[] bytes;
+  private final Set<String> skipped = new HashSet<>();
+  private com.google.gson.stream.@Nullable JsonReader stream;
+  private boolean complete;
+
+  public LazyJsonReader(final byte @NotNull [] bytes) {
+    super(new JsonObject());
+    this.bytes = bytes;
+  }
+
+  @Override
+  protected @Nullable JsonElement element(final @NotNull String field) {
+    final JsonElement parsed = this.jsonObject.get(field);
+    if (parsed != null) {
+      return parsed;
+    }
+    try {
+      if (this.skipped.contains(field)) {
+        this.restart();
+      } else if (this.complete) {
+        return null;
+      }
+      return this.scan(field);
+    } catch (final IOException | IllegalStateException e) {
+      throw new SerializationException("Failed to read field '" + field + "' from JSON object", e);
+    }
+  }
+
+  /**
+   * Parses every remaining field, returning the fully built object.
+   */
+  @Override
+  public @NotNull JsonObject raw() {
+    if (!this.complete || !this.skipped.isEmpty()) {
+      try {
+        if (!this.skipped.isEmpty()) {
+          this.restart();
+        }
+        this.scan(null);
+      } catch (final IOException | IllegalStateException e) {
+        throw new SerializationException("Failed to read JSON object", e);
+      }
+    }
+    return this.jsonObject;
+  }
+
+  // Advances to {@code field}, building it and skipping the fields before it; a null field
+  // builds every remaining value.
+  private @Nullable JsonElement scan(final @Nullable String field) throws IOException {
+    final com.google.gson.stream.JsonReader stream = this.stream();
+    while (stream.hasNext()) {
+      final String name = stream.nextName();
+      if (field == null || name.equals(field)) {
+        if (this.jsonObject.has(name)) {
+          stream.skipValue();
+          continue;
+        }
+        final JsonElement element = TypeAdapters.JSON_ELEMENT.read(stream);
+        this.skipped.remove(name);
+        this.jsonObject.add(name, element);
+        if (field != null) {
+          return element;
+        }
+      } else {
+        stream.skipValue();
+        if (!this.jsonObject.has(name)) {
+          this.skipped.add(name);
+        }
+      }
+    }
+    stream.endObject();
+    stream.close();
+    this.stream = null;
+    this.complete = true;
+    return null;
+  }
+
+  private com.google.gson.stream.@NotNull JsonReader stream() throws IOException {
+    if (this.stream == null) {
+      this.stream = new com.google.gson.stream.JsonReader(new InputStreamReader(new ByteArrayInputStream(this.bytes), StandardCharsets.UTF_8));
+      this.stream.beginObject();
+    }
+    return this.stream;
+  }
+
+  private void restart() throws IOException {
+    if (this.stream != null) {
+      this.stream.close();
+      this.stream = null;
+    }
+    this.skipped.clear();
+    this.complete = false;
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.test;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import team.emptyte.storage.json.repository.GsonRepository;
+import team.emptyte.storage.repository.Repository;
+import team.emptyte.storage.test.profile.Profile;
+import team.emptyte.storage.test.profile.ProfileTypeSerializer;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneratedTypeSerializerTest {
+  @TempDir
+  private Path tempDir;
+
+  private Repository<Profile, String> repository;
+
+  @BeforeEach
+  void setUp() {
+    this.repository = GsonRepository.builder(this.tempDir, ProfileTypeSerializer.instance())
+      .buildAsync(Runnable::run);
+  }
+
+  @Test
+  @DisplayName("generated serializers should round-trip fields, enums, nested records and collections")
+  void generatedSerializer_ShouldRoundTripEntity() {
+    final UUID guild = UUID.randomUUID();
+    final Profile profile = new Profile(
+      "profile-1",
+      "Jane",
+      7,
+      1_500L,
+      true,
+      Profile.Rank.ADMIN,
+      guild,
+      new Profile.Stats(12, 1.5, true),
+      List.of("pvp", "builder"),
+      List.of(new Profile.Stats(1, 0.5, false), new Profile.Stats(2, 1.0, true))
+    );
+    this.repository.saveSync(profile);
+
+    final Profile found = this.repository.findSync("profile-1");
+    assertNotNull(found);
+    assertEquals("profile-1", found.id());
+    assertEquals("Jane", found.name());
+    assertEquals(1_500L, found.getBalance());
+    assertEquals(Boolean.TRUE, found.verified());
+    assertEquals(Profile.Rank.ADMIN, found.rank());
+    assertEquals(guild, found.guild());
+    assertEquals(new Profile.Stats(12, 1.5, true), found.stats());
+    assertEquals(List.of("pvp", "builder"), found.tags());
+    assertEquals(List.of(new Profile.Stats(1, 0.5, false), new Profile.Stats(2, 1.0, true)), found.history());
+  }
+
+  @Test
+  @DisplayName("generated serializers should keep absent nullable fields as null")
+  void generatedSerializer_ShouldKeepNullFields() {
+    this.repository.saveSync(new Profile("profile-2", "John", 1, null, null, null, null, null, null, null));
+
+    final Profile found = this.repository.findSync("profile-2");
+    assertNotNull(found);
+    assertNull(found.getBalance());
+    assertNull(found.verified());
+    assertNull(found.rank());
+    assertNull(found.stats());
+    assertNull(found.tags());
+  }
+}
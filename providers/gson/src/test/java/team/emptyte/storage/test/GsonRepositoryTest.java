@@ -23,19 +23,46 @@
  */
 package team.emptyte.storage.test;
 
+import com.google.gson.JsonObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import team.emptyte.storage.exception.repository.VersionConflictException;
 import team.emptyte.storage.json.repository.GsonRepository;
+import team.emptyte.storage.repository.AsyncRepository;
 import team.emptyte.storage.repository.Repository;
+import team.emptyte.storage.repository.concurrent.OverflowPolicy;
+import team.emptyte.storage.repository.context.BufferPool;
+import team.emptyte.storage.repository.event.RepositoryEvent;
+import team.emptyte.storage.repository.event.Subscription;
+import team.emptyte.storage.repository.query.Cursor;
+import team.emptyte.storage.repository.query.Page;
+import team.emptyte.storage.serialization.Reader;
+import team.emptyte.storage.serialization.TypeSerializer;
+import team.emptyte.storage.serialization.Writer;
 import team.emptyte.storage.test.user.User;
 import team.emptyte.storage.test.user.codec.UserTypeSerializer;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -72,4 +99,358 @@ class GsonRepositoryTest {
     final String content = Files.readString(expectedPath);
     assertTrue(content.contains("{\"id\":\"user-123\",\"name\":\"John Doe\"}"), "El contenido del archivo JSON debe contener la estructura esperada");
   }
+
+  @Test
+  @DisplayName("saveAsync and findAsync should pipeline through separate I/O and compute executors")
+  void asyncOperations_ShouldUseIoAndComputeExecutors() {
+    final AtomicInteger ioTasks = new AtomicInteger();
+    final AtomicInteger computeTasks = new AtomicInteger();
+    final AsyncRepository<User, String> repository = GsonRepository.builder(this.tempDir, UserTypeSerializer.INSTANCE)
+      .buildAsync(command -> {
+        ioTasks.incrementAndGet();
+        command.run();
+      }, command -> {
+        computeTasks.incrementAndGet();
+        command.run();
+      });
+
+    repository.saveAsync(new User("user-1", "John Doe")).join();
+    repository.saveAsync(new User("user-1", "Jane Doe")).join();
+    final User found = repository.findAsync("user-1").join();
+
+    assertNotNull(found);
+    assertEquals("Jane Doe", found.name());
+    assertEquals(3, ioTasks.get());
+    assertEquals(3, computeTasks.get());
+  }
+
+  @Test
+  @DisplayName("findAllAsync should read files in batches no larger than the in-flight limit")
+  void findAllAsync_ShouldReadInBoundedBatches() {
+    IntStream.range(0, 5).forEach(i -> this.repository.saveSync(new User("user-" + i, "User " + i)));
+    final Queue<Runnable> pending = new ArrayDeque<>();
+    final AsyncRepository<User, String> repository = GsonRepository.builder(this.tempDir, UserTypeSerializer.INSTANCE)
+      .maxInFlight(2, OverflowPolicy.FAIL_FAST)
+      .buildAsync(pending::add);
+
+    final CompletableFuture<List<User>> all = repository.findAllAsync(ArrayList::new);
+    int mostPending = 0;
+    while (!pending.isEmpty()) {
+      mostPending = Math.max(mostPending, pending.size());
+      pending.remove().run();
+    }
+
+    assertEquals(5, all.join().size());
+    assertEquals(2, mostPending);
+  }
+
+  @Test
+  @DisplayName("concurrent computeSync calls on the same id should not lose updates")
+  void computeSync_ShouldApplyConcurrentUpdatesAtomically() throws InterruptedException {
+    this.repository.saveSync(new User("user-1", ""));
+    final Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> {
+        for (int j = 0; j < 25; j++) {
+          this.repository.computeSync("user-1", (id, user) -> new User(id, user.name() + "x"));
+        }
+      });
+      threads[i].start();
+    }
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    final User found = this.repository.findSync("user-1");
+    assertNotNull(found);
+    assertEquals(100, found.name().length());
+    assertNull(this.repository.computeSync("user-1", (id, user) -> null));
+    assertFalse(this.repository.exists("user-1"));
+  }
+
+  @Test
+  @DisplayName("concurrent saves on shared and distinct ids should never expose a torn file")
+  void saveSync_ShouldStayConsistentUnderConcurrentWriters() throws InterruptedException {
+    this.repository.saveSync(new User("user-shared", "writer-0"));
+    final Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+    final List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      final String writer = "writer-" + i;
+      threads.add(new Thread(() -> {
+        try {
+          for (int j = 0; j < 50; j++) {
+            this.repository.saveSync(new User("user-shared", writer));
+            this.repository.saveSync(new User("user-" + writer, writer + "-" + j));
+          }
+        } catch (final Throwable throwable) {
+          failures.add(throwable);
+        }
+      }));
+    }
+    threads.add(new Thread(() -> {
+      try {
+        for (int j = 0; j < 200; j++) {
+          final User found = this.repository.findSync("user-shared");
+          assertNotNull(found);
+          assertTrue(found.name().startsWith("writer-"));
+        }
+      } catch (final Throwable throwable) {
+        failures.add(throwable);
+      }
+    }));
+    threads.forEach(Thread::start);
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    assertTrue(failures.isEmpty(), () -> "Concurrent access failed: " + failures);
+    for (int i = 0; i < 4; i++) {
+      assertEquals("writer-" + i + "-49", this.repository.findSync("user-writer-" + i).name());
+    }
+  }
+
+  @Test
+  @DisplayName("saveIfVersionSync should advance the version and reject stale writers")
+  void saveIfVersionSync_ShouldRejectStaleVersion() {
+    final User created = this.repository.saveIfVersionSync(new User("user-1", "John Doe"), 0);
+    assertEquals(1, created.version());
+
+    final User found = this.repository.findSync("user-1");
+    assertNotNull(found);
+    assertEquals(1, found.version());
+    this.repository.saveIfVersionSync(new User("user-1", "Jane Doe"), found.version());
+
+    final VersionConflictException exception = assertThrows(VersionConflictException.class,
+      () -> this.repository.saveIfVersionSync(new User("user-1", "Stale"), found.version()));
+    assertEquals(2, exception.actualVersion());
+    assertEquals("Jane Doe", this.repository.findSync("user-1").name());
+  }
+
+  @Test
+  @DisplayName("saveIfVersionSync should leave the entity's version untouched when the write fails")
+  void saveIfVersionSync_ShouldRollBackVersionOnFailure() {
+    final Repository<User, String> repository = GsonRepository.builder(this.tempDir, new TypeSerializer<User, JsonObject>() {
+      @Override
+      public void serialize(final User object, final Writer<JsonObject> writer) {
+        if (object.name().equals("broken")) {
+          throw new IllegalStateException("Cannot serialize");
+        }
+        UserTypeSerializer.INSTANCE.serialize(object, writer);
+      }
+
+      @Override
+      public User deserialize(final Reader<JsonObject> reader) {
+        return UserTypeSerializer.INSTANCE.deserialize(reader);
+      }
+    }).buildAsync(Runnable::run);
+    repository.saveIfVersionSync(new User("user-1", "John Doe"), 0);
+
+    final User broken = new User("user-1", "broken");
+    broken.version(1);
+    assertThrows(RuntimeException.class, () -> repository.saveIfVersionSync(broken, 1));
+    assertEquals(1, broken.version());
+    assertThrows(RuntimeException.class, () -> repository.computeSync("user-1", (id, user) -> broken));
+    assertEquals(1, broken.version());
+    assertEquals("John Doe", repository.findSync("user-1").name());
+  }
+
+  @Test
+  @DisplayName("plain saves from repositories sharing a folder should not collide on temporary files")
+  void saveSync_ShouldUseOwnTemporaryFileAcrossRepositories() throws Exception {
+    final Repository<User, String> other = GsonRepository.builder(this.tempDir, UserTypeSerializer.INSTANCE)
+      .buildAsync(Runnable::run);
+    final Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+    final Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      final Repository<User, String> repository = i % 2 == 0 ? this.repository : other;
+      final String writer = "writer-" + i;
+      threads[i] = new Thread(() -> {
+        try {
+          for (int j = 0; j < 500; j++) {
+            repository.saveSync(new User("user-1", writer));
+          }
+        } catch (final Throwable throwable) {
+          failures.add(throwable);
+        }
+      });
+      threads[i].start();
+    }
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+    ((AutoCloseable) other).close();
+
+    assertTrue(failures.isEmpty(), () -> "Concurrent saves failed: " + failures);
+    assertTrue(this.repository.findSync("user-1").name().startsWith("writer-"));
+    try (final Stream<Path> files = Files.list(this.tempDir)) {
+      assertTrue(files.noneMatch(file -> file.getFileName().toString().endsWith(".tmp")));
+    }
+  }
+
+  @Test
+  @DisplayName("repositories sharing a folder should serialize their conditional writes")
+  void computeSync_ShouldShareFolderLockAcrossRepositories() throws Exception {
+    final Repository<User, String> other = GsonRepository.builder(this.tempDir, UserTypeSerializer.INSTANCE)
+      .buildAsync(Runnable::run);
+    this.repository.saveSync(new User("user-1", ""));
+    final Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      final Repository<User, String> repository = i % 2 == 0 ? this.repository : other;
+      threads[i] = new Thread(() -> {
+        for (int j = 0; j < 25; j++) {
+          repository.computeSync("user-1", (id, user) -> new User(id, user.name() + "x"));
+        }
+      });
+      threads[i].start();
+    }
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(100, this.repository.findSync("user-1").name().length());
+    ((AutoCloseable) other).close();
+    assertDoesNotThrow(() -> this.repository.computeSync("user-1", (id, user) -> new User(id, "done")));
+  }
+
+  @Test
+  @DisplayName("findByIndexSync should follow saves and deletes and survive a restart")
+  void findByIndexSync_ShouldUsePersistedIndex() {
+    final Repository<User, String> repository = GsonRepository.builder(this.tempDir, UserTypeSerializer.INSTANCE)
+      .index("name", User::name)
+      .buildAsync(Runnable::run);
+    assertFalse(Files.exists(this.tempDir.resolve(".index")));
+    repository.saveSync(new User("user-1", "John Doe"));
+    repository.saveSync(new User("user-2", "John Doe"));
+    repository.saveSync(new User("user-3", "Jane Doe"));
+    repository.saveSync(new User("user-3", "John Doe"));
+    repository.deleteSync("user-1");
+
+    final Repository<User, String> restarted = GsonRepository.builder(this.tempDir, UserTypeSerializer.INSTANCE)
+      .index("name", User::name)
+      .buildAsync(Runnable::run);
+    final List<User> found = restarted.findByIndexSync("name", "John Doe", ArrayList::new);
+
+    assertEquals(2, found.size());
+    assertTrue(restarted.findByIndexSync("name", "Jane Doe", ArrayList::new).isEmpty());
+    assertTrue(Files.exists(this.tempDir.resolve(".index").resolve("name.log")));
+    assertThrows(IllegalArgumentException.class, () -> restarted.findByIndexSync("guild", "x", ArrayList::new));
+  }
+
+  @Test
+  @DisplayName("findPageSync should walk every entity in id order with continuation cursors")
+  void findPageSync_ShouldPageInIdOrder() {
+    for (int i = 0; i < 7; i++) {
+      this.repository.saveSync(new User("user-" + i, "John Doe"));
+    }
+
+    final List<String> ids = new ArrayList<>();
+    Cursor<String> cursor = Cursor.first();
+    int pages = 0;
+    while (cursor != null) {
+      final Page<User, String> page = this.repository.findPageSync(cursor, 3);
+      page.entities().forEach(user -> ids.add(user.id()));
+      // cursors travel as tokens between requests
+      cursor = page.next() == null ? null : Cursor.parse(page.next().token(), id -> id);
+      pages++;
+    }
+
+    assertEquals(3, pages);
+    final Repository<User, String> restarted = GsonRepository.builder(this.tempDir, UserTypeSerializer.INSTANCE).buildAsync(Runnable::run);
+    assertEquals(7, restarted.findPageSync(Cursor.first(), 10).entities().size());
+    assertEquals(List.of("user-5", "user-6"), this.repository.findIdRangeSync("user-5", "user-7", ArrayList::new).stream().map(User::id).toList());
+    assertEquals(List.of("user-0", "user-1", "user-2", "user-3", "user-4", "user-5", "user-6"), ids);
+  }
+
+  @Test
+  @DisplayName("findProjectedSync should deserialize only the fields the projection reads")
+  void findProjectedSync_ShouldReadRequestedFields() {
+    final GsonRepository<User> repository = (GsonRepository<User>) this.repository;
+    final TypeSerializer<String, JsonObject> nameProjection = new TypeSerializer<>() {
+      @Override
+      public void serialize(final String object, final Writer<JsonObject> writer) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public String deserialize(final Reader<JsonObject> reader) {
+        return reader.readString("name") + "#" + reader.readString("id") + "#" + reader.readString("missing");
+      }
+    };
+    repository.saveSync(new User("user-1", "John Doe"));
+
+    assertEquals("John Doe#user-1#null", repository.findProjectedSync("user-1", nameProjection));
+    assertEquals("John Doe#user-1#null", repository.findProjectedAsync("user-1", nameProjection).join());
+    assertNull(repository.findProjectedSync("user-2", nameProjection));
+  }
+
+  @Test
+  @DisplayName("findByIdPrefixSync and findIdRangeSync should return matching ids in order")
+  void idScans_ShouldReturnMatchesInOrder() {
+    for (final String id : List.of("guild:2:member:1", "guild:1:member:2", "guild:1:member:1", "guild:10:member:1")) {
+      this.repository.saveSync(new User(id, "John Doe"));
+    }
+
+    final List<String> prefixed = this.repository.findByIdPrefixSync("guild:1:", ArrayList::new).stream().map(User::id).toList();
+    assertEquals(List.of("guild:1:member:1", "guild:1:member:2"), prefixed);
+
+    final List<String> ranged = this.repository.findIdRangeSync("guild:1:member:2", "guild:2:member:1", ArrayList::new).stream().map(User::id).toList();
+    assertEquals(List.of("guild:1:member:2"), ranged);
+  }
+
+  @Test
+  @DisplayName("countSync and idsSync should come from file names only")
+  void countAndIds_ShouldUseFileNames() throws IOException {
+    this.repository.saveSync(new User("user-1", "John Doe"));
+    this.repository.saveSync(new User("user-2", "Jane Doe"));
+    Files.writeString(this.tempDir.resolve("user-3.json"), "not json");
+
+    assertEquals(3, this.repository.countSync());
+    assertEquals(Set.of("user-1", "user-2", "user-3"), this.repository.idsSync(HashSet::new));
+  }
+
+  @Test
+  @DisplayName("recentlyModifiedIds should order ids by their files' modification times")
+  void recentlyModifiedIds_ShouldFollowFileTimes() throws IOException {
+    for (int i = 1; i <= 3; i++) {
+      this.repository.saveSync(new User("user-" + i, "Name " + i));
+    }
+    Files.setLastModifiedTime(this.tempDir.resolve("user-1.json"), FileTime.fromMillis(3000L));
+    Files.setLastModifiedTime(this.tempDir.resolve("user-2.json"), FileTime.fromMillis(1000L));
+    Files.setLastModifiedTime(this.tempDir.resolve("user-3.json"), FileTime.fromMillis(2000L));
+
+    final GsonRepository<User> repository = (GsonRepository<User>) this.repository;
+    assertEquals(List.of("user-1", "user-3", "user-2"), repository.recentlyModifiedIds(5));
+    assertEquals(List.of("user-1"), repository.recentlyModifiedIds(1));
+  }
+
+  @Test
+  @DisplayName("findAsync should read entities smaller and larger than a pooled buffer")
+  void findAsync_ShouldReadThroughBufferPool() {
+    final AsyncRepository<User, String> repository = GsonRepository.builder(this.tempDir, UserTypeSerializer.INSTANCE)
+      .bufferPool(BufferPool.of(64, 4))
+      .buildAsync(Runnable::run);
+
+    repository.saveSync(new User("user-1", "John"));
+    repository.saveSync(new User("user-2", "J".repeat(200)));
+
+    assertEquals("John", repository.findAsync("user-1").join().name());
+    assertEquals("J".repeat(200), repository.findAsync("user-2").join().name());
+    assertNull(repository.findAsync("user-3").join());
+  }
+
+  @Test
+  @DisplayName("file writes and deletes should be published to subscribers")
+  void subscribe_ShouldReceiveFileChanges() throws InterruptedException {
+    final BlockingQueue<RepositoryEvent<User, String>> events = new LinkedBlockingQueue<>();
+    final Subscription subscription = this.repository.subscribe(events::add);
+
+    this.repository.saveSync(new User("user-1", "John"));
+    this.repository.deleteSync("user-1");
+
+    assertEquals(RepositoryEvent.Type.SAVED, events.poll(5, TimeUnit.SECONDS).type());
+    final RepositoryEvent<User, String> deleted = events.poll(5, TimeUnit.SECONDS);
+    assertEquals(RepositoryEvent.Type.DELETED, deleted.type());
+    assertEquals("user-1", deleted.id());
+    subscription.close();
+  }
 }
@@ -0,0 +1,108 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.test.profile;
+
+import team.emptyte.storage.Identity;
+import team.emptyte.storage.serialization.annotation.GenerateSerializer;
+
+import java.util.List;
+import java.util.UUID;
+
+@GenerateSerializer
+public class Profile extends Identity<String> {
+  private final String name;
+  final int level;
+  private final Long balance;
+  private final Boolean verified;
+  private final Rank rank;
+  private final UUID guild;
+  private final Stats stats;
+  private final List<String> tags;
+  private final List<Stats> history;
+
+  public Profile(
+    final String id,
+    final String name,
+    final int level,
+    final Long balance,
+    final Boolean verified,
+    final Rank rank,
+    final UUID guild,
+    final Stats stats,
+    final List<String> tags,
+    final List<Stats> history
+  ) {
+    super(id);
+    this.name = name;
+    this.level = level;
+    this.balance = balance;
+    this.verified = verified;
+    this.rank = rank;
+    this.guild = guild;
+    this.stats = stats;
+    this.tags = tags;
+    this.history = history;
+  }
+
+  public String name() {
+    return this.name;
+  }
+
+  public Long getBalance() {
+    return this.balance;
+  }
+
+  public Boolean verified() {
+    return this.verified;
+  }
+
+  public Rank rank() {
+    return this.rank;
+  }
+
+  public UUID guild() {
+    return this.guild;
+  }
+
+  public Stats stats() {
+    return this.stats;
+  }
+
+  public List<String> tags() {
+    return this.tags;
+  }
+
+  public List<Stats> history() {
+    return this.history;
+  }
+
+  public enum Rank {
+    MEMBER,
+    ADMIN
+  }
+
+  @GenerateSerializer
+  public record Stats(int kills, double ratio, boolean online) {
+  }
+}
@@ -0,0 +1,393 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.memory.map;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+
+/**
+ * A concurrent map from primitive {@code long} keys to objects, using open addressing with
+ * linear probing so entries need no node objects and keys are never boxed.
+ *
+ * <p>Keys are spread over independently locked segments. Lookups first run under an optimistic
+ * {@link StampedLock} stamp and only take the read lock if a write to the same segment raced
+ * with them, so uncontended reads neither block nor allocate. Removals shift later entries
+ * back instead of leaving tombstones, keeping probe sequences short under churn.</p>
+ */
+public final class ConcurrentLongObjectMap<V> {
+  private static final float LOAD_FACTOR = 0.75F;
+  private static final int MIN_CAPACITY = 8;
+
+  private final Segment<V>[] segments;
+  private final int segmentShift;
+
+  public ConcurrentLongObjectMap() {
+    this(16, 64);
+  }
+
+  /**
+   * Creates a map spread over {@code concurrency} segments, rounded up to a power of two, and
+   * sized to hold {@code expectedSize} entries without resizing.
+   */
+  @SuppressWarnings("unchecked")
+  public ConcurrentLongObjectMap(final int expectedSize, final int concurrency) {
+    if (expectedSize < 0) {
+      throw new IllegalArgumentException("Expected size cannot be negative: " + expectedSize);
+    }
+    if (concurrency < 1) {
+      throw new IllegalArgumentException("Concurrency must be positive: " + concurrency);
+    }
+    final int segmentCount = concurrency == 1 ? 1 : Integer.highestOneBit(concurrency - 1) << 1;
+    this.segments = (Segment<V>[]) new Segment<?>[segmentCount];
+    this.segmentShift = 64 - Integer.numberOfTrailingZeros(segmentCount);
+    final int capacity = capacityFor(expectedSize / segmentCount + 1);
+    for (int i = 0; i < segmentCount; i++) {
+      this.segments[i] = new Segment<>(capacity);
+    }
+  }
+
+  public @Nullable V get(final long key) {
+    final long hash = hash(key);
+    final Segment<V> segment = this.segment(hash);
+    final long stamp = segment.tryOptimisticRead();
+    V value = segment.find(key, hash);
+    if (!segment.validate(stamp)) {
+      final long readStamp = segment.readLock();
+      try {
+        value = segment.find(key, hash);
+      } finally {
+        segment.unlockRead(readStamp);
+      }
+    }
+    return value;
+  }
+
+  public boolean containsKey(final long key) {
+    return this.get(key) != null;
+  }
+
+  /**
+   * Maps {@code key} to {@code value}, returning the value it replaced.
+   */
+  public @Nullable V put(final long key, final @NotNull V value) {
+    final long hash = hash(key);
+    final Segment<V> segment = this.segment(hash);
+    final long stamp = segment.writeLock();
+    try {
+      return segment.insert(key, hash, value);
+    } finally {
+      segment.unlockWrite(stamp);
+    }
+  }
+
+  public @Nullable V remove(final long key) {
+    final long hash = hash(key);
+    final Segment<V> segment = this.segment(hash);
+    final long stamp = segment.writeLock();
+    try {
+      return segment.delete(key, hash);
+    } finally {
+      segment.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Atomically replaces the value for {@code key} with the one {@code remapping} returns,
+   * removing it if that is {@code null}. The function runs while the key's segment is locked,
+   * so it must be short and must not touch this map.
+   */
+  public @Nullable V compute(final long key, final @NotNull Remapping<V> remapping) {
+    final long hash = hash(key);
+    final Segment<V> segment = this.segment(hash);
+    final long stamp = segment.writeLock();
+    try {
+      final V current = segment.find(key, hash);
+      final V updated = remapping.apply(key, current);
+      if (updated != null) {
+        segment.insert(key, hash, updated);
+      } else if (current != null) {
+        segment.delete(key, hash);
+      }
+      return updated;
+    } finally {
+      segment.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Returns the value for {@code key}, creating it with {@code factory} while the key's segment
+   * is locked if it is absent.
+   */
+  public @NotNull V computeIfAbsent(final long key, final @NotNull LongFunction<? extends @NotNull V> factory) {
+    final V existing = this.get(key);
+    if (existing != null) {
+      return existing;
+    }
+    final long hash = hash(key);
+    final Segment<V> segment = this.segment(hash);
+    final long stamp = segment.writeLock();
+    try {
+      final V current = segment.find(key, hash);
+      if (current != null) {
+        return current;
+      }
+      final V created = factory.apply(key);
+      segment.insert(key, hash, created);
+      return created;
+    } finally {
+      segment.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Returns the number of entries, which may be stale while other threads write.
+   */
+  public int size() {
+    int size = 0;
+    for (final Segment<V> segment : this.segments) {
+      final long stamp = segment.readLock();
+      try {
+        size += segment.size;
+      } finally {
+        segment.unlockRead(stamp);
+      }
+    }
+    return size;
+  }
+
+  public void clear() {
+    for (final Segment<V> segment : this.segments) {
+      final long stamp = segment.writeLock();
+      try {
+        segment.reset(MIN_CAPACITY);
+      } finally {
+        segment.unlockWrite(stamp);
+      }
+    }
+  }
+
+  /**
+   * Passes each key to {@code action}, one segment at a time. Keys written concurrently may or
+   * may not be seen.
+   */
+  public void forEachKey(final @NotNull LongConsumer action) {
+    for (final Segment<V> segment : this.segments) {
+      for (final long key : segment.keys()) {
+        action.accept(key);
+      }
+    }
+  }
+
+  /**
+   * Passes each value to {@code action}, one segment at a time. Values written concurrently may
+   * or may not be seen.
+   */
+  public void forEachValue(final @NotNull Consumer<? super V> action) {
+    for (final Segment<V> segment : this.segments) {
+      segment.values().forEach(action);
+    }
+  }
+
+  private @NotNull Segment<V> segment(final long hash) {
+    return this.segments.length == 1 ? this.segments[0] : this.segments[(int) (hash >>> this.segmentShift)];
+  }
+
+  private static int capacityFor(final int size) {
+    final int minimum = (int) Math.ceil(size / LOAD_FACTOR);
+    return Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, minimum - 1)) << 1);
+  }
+
+  // Stafford variant 13 of the SplitMix64 finalizer, spreading sequential ids across segments
+  // and slots alike.
+  private static long hash(final long key) {
+    long hash = key;
+    hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+    hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+    return hash ^ (hash >>> 31);
+  }
+
+  @FunctionalInterface
+  public interface Remapping<V> {
+    @Nullable V apply(final long key, final @Nullable V current);
+  }
+
+  private record Table(long @NotNull [] keys, Object @NotNull [] values) {
+  }
+
+  // Fields are only written under the write lock. Optimistic readers take one snapshot of the
+  // table, bound their probe by its length and discard whatever they saw if validation fails.
+  private static final class Segment<V> extends StampedLock {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private transient Table table;
+    private int size;
+    private int threshold;
+
+    private Segment(final int capacity) {
+      this.reset(capacity);
+    }
+
+    private void reset(final int capacity) {
+      this.table = new Table(new long[capacity], new Object[capacity]);
+      this.size = 0;
+      this.threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    @SuppressWarnings("unchecked")
+    private @Nullable V find(final long key, final long hash) {
+      final Table table = this.table;
+      final long[] keys = table.keys();
+      final Object[] values = table.values();
+      final int mask = values.length - 1;
+      for (int index = (int) hash & mask, probes = 0; probes <= mask; index = (index + 1) & mask, probes++) {
+        final Object value = values[index];
+        if (value == null) {
+          return null;
+        }
+        if (keys[index] == key) {
+          return (V) value;
+        }
+      }
+      return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private @Nullable V insert(final long key, final long hash, final @NotNull V value) {
+      final long[] keys = this.table.keys();
+      final Object[] values = this.table.values();
+      final int mask = values.length - 1;
+      int index = (int) hash & mask;
+      while (values[index] != null) {
+        if (keys[index] == key) {
+          final V previous = (V) values[index];
+          values[index] = value;
+          return previous;
+        }
+        index = (index + 1) & mask;
+      }
+      keys[index] = key;
+      values[index] = value;
+      if (++this.size > this.threshold) {
+        this.resize(values.length << 1);
+      }
+      return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private @Nullable V delete(final long key, final long hash) {
+      final long[] keys = this.table.keys();
+      final Object[] values = this.table.values();
+      final int mask = values.length - 1;
+      int index = (int) hash & mask;
+      while (values[index] != null && keys[index] != key) {
+        index = (index + 1) & mask;
+      }
+      final V previous = (V) values[index];
+      if (previous == null) {
+        return null;
+      }
+      values[index] = null;
+      this.size--;
+
+      // Shift back every later entry of the cluster whose home slot does not lie between the
+      // freed slot and its current one, so lookups never stop early at the hole.
+      int hole = index;
+      int next = (hole + 1) & mask;
+      while (values[next] != null) {
+        final int home = (int) hash(keys[next]) & mask;
+        final boolean reachable = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+        if (!reachable) {
+          keys[hole] = keys[next];
+          values[hole] = values[next];
+          values[next] = null;
+          hole = next;
+        }
+        next = (next + 1) & mask;
+      }
+      return previous;
+    }
+
+    private void resize(final int capacity) {
+      final long[] oldKeys = this.table.keys();
+      final Object[] oldValues = this.table.values();
+      final long[] keys = new long[capacity];
+      final Object[] values = new Object[capacity];
+      final int mask = capacity - 1;
+      for (int i = 0; i < oldValues.length; i++) {
+        if (oldValues[i] != null) {
+          int index = (int) hash(oldKeys[i]) & mask;
+          while (values[index] != null) {
+            index = (index + 1) & mask;
+          }
+          keys[index] = oldKeys[i];
+          values[index] = oldValues[i];
+        }
+      }
+      this.table = new Table(keys, values);
+      this.threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private long @NotNull [] keys() {
+      final long stamp = this.readLock();
+      try {
+        final long[] keys = new long[this.size];
+        final Object[] values = this.table.values();
+        int count = 0;
+        for (int i = 0; i < values.length; i++) {
+          if (values[i] != null) {
+            keys[count++] = this.table.keys()[i];
+          }
+        }
+        return keys;
+      } finally {
+        this.unlockRead(stamp);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private @NotNull List<V> values() {
+      final long stamp = this.readLock();
+      try {
+        final List<V> snapshot = new ArrayList<>(this.size);
+        for (final Object value : this.table.values()) {
+          if (value != null) {
+            snapshot.add((V) value);
+          }
+        }
+        return snapshot;
+      } finally {
+        this.unlockRead(stamp);
+      }
+    }
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.memory.repository;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.emptyte.storage.Identity;
+import team.emptyte.storage.exception.repository.VersionConflictException;
+import team.emptyte.storage.memory.map.ConcurrentLongObjectMap;
+import team.emptyte.storage.repository.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+/**
+ * An in-memory repository for entities with {@code long} ids, backed by a
+ * {@link ConcurrentLongObjectMap} so stored ids are never boxed.
+ *
+ * <p>The primitive overloads are the allocation-free path; the {@link Repository} methods
+ * taking a {@link Long} unbox and delegate to them.</p>
+ */
+public class LongRepository<T extends Identity<Long>> implements Repository<T, Long> {
+  private final ConcurrentLongObjectMap<T> entities;
+
+  private LongRepository(final @NotNull ConcurrentLongObjectMap<T> entities) {
+    this.entities = entities;
+  }
+
+  public static <T extends Identity<Long>> @NotNull LongRepository<T> create() {
+    return new LongRepository<>(new ConcurrentLongObjectMap<>());
+  }
+
+  /**
+   * Creates a repository sized for {@code expectedSize} entities, with its map split into
+   * {@code concurrency} independently locked segments.
+   */
+  public static <T extends Identity<Long>> @NotNull LongRepository<T> create(final int expectedSize, final int concurrency) {
+    return new LongRepository<>(new ConcurrentLongObjectMap<>(expectedSize, concurrency));
+  }
+
+  public boolean exists(final long id) {
+    return this.entities.containsKey(id);
+  }
+
+  public @Nullable T findSync(final long id) {
+    return this.entities.get(id);
+  }
+
+  public boolean deleteSync(final long id) {
+    return this.entities.remove(id) != null;
+  }
+
+  public @Nullable T deleteAndRetrieveSync(final long id) {
+    return this.entities.remove(id);
+  }
+
+  @Override
+  public boolean exists(final @NotNull Long id) {
+    return this.exists(id.longValue());
+  }
+
+  @Override
+  public @Nullable T findSync(final @NotNull Long id) {
+    return this.findSync(id.longValue());
+  }
+
+  @Override
+  public <C extends Collection<@NotNull T>> @NotNull C findAllSync(final @NotNull IntFunction<C> factory) {
+    final C collection = factory.apply(this.entities.size());
+    this.entities.forEachValue(collection::add);
+    return collection;
+  }
+
+  @Override
+  public @NotNull Stream<@NotNull T> stream() {
+    final List<T> entities = new ArrayList<>(this.entities.size());
+    this.entities.forEachValue(entities::add);
+    return entities.stream();
+  }
+
+  @Override
+  public @NotNull Stream<@NotNull Long> streamIds() {
+    final Stream.Builder<Long> ids = Stream.builder();
+    this.entities.forEachKey(ids::add);
+    return ids.build();
+  }
+
+  @Override
+  public long countSync() {
+    return this.entities.size();
+  }
+
+  @Override
+  public boolean deleteSync(final @NotNull Long id) {
+    return this.deleteSync(id.longValue());
+  }
+
+  @Override
+  public @Nullable T deleteAndRetrieveSync(final @NotNull Long id) {
+    return this.deleteAndRetrieveSync(id.longValue());
+  }
+
+  @Override
+  public void deleteAllSync() {
+    this.entities.clear();
+  }
+
+  @Override
+  public @NotNull T saveSync(final @NotNull T entity) {
+    this.entities.put(entity.id(), entity);
+    return entity;
+  }
+
+  @Override
+  public @NotNull T saveIfVersionSync(final @NotNull T entity, final long expectedVersion) {
+    final long previousVersion = entity.version();
+    try {
+      this.entities.compute(entity.id(), (id, current) -> {
+        final long actualVersion = current == null ? 0 : current.version();
+        if (actualVersion != expectedVersion) {
+          throw new VersionConflictException(id, expectedVersion, actualVersion);
+        }
+        entity.version(expectedVersion + 1);
+        return entity;
+      });
+    } catch (final RuntimeException e) {
+      entity.version(previousVersion);
+      throw e;
+    }
+    return entity;
+  }
+
+  @Override
+  public @Nullable T computeSync(final @NotNull Long id, final @NotNull BiFunction<? super Long, ? super @Nullable T, ? extends @Nullable T> remapping) {
+    return this.entities.compute(id, (key, current) -> {
+      final long currentVersion = current == null ? 0 : current.version();
+      final T updated = checkId(key, remapping.apply(key, current));
+      if (updated != null) {
+        updated.version(currentVersion + 1);
+      }
+      return updated;
+    });
+  }
+
+  @Override
+  public @NotNull T computeIfAbsentSync(final @NotNull Long id, final @NotNull Function<? super Long, ? extends @NotNull T> factory) {
+    return this.entities.computeIfAbsent(id, key -> {
+      final T created = checkId(key, factory.apply(key));
+      created.version(1);
+      return created;
+    });
+  }
+
+  @Override
+  public @Nullable T insertIfAbsentSync(final @NotNull T entity) {
+    final boolean[] inserted = new boolean[1];
+    final T stored = this.entities.computeIfAbsent(entity.id(), key -> {
+      inserted[0] = true;
+      return entity;
+    });
+    return inserted[0] ? null : stored;
+  }
+
+  @Override
+  public @Nullable T mergeSync(final @NotNull T entity, final @NotNull BiFunction<? super @NotNull T, ? super @NotNull T, ? extends @Nullable T> remapping) {
+    return this.computeSync(entity.id(), (id, current) -> current == null ? entity : remapping.apply(current, entity));
+  }
+
+  private static <T extends Identity<Long>> @Nullable T checkId(final long id, final @Nullable T entity) {
+    if (entity != null && entity.id() != id) {
+      throw new IllegalArgumentException("Computed entity id " + entity.id() + " does not match key " + id);
+    }
+    return entity;
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.memory.map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentLongObjectMapTest {
+  // Mirrors the map's hash, to pick keys landing on chosen slots of an 8 slot segment.
+  private static long hash(final long key) {
+    long hash = key;
+    hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+    hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+    return hash ^ (hash >>> 31);
+  }
+
+  private static List<Long> keysWithHome(final int slot, final int count) {
+    final List<Long> keys = new ArrayList<>(count);
+    for (long key = 0; keys.size() < count; key++) {
+      if (((int) hash(key) & 7) == slot) {
+        keys.add(key);
+      }
+    }
+    return keys;
+  }
+
+  @Test
+  @DisplayName("colliding keys should stay reachable after removals shift their cluster")
+  void remove_ShouldKeepCollidingKeysReachable() {
+    final ConcurrentLongObjectMap<String> map = new ConcurrentLongObjectMap<>(0, 1);
+    final List<Long> keys = keysWithHome(3, 5);
+    keys.forEach(key -> map.put(key, "value-" + key));
+
+    assertEquals("value-" + keys.get(1), map.remove(keys.get(1)));
+    assertNull(map.remove(keys.get(1)));
+    for (final long key : List.of(keys.get(0), keys.get(2), keys.get(3), keys.get(4))) {
+      assertEquals("value-" + key, map.get(key));
+    }
+    assertEquals(4, map.size());
+  }
+
+  @Test
+  @DisplayName("removals should shift entries that wrapped around the end of the table")
+  void remove_ShouldShiftAcrossWrapAround() {
+    final ConcurrentLongObjectMap<String> map = new ConcurrentLongObjectMap<>(0, 1);
+    final List<Long> tail = keysWithHome(7, 3);
+    final long head = keysWithHome(0, 1).get(0);
+    // slots 7, 0 and 1 hold the tail keys, pushing the key homed at 0 to slot 2
+    tail.forEach(key -> map.put(key, "tail-" + key));
+    map.put(head, "head");
+
+    assertNotNull(map.remove(tail.get(0)));
+    assertEquals("tail-" + tail.get(1), map.get(tail.get(1)));
+    assertEquals("tail-" + tail.get(2), map.get(tail.get(2)));
+    assertEquals("head", map.get(head));
+
+    assertNotNull(map.remove(tail.get(2)));
+    assertEquals("tail-" + tail.get(1), map.get(tail.get(1)));
+    assertEquals("head", map.get(head));
+    assertEquals(2, map.size());
+  }
+
+  @Test
+  @DisplayName("the map should resize as it grows and keep every entry")
+  void put_ShouldResizeAndKeepEntries() {
+    final ConcurrentLongObjectMap<Long> map = new ConcurrentLongObjectMap<>(0, 2);
+    for (long key = -5_000; key < 5_000; key++) {
+      assertNull(map.put(key, key));
+    }
+    assertEquals(10_000, map.size());
+    for (long key = -5_000; key < 5_000; key += 2) {
+      assertEquals(key, map.remove(key));
+    }
+    for (long key = -5_000; key < 5_000; key++) {
+      assertEquals(key % 2 == 0 ? null : Long.valueOf(key), map.get(key));
+    }
+
+    final Set<Long> keys = new HashSet<>();
+    map.forEachKey(keys::add);
+    assertEquals(5_000, keys.size());
+    assertEquals(5_000L, map.compute(5_000, (key, current) -> key));
+    assertNull(map.compute(5_000, (key, current) -> null));
+    assertFalse(map.containsKey(5_000));
+    map.clear();
+    assertEquals(0, map.size());
+  }
+
+  @Test
+  @DisplayName("optimistic reads racing with writes and resizes should never miss a stable key")
+  void get_ShouldReadConsistentlyDuringWrites() throws InterruptedException {
+    final ConcurrentLongObjectMap<Long> map = new ConcurrentLongObjectMap<>(0, 2);
+    for (long key = 0; key < 100; key++) {
+      map.put(key, key);
+    }
+    final AtomicBoolean running = new AtomicBoolean(true);
+    final Queue<String> failures = new ConcurrentLinkedQueue<>();
+    final Thread writer = new Thread(() -> {
+      for (int round = 0; round < 20; round++) {
+        for (long key = 1_000; key < 6_000; key++) {
+          map.put(key, key);
+        }
+        for (long key = 1_000; key < 6_000; key++) {
+          map.remove(key);
+        }
+      }
+      running.set(false);
+    });
+    final List<Thread> readers = new ArrayList<>();
+    for (int t = 0; t < 3; t++) {
+      readers.add(new Thread(() -> {
+        while (running.get()) {
+          for (long key = 0; key < 100; key++) {
+            final Long value = map.get(key);
+            if (value == null || value != key) {
+              failures.add("Read " + value + " for stable key " + key);
+            }
+          }
+          final long churned = 1_000 + (System.nanoTime() & 4_095);
+          final Long value = map.get(churned);
+          if (value != null && value != churned) {
+            failures.add("Read " + value + " for key " + churned);
+          }
+        }
+      }));
+    }
+    readers.forEach(Thread::start);
+    writer.start();
+    writer.join();
+    for (final Thread reader : readers) {
+      reader.join();
+    }
+
+    assertTrue(failures.isEmpty(), () -> "Concurrent reads failed: " + failures);
+    assertEquals(100, map.size());
+  }
+}
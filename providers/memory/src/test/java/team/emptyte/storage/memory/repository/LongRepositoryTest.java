@@ -0,0 +1,118 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.memory.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.emptyte.storage.Identity;
+import team.emptyte.storage.exception.repository.VersionConflictException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongRepositoryTest {
+  @Test
+  @DisplayName("primitive and boxed operations should see the same entities")
+  void operations_ShouldAgreeOnPrimitiveAndBoxedIds() {
+    final LongRepository<Counter> repository = LongRepository.create(0, 1);
+    for (long id = 0; id < 100; id++) {
+      repository.saveSync(new Counter(id, 0));
+    }
+
+    assertEquals(100, repository.countSync());
+    assertTrue(repository.exists(42));
+    assertSame(repository.findSync(42), repository.findSync(Long.valueOf(42)));
+    assertTrue(repository.deleteSync(42));
+    assertFalse(repository.deleteSync(Long.valueOf(42)));
+    assertNull(repository.findSync(42));
+    assertEquals(99, repository.findAllSync(ArrayList::new).size());
+    assertEquals(99, repository.idsSync(ArrayList::new).size());
+
+    repository.deleteAllSync();
+    assertEquals(0, repository.countSync());
+  }
+
+  @Test
+  @DisplayName("conditional writes should advance versions and reject stale ones")
+  void conditionalWrites_ShouldAdvanceVersions() {
+    final LongRepository<Counter> repository = LongRepository.create();
+    assertEquals(1, repository.saveIfVersionSync(new Counter(1, 0), 0).version());
+    assertThrows(VersionConflictException.class, () -> repository.saveIfVersionSync(new Counter(1, 1), 0));
+
+    final Counter updated = repository.computeSync(1L, (id, current) -> new Counter(id, current.count + 1));
+    assertNotNull(updated);
+    assertEquals(2, updated.version());
+    assertEquals(1, repository.computeIfAbsentSync(2L, id -> new Counter(id, 5)).version());
+    assertNull(repository.computeSync(2L, (id, current) -> null));
+    assertThrows(IllegalArgumentException.class, () -> repository.computeSync(3L, (id, current) -> new Counter(4, 0)));
+  }
+
+  @Test
+  @DisplayName("insertIfAbsentSync should report the stored entity even when it is the one being inserted")
+  void insertIfAbsentSync_ShouldReportExistingEntity() {
+    final LongRepository<Counter> repository = LongRepository.create();
+    final Counter counter = new Counter(1, 0);
+
+    assertNull(repository.insertIfAbsentSync(counter));
+    assertSame(counter, repository.insertIfAbsentSync(counter));
+    assertSame(counter, repository.insertIfAbsentSync(new Counter(1, 5)));
+  }
+
+  @Test
+  @DisplayName("concurrent computeSync calls should not lose updates")
+  void computeSync_ShouldApplyConcurrentUpdatesAtomically() throws InterruptedException {
+    final LongRepository<Counter> repository = LongRepository.create(0, 2);
+    final List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      threads.add(new Thread(() -> {
+        for (int j = 0; j < 1_000; j++) {
+          final long id = j % 10;
+          repository.computeSync(id, (key, current) -> new Counter(key, current == null ? 1 : current.count + 1));
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    for (long id = 0; id < 10; id++) {
+      final Counter counter = repository.findSync(id);
+      assertNotNull(counter);
+      assertEquals(400, counter.count);
+      assertEquals(400, counter.version());
+    }
+  }
+
+  private static final class Counter extends Identity<Long> {
+    private final int count;
+
+    private Counter(final long id, final int count) {
+      super(id);
+      this.count = count;
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.offheap.memory;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A direct buffer split into equally sized chunks, each guarded by a generation counter that
+ * is bumped whenever the chunk is freed. Readers copy a chunk optimistically and discard the copy
+ * if the generation moved underneath them, in the manner of a seqlock, so reads never block
+ * writers or the eviction that recycles chunks.
+ *
+ * <p>The free chunks are tracked by the slab itself, under the lock of the size class owning
+ * it, so a slab whose chunks are all free can be released as a whole.</p>
+ */
+final class Slab {
+  private final ByteBuffer buffer;
+  final int chunkSize;
+  private final AtomicLongArray generations;
+  private final int[] free;
+  private int freeCount;
+
+  Slab(final @NotNull ByteBuffer buffer, final int chunkSize) {
+    this.buffer = buffer;
+    this.chunkSize = chunkSize;
+    this.generations = new AtomicLongArray(buffer.capacity() / chunkSize);
+    this.free = new int[this.generations.length()];
+    for (int i = 0; i < this.free.length; i++) {
+      this.free[i] = this.free.length - 1 - i;
+    }
+    this.freeCount = this.free.length;
+  }
+
+  int chunks() {
+    return this.generations.length();
+  }
+
+  int capacity() {
+    return this.buffer.capacity();
+  }
+
+  boolean hasFree() {
+    return this.freeCount > 0;
+  }
+
+  boolean isEmpty() {
+    return this.freeCount == this.free.length;
+  }
+
+  int take() {
+    return this.free[--this.freeCount];
+  }
+
+  void give(final int index) {
+    this.free[this.freeCount++] = index;
+  }
+
+  // Only called for free chunks, which no valid reader can be looking at.
+  @NotNull Chunk write(final int index, final byte @NotNull [] bytes) {
+    this.buffer.put(index * this.chunkSize, bytes);
+    return new Chunk(this, index, this.generations.get(index), bytes.length);
+  }
+
+  byte @Nullable [] read(final int index, final long generation, final int length) {
+    if (this.generations.get(index) != generation) {
+      return null;
+    }
+    final byte[] bytes = new byte[length];
+    this.buffer.get(index * this.chunkSize, bytes);
+    VarHandle.loadLoadFence();
+    return this.generations.get(index) == generation ? bytes : null;
+  }
+
+  void invalidate(final int index) {
+    this.generations.incrementAndGet(index);
+  }
+}
@@ -0,0 +1,232 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.offheap.memory;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.emptyte.storage.exception.repository.RepositoryException;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out fixed-size chunks carved from direct {@link ByteBuffer} slabs, never reserving more
+ * than a fixed budget of direct memory.
+ *
+ * <p>Chunk sizes are powers of two from {@link #MIN_CHUNK_SIZE} up to the slab size, so a value
+ * wastes at most half its chunk. Each slab serves a single size class and is sized for
+ * {@link #CHUNKS_PER_SLAB} chunks, up to the slab size, so a size class in little use only
+ * reserves a small slab. A slab whose chunks are all freed is released once its class has
+ * another slab to allocate from, and every empty slab is released before the budget is declared
+ * exhausted.</p>
+ */
+public final class SlabAllocator {
+  public static final int MIN_CHUNK_SIZE = 64;
+  public static final int CHUNKS_PER_SLAB = 64;
+
+  private final int slabSize;
+  private volatile long maximumBytes;
+  private final SizeClass[] sizeClasses;
+  private final AtomicLong reservedBytes = new AtomicLong();
+  private final AtomicLong usedBytes = new AtomicLong();
+
+  /**
+   * Creates an allocator reserving at most {@code maximumBytes} of direct memory in slabs of up
+   * to {@code slabSize} bytes.
+   */
+  public SlabAllocator(final int slabSize, final long maximumBytes) {
+    if (slabSize < MIN_CHUNK_SIZE || Integer.bitCount(slabSize) != 1) {
+      throw new IllegalArgumentException("Slab size must be a power of two of at least " + MIN_CHUNK_SIZE + ": " + slabSize);
+    }
+    if (maximumBytes < 0) {
+      throw new IllegalArgumentException("Maximum bytes cannot be negative: " + maximumBytes);
+    }
+    this.slabSize = slabSize;
+    this.maximumBytes = maximumBytes;
+    this.sizeClasses = new SizeClass[Integer.numberOfTrailingZeros(slabSize) - Integer.numberOfTrailingZeros(MIN_CHUNK_SIZE) + 1];
+    for (int i = 0; i < this.sizeClasses.length; i++) {
+      final int chunkSize = MIN_CHUNK_SIZE << i;
+      this.sizeClasses[i] = new SizeClass(chunkSize, (int) Math.min(slabSize, (long) chunkSize * CHUNKS_PER_SLAB));
+    }
+  }
+
+  /**
+   * Returns the size of the chunk a value of {@code length} bytes is stored in.
+   */
+  public int chunkSize(final int length) {
+    return this.sizeClass(length).chunkSize;
+  }
+
+  /**
+   * Copies {@code bytes} into a free chunk, reserving a new slab if its size class has none.
+   *
+   * @return the chunk, or {@code null} if no slab can be reserved within the budget until some
+   *   chunks are freed
+   * @throws RepositoryException if {@code bytes} does not fit in a slab
+   */
+  public @Nullable Chunk allocate(final byte @NotNull [] bytes) {
+    final SizeClass sizeClass = this.sizeClass(bytes.length);
+    Slot slot = sizeClass.take();
+    if (slot == null) {
+      final Slab slab = this.reserve(sizeClass);
+      if (slab == null) {
+        return null;
+      }
+      slot = sizeClass.add(slab);
+    }
+    final Chunk chunk = slot.slab.write(slot.index, bytes);
+    this.usedBytes.addAndGet(sizeClass.chunkSize);
+    return chunk;
+  }
+
+  /**
+   * Returns {@code chunk} to its slab. Readers still holding it see it as invalid from this
+   * point on.
+   */
+  public void free(final @NotNull Chunk chunk) {
+    final Slab slab = chunk.slab();
+    slab.invalidate(chunk.index());
+    this.usedBytes.addAndGet(-slab.chunkSize);
+    this.sizeClasses[Integer.numberOfTrailingZeros(slab.chunkSize) - Integer.numberOfTrailingZeros(MIN_CHUNK_SIZE)].give(slab, chunk.index());
+  }
+
+  public long reservedBytes() {
+    return this.reservedBytes.get();
+  }
+
+  public long usedBytes() {
+    return this.usedBytes.get();
+  }
+
+  public long maximumBytes() {
+    return this.maximumBytes;
+  }
+
+  /**
+   * Changes the budget and releases every empty slab. Slabs reserved beyond a lowered budget are
+   * kept until their chunks are freed, and no slab is reserved until usage is back under it.
+   */
+  public void resize(final long maximumBytes) {
+    if (maximumBytes < 0) {
+      throw new IllegalArgumentException("Maximum bytes cannot be negative: " + maximumBytes);
+    }
+    this.maximumBytes = maximumBytes;
+    for (final SizeClass sizeClass : this.sizeClasses) {
+      sizeClass.releaseEmpty();
+    }
+  }
+
+  // Concurrent allocators may each reserve a slab; the extra chunks are simply left free.
+  private @Nullable Slab reserve(final @NotNull SizeClass sizeClass) {
+    if (!this.tryReserve(sizeClass.slabBytes)) {
+      for (final SizeClass other : this.sizeClasses) {
+        other.releaseEmpty();
+      }
+      if (!this.tryReserve(sizeClass.slabBytes)) {
+        return null;
+      }
+    }
+    return new Slab(ByteBuffer.allocateDirect(sizeClass.slabBytes), sizeClass.chunkSize);
+  }
+
+  private boolean tryReserve(final int bytes) {
+    long reserved;
+    do {
+      reserved = this.reservedBytes.get();
+      if (reserved + bytes > this.maximumBytes) {
+        return false;
+      }
+    } while (!this.reservedBytes.compareAndSet(reserved, reserved + bytes));
+    return true;
+  }
+
+  private @NotNull SizeClass sizeClass(final int length) {
+    if (length > this.slabSize) {
+      throw new RepositoryException("Serialized entity of " + length + " bytes exceeds the slab size of " + this.slabSize);
+    }
+    final int chunkSize = Math.max(MIN_CHUNK_SIZE, Integer.highestOneBit(Math.max(1, length - 1)) << 1);
+    return this.sizeClasses[Integer.numberOfTrailingZeros(chunkSize) - Integer.numberOfTrailingZeros(MIN_CHUNK_SIZE)];
+  }
+
+  // Slabs with at least one free chunk, guarded by the class's monitor. Chunks are copied in
+  // and out outside of it.
+  private final class SizeClass {
+    private final int chunkSize;
+    private final int slabBytes;
+    private final Deque<Slab> available = new ArrayDeque<>();
+
+    private SizeClass(final int chunkSize, final int slabBytes) {
+      this.chunkSize = chunkSize;
+      this.slabBytes = slabBytes;
+    }
+
+    private synchronized @Nullable Slot take() {
+      final Slab slab = this.available.peekFirst();
+      if (slab == null) {
+        return null;
+      }
+      final Slot slot = new Slot(slab, slab.take());
+      if (!slab.hasFree()) {
+        this.available.pollFirst();
+      }
+      return slot;
+    }
+
+    private synchronized @NotNull Slot add(final @NotNull Slab slab) {
+      final Slot slot = new Slot(slab, slab.take());
+      if (slab.hasFree()) {
+        this.available.addFirst(slab);
+      }
+      return slot;
+    }
+
+    private synchronized void give(final @NotNull Slab slab, final int index) {
+      if (!slab.hasFree()) {
+        this.available.addLast(slab);
+      }
+      slab.give(index);
+      if (slab.isEmpty() && this.available.size() > 1) {
+        this.available.remove(slab);
+        SlabAllocator.this.reservedBytes.addAndGet(-slab.capacity());
+      }
+    }
+
+    private synchronized void releaseEmpty() {
+      final Iterator<Slab> iterator = this.available.iterator();
+      while (iterator.hasNext()) {
+        final Slab slab = iterator.next();
+        if (slab.isEmpty()) {
+          iterator.remove();
+          SlabAllocator.this.reservedBytes.addAndGet(-slab.capacity());
+        }
+      }
+    }
+  }
+
+  private record Slot(@NotNull Slab slab, int index) {
+  }
+}
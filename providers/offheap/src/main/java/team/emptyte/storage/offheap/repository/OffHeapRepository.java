@@ -0,0 +1,415 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.offheap.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.emptyte.storage.Identity;
+import team.emptyte.storage.exception.repository.RepositoryException;
+import team.emptyte.storage.exception.repository.VersionConflictException;
+import team.emptyte.storage.offheap.memory.Chunk;
+import team.emptyte.storage.offheap.memory.SlabAllocator;
+import team.emptyte.storage.offheap.serialization.BinaryCodec;
+import team.emptyte.storage.repository.AsyncRepository;
+import team.emptyte.storage.repository.concurrent.InFlightLimiter;
+import team.emptyte.storage.repository.context.MemoryBudget;
+import team.emptyte.storage.repository.index.SecondaryIndex;
+import team.emptyte.storage.repository.index.SecondaryIndexes;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * A repository keeping entities serialized in direct memory, decoding them on every read.
+ *
+ * <p>An on-heap Caffeine cache maps each id to the chunk holding its bytes and evicts by the
+ * total size of those chunks, so the heap only holds small index entries however large the
+ * cached data grows. Chunks are recycled once their entry is evicted, replaced or deleted;
+ * a read racing with that discards its copy and looks the id up again.</p>
+ *
+ * <p>The slabs chunks are carved from never take more than the byte budget either. When a
+ * write finds no room left in them, the coldest entries are evicted until its chunk fits.</p>
+ */
+public class OffHeapRepository<T extends Identity<ID>, ID> extends AsyncRepository<T, ID> implements AutoCloseable {
+  private final static int EVICTION_BATCH = 16;
+
+  private final BinaryCodec<T> codec;
+  private final SlabAllocator allocator;
+  private final Cache<ID, Stored> cache;
+  private final SecondaryIndexes<T, ID> indexes;
+  private volatile MemoryBudget.@Nullable Share memoryShare;
+
+  OffHeapRepository(
+    final @NotNull Executor ioExecutor,
+    final @NotNull Executor computeExecutor,
+    final @NotNull InFlightLimiter limiter,
+    final @NotNull List<SecondaryIndex<T, ID>> indexes,
+    final @NotNull BinaryCodec<T> codec,
+    final long maximumBytes,
+    final int slabSize,
+    final boolean recordStats
+  ) {
+    super(ioExecutor, computeExecutor, limiter);
+    this.codec = codec;
+    this.allocator = new SlabAllocator(slabSize, maximumBytes);
+    this.indexes = new SecondaryIndexes<>(indexes);
+    final Caffeine<ID, Stored> caffeine = Caffeine.newBuilder()
+      .maximumWeight(maximumBytes)
+      .weigher((ID id, Stored stored) -> stored.chunk().chunkSize())
+      // frees chunks on the writing thread, so they are reusable as soon as the write returns
+      .executor(Runnable::run)
+      .removalListener((ID id, Stored stored, RemovalCause cause) -> {
+        if (stored != null) {
+          this.allocator.free(stored.chunk());
+        }
+      });
+    this.cache = recordStats ? caffeine.recordStats().build() : caffeine.build();
+  }
+
+  public static <T extends Identity<ID>, ID> @NotNull OffHeapRepositoryBuilder<T, ID> builder(final @NotNull BinaryCodec<T> codec) {
+    return new OffHeapRepositoryBuilder<>(codec);
+  }
+
+  /**
+   * Returns a snapshot of the index cache's hit and eviction counters, all zero unless the
+   * repository records stats.
+   */
+  public @NotNull CacheStats stats() {
+    return this.cache.stats();
+  }
+
+  /**
+   * Returns the bytes taken by chunks holding live entities.
+   */
+  public long usedBytes() {
+    return this.allocator.usedBytes();
+  }
+
+  /**
+   * Returns the direct memory reserved for slabs, including free chunks kept for reuse, which
+   * never exceeds the byte budget.
+   */
+  public long reservedBytes() {
+    return this.allocator.reservedBytes();
+  }
+
+  /**
+   * Returns the current byte budget, the repository's share when it joined a memory budget.
+   */
+  public long maximumBytes() {
+    return this.allocator.maximumBytes();
+  }
+
+  // Evicts down to a lowered budget before the allocator releases the slabs left empty.
+  void resize(final long maximumBytes) {
+    this.cache.policy().eviction().orElseThrow().setMaximum(maximumBytes);
+    this.allocator.resize(maximumBytes);
+  }
+
+  void memoryShare(final MemoryBudget.@Nullable Share memoryShare) {
+    this.memoryShare = memoryShare;
+  }
+
+  /**
+   * Hands the repository's share of the memory budget it was built with, if any, back to the
+   * other caches. The repository stays usable within its last budget.
+   */
+  @Override
+  public void close() {
+    final MemoryBudget.Share memoryShare = this.memoryShare;
+    if (memoryShare != null) {
+      memoryShare.close();
+    }
+  }
+
+  @Override
+  public boolean exists(final @NotNull ID id) {
+    return this.cache.asMap().containsKey(id);
+  }
+
+  @Override
+  public @Nullable T findSync(final @NotNull ID id) {
+    Stored stored = this.cache.getIfPresent(id);
+    while (stored != null) {
+      final T entity = this.decode(stored);
+      if (entity != null) {
+        return entity;
+      }
+      stored = this.cache.getIfPresent(id);
+    }
+    return null;
+  }
+
+  @Override
+  public <C extends Collection<@NotNull T>> @NotNull C findAllSync(final @NotNull IntFunction<C> factory) {
+    final C collection = factory.apply(0);
+    this.cache.asMap().forEach((id, stored) -> {
+      final T entity = this.decode(stored);
+      if (entity != null) {
+        collection.add(entity);
+      }
+    });
+    return collection;
+  }
+
+  @Override
+  public @NotNull Stream<@NotNull T> stream() {
+    return this.cache.asMap().values().stream()
+      .map(this::decode)
+      .filter(Objects::nonNull);
+  }
+
+  @Override
+  public @NotNull Stream<@NotNull ID> streamIds() {
+    return this.cache.asMap().keySet().stream();
+  }
+
+  @Override
+  public long countSync() {
+    return this.cache.estimatedSize();
+  }
+
+  // Evicted entities stay indexed until a lookup finds them missing.
+  @Override
+  public <C extends Collection<@NotNull T>> @NotNull C findByIndexSync(final @NotNull String index, final @NotNull Object key, final @NotNull IntFunction<C> factory) {
+    return this.indexes.find(index, key, factory, this::findOrPrune);
+  }
+
+  private @Nullable T findOrPrune(final @NotNull ID id) {
+    final T entity = this.findSync(id);
+    if (entity == null) {
+      this.cache.asMap().computeIfAbsent(id, this::pruned);
+    }
+    return entity;
+  }
+
+  // Drops an evicted entity from the indexes without reporting it, since it was never deleted.
+  private @Nullable Stored pruned(final @NotNull ID id) {
+    this.indexes.deleted(id);
+    return null;
+  }
+
+  @Override
+  public boolean deleteSync(final @NotNull ID id) {
+    final boolean[] removed = new boolean[1];
+    this.changes().staged(() -> this.cache.asMap().computeIfPresent(id, (key, current) -> {
+      removed[0] = true;
+      return this.store(key, null);
+    }));
+    return removed[0];
+  }
+
+  @Override
+  public @Nullable T deleteAndRetrieveSync(final @NotNull ID id) {
+    final List<T> removed = new ArrayList<>(1);
+    this.changes().staged(() -> this.cache.asMap().computeIfPresent(id, (key, current) -> {
+      removed.add(this.decodeHeld(current));
+      return this.store(key, null);
+    }));
+    return removed.isEmpty() ? null : removed.get(0);
+  }
+
+  @Override
+  public void deleteAllSync() {
+    if (this.changes().hasSubscribers()) {
+      for (final ID id : this.cache.asMap().keySet()) {
+        this.deleteSync(id);
+      }
+    }
+    this.cache.invalidateAll();
+    this.indexes.cleared();
+  }
+
+  @Override
+  public @NotNull T saveSync(final @NotNull T entity) {
+    this.withRoom(() -> this.cache.asMap().compute(entity.id(), (id, current) -> this.store(id, entity)));
+    return entity;
+  }
+
+  @Override
+  public @NotNull T saveIfVersionSync(final @NotNull T entity, final long expectedVersion) {
+    final long previousVersion = entity.version();
+    try {
+      this.withRoom(() -> this.cache.asMap().compute(entity.id(), (id, current) -> {
+        final long actualVersion = current == null ? 0 : current.version();
+        if (actualVersion != expectedVersion) {
+          throw new VersionConflictException(id, expectedVersion, actualVersion);
+        }
+        entity.version(expectedVersion + 1);
+        return this.store(id, entity);
+      }));
+    } catch (final RuntimeException e) {
+      entity.version(previousVersion);
+      throw e;
+    }
+    return entity;
+  }
+
+  @Override
+  public @Nullable T computeSync(final @NotNull ID id, final @NotNull BiFunction<? super ID, ? super @Nullable T, ? extends @Nullable T> remapping) {
+    final List<T> result = new ArrayList<>(1);
+    this.withRoom(() -> this.cache.asMap().compute(id, (key, current) -> {
+      result.clear();
+      final T updated = checkId(key, remapping.apply(key, current == null ? null : this.decodeHeld(current)));
+      result.add(updated);
+      if (updated == null && current == null) {
+        return null;
+      }
+      if (updated != null) {
+        updated.version((current == null ? 0 : current.version()) + 1);
+      }
+      return this.store(key, updated);
+    }));
+    return result.get(0);
+  }
+
+  @Override
+  public @NotNull T computeIfAbsentSync(final @NotNull ID id, final @NotNull Function<? super ID, ? extends @NotNull T> factory) {
+    final List<T> result = new ArrayList<>(1);
+    while (true) {
+      final Stored stored = this.withRoom(() -> this.cache.asMap().computeIfAbsent(id, key -> {
+        final T created = checkId(key, factory.apply(key));
+        created.version(1);
+        final Stored entry = this.store(key, created);
+        result.add(created);
+        return entry;
+      }));
+      if (!result.isEmpty()) {
+        return result.get(0);
+      }
+      // The existing entry may be replaced and its chunk freed before it is decoded.
+      final T existing = this.decode(stored);
+      if (existing != null) {
+        return existing;
+      }
+    }
+  }
+
+  @Override
+  public @Nullable T insertIfAbsentSync(final @NotNull T entity) {
+    final boolean[] inserted = new boolean[1];
+    while (true) {
+      final Stored stored = this.withRoom(() -> this.cache.asMap().computeIfAbsent(entity.id(), key -> {
+        final Stored entry = this.store(key, entity);
+        inserted[0] = true;
+        return entry;
+      }));
+      if (inserted[0]) {
+        return null;
+      }
+      final T existing = this.decode(stored);
+      if (existing != null) {
+        return existing;
+      }
+    }
+  }
+
+  @Override
+  public @Nullable T mergeSync(final @NotNull T entity, final @NotNull BiFunction<? super @NotNull T, ? super @NotNull T, ? extends @Nullable T> remapping) {
+    return this.computeSync(entity.id(), (id, current) -> current == null ? entity : remapping.apply(current, entity));
+  }
+
+  // Called inside the map's compute functions, so index updates and events for one id are
+  // ordered like its writes; the events are staged and delivered once the compute returns.
+  // The replaced chunk is freed by the removal listener once the new one is in place.
+  private @Nullable Stored store(final @NotNull ID id, final @Nullable T entity) {
+    if (entity == null) {
+      this.indexes.deleted(id);
+      this.changes().deleted(id, null);
+      return null;
+    }
+    final Chunk chunk = this.allocator.allocate(this.codec.encode(entity));
+    if (chunk == null) {
+      throw new BudgetExhaustedException();
+    }
+    this.indexes.saved(entity);
+    this.changes().saved(entity);
+    return new Stored(chunk, entity.version());
+  }
+
+  // Runs a write, evicting the coldest entries and retrying it whenever its chunk did not fit
+  // the budget. Evicting from within the map's compute functions could deadlock, so the write
+  // is abandoned and its compute function may run again.
+  private <R> R withRoom(final @NotNull Supplier<R> write) {
+    while (true) {
+      try {
+        return this.changes().staged(write);
+      } catch (final BudgetExhaustedException e) {
+        final Map<ID, Stored> coldest = this.cache.policy().eviction().orElseThrow().coldest(EVICTION_BATCH);
+        if (coldest.isEmpty()) {
+          throw new RepositoryException("Off-heap budget of " + this.allocator.maximumBytes() + " bytes cannot hold the entity");
+        }
+        coldest.forEach((id, stored) -> this.cache.asMap().remove(id, stored));
+      }
+    }
+  }
+
+  private @Nullable T decode(final @NotNull Stored stored) {
+    final byte[] bytes = stored.chunk().read();
+    if (bytes == null) {
+      return null;
+    }
+    final T entity = this.codec.decode(bytes);
+    entity.version(stored.version());
+    return entity;
+  }
+
+  // Inside a compute function the entry cannot be freed, so its chunk is always readable.
+  private @NotNull T decodeHeld(final @NotNull Stored stored) {
+    return Objects.requireNonNull(this.decode(stored), "Chunk freed while its entry was held");
+  }
+
+  private static <T extends Identity<ID>, ID> @Nullable T checkId(final @NotNull ID id, final @Nullable T entity) {
+    if (entity != null && !id.equals(entity.id())) {
+      throw new IllegalArgumentException("Computed entity id " + entity.id() + " does not match key " + id);
+    }
+    return entity;
+  }
+
+  private record Stored(@NotNull Chunk chunk, long version) {
+  }
+
+  private static final class BudgetExhaustedException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private BudgetExhaustedException() {
+      super(null, null, false, false);
+    }
+  }
+}
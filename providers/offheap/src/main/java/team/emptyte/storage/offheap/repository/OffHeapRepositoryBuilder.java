@@ -0,0 +1,89 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.offheap.repository;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import team.emptyte.storage.Identity;
+import team.emptyte.storage.offheap.serialization.BinaryCodec;
+import team.emptyte.storage.repository.builder.RepositoryBuilder;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+public class OffHeapRepositoryBuilder<T extends Identity<ID>, ID> extends RepositoryBuilder<T, ID, OffHeapRepositoryBuilder<T, ID>> {
+  private final BinaryCodec<T> codec;
+
+  private long maximumBytes = 256L * 1024 * 1024;
+  private int slabSize = 1024 * 1024;
+  private boolean recordStats;
+
+  public OffHeapRepositoryBuilder(final @NotNull BinaryCodec<T> codec) {
+    this.codec = codec;
+  }
+
+  /**
+   * Sets the byte budget for stored entities, counted in whole chunks. Least valuable entities
+   * are evicted once it is exceeded. A repository joining a
+   * {@link #memoryBudget(team.emptyte.storage.repository.context.MemoryBudget) memory budget}
+   * follows its share of it instead.
+   */
+  @Contract("_ -> this")
+  public @NotNull OffHeapRepositoryBuilder<T, ID> maximumBytes(final long maximumBytes) {
+    if (maximumBytes < 0) {
+      throw new IllegalArgumentException("Maximum bytes cannot be negative: " + maximumBytes);
+    }
+    this.maximumBytes = maximumBytes;
+    return this;
+  }
+
+  /**
+   * Sets the size of each direct buffer chunks are carved from, which also caps the serialized
+   * size of a single entity. Must be a power of two.
+   */
+  @Contract("_ -> this")
+  public @NotNull OffHeapRepositoryBuilder<T, ID> slabSize(final int slabSize) {
+    this.slabSize = slabSize;
+    return this;
+  }
+
+  @Contract("_ -> this")
+  public @NotNull OffHeapRepositoryBuilder<T, ID> recordStats(final boolean recordStats) {
+    this.recordStats = recordStats;
+    return this;
+  }
+
+  @Override
+  public @NotNull OffHeapRepository<T, ID> buildAsync(final @NotNull Executor ioExecutor, final @NotNull Executor computeExecutor) {
+    Objects.requireNonNull(this.codec, "Codec cannot be null");
+    Objects.requireNonNull(ioExecutor, "I/O executor cannot be null");
+    Objects.requireNonNull(computeExecutor, "Compute executor cannot be null");
+
+    final Executor scheduledIoExecutor = this.scheduled(ioExecutor);
+    final Executor scheduledComputeExecutor = computeExecutor == ioExecutor ? scheduledIoExecutor : this.scheduled(computeExecutor);
+    final OffHeapRepository<T, ID> repository = new OffHeapRepository<>(scheduledIoExecutor, scheduledComputeExecutor, this.limiter(), this.indexes(), this.codec, this.maximumBytes, this.slabSize, this.recordStats);
+    repository.memoryShare(this.joinMemoryBudget("off-heap", repository::resize));
+    return repository;
+  }
+}
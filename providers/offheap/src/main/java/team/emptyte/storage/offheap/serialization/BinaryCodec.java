@@ -0,0 +1,67 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.offheap.serialization;
+
+import org.jetbrains.annotations.NotNull;
+import team.emptyte.storage.serialization.Reader;
+import team.emptyte.storage.serialization.TypeSerializer;
+import team.emptyte.storage.serialization.Writer;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Converts entities to and from the bytes kept off-heap.
+ */
+public interface BinaryCodec<T> {
+  byte @NotNull [] encode(final @NotNull T entity);
+
+  @NotNull T decode(final byte @NotNull [] bytes);
+
+  /**
+   * Adapts a {@link TypeSerializer} to bytes, for example
+   * {@code of(serializer, JsonWriter::new, json -> json.toString().getBytes(UTF_8), LazyJsonReader::new)}
+   * to keep gson-serialized entities off-heap.
+   */
+  static <T, O> @NotNull BinaryCodec<T> of(
+    final @NotNull TypeSerializer<T, O> serializer,
+    final @NotNull Supplier<? extends Writer<O>> writers,
+    final @NotNull Function<? super O, byte @NotNull []> toBytes,
+    final @NotNull Function<byte @NotNull [], ? extends Reader<O>> readers
+  ) {
+    return new BinaryCodec<>() {
+      @Override
+      public byte @NotNull [] encode(final @NotNull T entity) {
+        final Writer<O> writer = writers.get();
+        serializer.serialize(entity, writer);
+        return toBytes.apply(writer.end());
+      }
+
+      @Override
+      public @NotNull T decode(final byte @NotNull [] bytes) {
+        return serializer.deserialize(readers.apply(bytes));
+      }
+    };
+  }
+}
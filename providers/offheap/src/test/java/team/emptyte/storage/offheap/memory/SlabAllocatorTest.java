@@ -0,0 +1,216 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.offheap.memory;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.emptyte.storage.exception.repository.RepositoryException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlabAllocatorTest {
+  private static byte[] filled(final int length, final int value) {
+    final byte[] bytes = new byte[length];
+    Arrays.fill(bytes, (byte) value);
+    return bytes;
+  }
+
+  @Test
+  @DisplayName("allocate should reserve a slab sized for its class only when the class needs one")
+  void allocate_ShouldReserveSlabsOnDemand() {
+    final SlabAllocator allocator = new SlabAllocator(1024 * 1024, 16L * 1024 * 1024);
+    assertEquals(0, allocator.reservedBytes());
+
+    final Chunk chunk = allocator.allocate(filled(10, 7));
+    assertNotNull(chunk);
+    assertEquals(64, chunk.chunkSize());
+    assertEquals(64L * SlabAllocator.CHUNKS_PER_SLAB, allocator.reservedBytes());
+    assertEquals(64, allocator.usedBytes());
+    assertArrayEquals(filled(10, 7), chunk.read());
+
+    allocator.free(chunk);
+    assertNull(chunk.read());
+    assertEquals(0, allocator.usedBytes());
+    assertThrows(RepositoryException.class, () -> allocator.allocate(new byte[1024 * 1024 + 1]));
+  }
+
+  @Test
+  @DisplayName("allocate should stay within the budget and reuse the memory of emptied slabs")
+  void allocate_ShouldEnforceBudgetAndReclaimEmptySlabs() {
+    final SlabAllocator allocator = new SlabAllocator(1024, 4096);
+    final List<Chunk> small = new ArrayList<>();
+    Chunk chunk;
+    while ((chunk = allocator.allocate(filled(64, 1))) != null) {
+      small.add(chunk);
+    }
+    assertEquals(64, small.size());
+    assertEquals(4096, allocator.reservedBytes());
+    assertNull(allocator.allocate(filled(1024, 2)));
+
+    small.forEach(allocator::free);
+    assertEquals(1024, allocator.reservedBytes());
+
+    for (int i = 0; i < 4; i++) {
+      assertNotNull(allocator.allocate(filled(1024, 2)));
+    }
+    assertEquals(4096, allocator.reservedBytes());
+    assertEquals(4096, allocator.usedBytes());
+  }
+
+  @Test
+  @DisplayName("resize should release empty slabs and hold allocations to the new budget")
+  void resize_ShouldApplyNewBudget() {
+    final SlabAllocator allocator = new SlabAllocator(1024, 4096);
+    final List<Chunk> chunks = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      chunks.add(allocator.allocate(filled(1024, i)));
+    }
+    allocator.free(chunks.remove(2));
+    assertEquals(3072, allocator.reservedBytes());
+
+    allocator.resize(1024);
+    assertEquals(1024, allocator.maximumBytes());
+    assertEquals(2048, allocator.reservedBytes());
+    assertNull(allocator.allocate(filled(1024, 3)));
+
+    chunks.forEach(allocator::free);
+    allocator.resize(2048);
+    assertNotNull(allocator.allocate(filled(1024, 4)));
+    assertNotNull(allocator.allocate(filled(1024, 5)));
+    assertNull(allocator.allocate(filled(1024, 6)));
+    assertEquals(2048, allocator.reservedBytes());
+  }
+
+  @Test
+  @DisplayName("readers racing with frees and reuse should see whole values or nothing")
+  void read_ShouldNeverReturnTornValues() throws InterruptedException {
+    final SlabAllocator allocator = new SlabAllocator(4096, 64 * 1024);
+    final AtomicReferenceArray<Chunk> slots = new AtomicReferenceArray<>(8);
+    for (int i = 0; i < slots.length(); i++) {
+      slots.set(i, allocator.allocate(filled(200, i)));
+    }
+    final AtomicBoolean running = new AtomicBoolean(true);
+    final Queue<String> failures = new ConcurrentLinkedQueue<>();
+    final List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 2; t++) {
+      final int seed = t;
+      threads.add(new Thread(() -> {
+        for (int j = 0; j < 20_000; j++) {
+          final int slot = (j + seed) % slots.length();
+          final Chunk replacement = allocator.allocate(filled(100 + j % 150, j));
+          if (replacement == null) {
+            failures.add("Allocation failed within the budget");
+            return;
+          }
+          allocator.free(slots.getAndSet(slot, replacement));
+        }
+      }));
+    }
+    for (int t = 0; t < 3; t++) {
+      threads.add(new Thread(() -> {
+        while (running.get()) {
+          for (int i = 0; i < slots.length(); i++) {
+            final Chunk chunk = slots.get(i);
+            final byte[] bytes = chunk.read();
+            if (bytes == null) {
+              continue;
+            }
+            if (bytes.length != chunk.length()) {
+              failures.add("Read " + bytes.length + " bytes of a " + chunk.length() + " byte value");
+            }
+            for (final byte b : bytes) {
+              if (b != bytes[0]) {
+                failures.add("Torn read of chunk " + chunk.index());
+                break;
+              }
+            }
+          }
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (int t = 0; t < 2; t++) {
+      threads.get(t).join();
+    }
+    running.set(false);
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    assertTrue(failures.isEmpty(), () -> "Concurrent access failed: " + failures);
+    assertTrue(allocator.reservedBytes() <= 64 * 1024);
+  }
+
+  @Test
+  @DisplayName("concurrent allocations should never hand out a chunk twice")
+  void allocate_ShouldHandOutEachChunkOnce() throws InterruptedException {
+    final SlabAllocator allocator = new SlabAllocator(1024, 64 * 1024);
+    final Set<List<Object>> live = ConcurrentHashMap.newKeySet();
+    final Queue<String> failures = new ConcurrentLinkedQueue<>();
+    final Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        final List<Chunk> held = new ArrayList<>();
+        for (int j = 0; j < 10_000; j++) {
+          final Chunk chunk = allocator.allocate(filled(1 + j % 500, j));
+          if (chunk == null) {
+            failures.add("Allocation failed within the budget");
+            return;
+          }
+          if (!live.add(List.of(chunk.slab(), chunk.index()))) {
+            failures.add("Chunk handed out twice");
+          }
+          held.add(chunk);
+          if (held.size() > 8) {
+            final Chunk freed = held.remove(j % held.size());
+            live.remove(List.of(freed.slab(), freed.index()));
+            allocator.free(freed);
+          }
+        }
+        held.forEach(chunk -> {
+          live.remove(List.of(chunk.slab(), chunk.index()));
+          allocator.free(chunk);
+        });
+      });
+      threads[t].start();
+    }
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    assertTrue(failures.isEmpty(), () -> "Concurrent access failed: " + failures);
+    assertEquals(0, allocator.usedBytes());
+    assertTrue(allocator.reservedBytes() <= 64 * 1024);
+  }
+}
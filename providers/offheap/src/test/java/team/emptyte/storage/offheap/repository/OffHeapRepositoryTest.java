@@ -0,0 +1,189 @@
+/*
+ * This file is part of storage, licensed under the MIT License
+ *
+ * Copyright (c) 2025 Emptyte Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.emptyte.storage.offheap.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.emptyte.storage.Identity;
+import team.emptyte.storage.exception.repository.RepositoryException;
+import team.emptyte.storage.offheap.serialization.BinaryCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapRepositoryTest {
+  private static final BinaryCodec<Player> CODEC = new BinaryCodec<>() {
+    @Override
+    public byte[] encode(final Player player) {
+      return (player.id() + "\n" + player.name).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Player decode(final byte[] bytes) {
+      final String value = new String(bytes, StandardCharsets.UTF_8);
+      final int separator = value.indexOf('\n');
+      return new Player(value.substring(0, separator), value.substring(separator + 1));
+    }
+  };
+
+  private static OffHeapRepository<Player, String> repository(final long maximumBytes) {
+    return OffHeapRepository.<Player, String>builder(CODEC)
+      .maximumBytes(maximumBytes)
+      .slabSize(1024)
+      .index("name", player -> player.name)
+      .buildAsync(Runnable::run, Runnable::run);
+  }
+
+  // Pads the name so the encoded player takes a chunk of the given size class.
+  private static Player player(final String id, final int chunkSize) {
+    return new Player(id, "x".repeat(chunkSize / 2 + 1 - id.length()));
+  }
+
+  @Test
+  @DisplayName("entities should round-trip through their off-heap bytes with their versions")
+  void operations_ShouldRoundTripEntities() {
+    final OffHeapRepository<Player, String> repository = repository(4096);
+    repository.saveSync(new Player("player-1", "Jane"));
+    repository.saveIfVersionSync(new Player("player-2", "John"), 0);
+
+    final Player found = repository.findSync("player-2");
+    assertNotNull(found);
+    assertEquals("John", found.name);
+    assertEquals(1, found.version());
+    assertEquals("Jane", repository.findSync("player-1").name);
+    assertEquals(List.of("player-1"), repository.findByIndexSync("name", "Jane", ArrayList::new).stream().map(Player::id).toList());
+    assertEquals("John", repository.deleteAndRetrieveSync("player-2").name);
+    assertNull(repository.findSync("player-2"));
+    assertEquals(1, repository.countSync());
+    assertEquals(64, repository.usedBytes());
+  }
+
+  @Test
+  @DisplayName("writes should evict the coldest entities until their chunk fits the budget")
+  void saveSync_ShouldEvictToMakeRoom() {
+    final OffHeapRepository<Player, String> repository = repository(4096);
+    for (int i = 0; i < 64; i++) {
+      repository.saveSync(player("small-" + i, 64));
+    }
+    assertEquals(4096, repository.reservedBytes());
+
+    // Every slab holds small chunks, so the large one only fits once a slab has been emptied.
+    repository.saveSync(player("large", 1024));
+
+    final Player large = repository.findSync("large");
+    assertNotNull(large);
+    assertEquals(player("large", 1024).name, large.name);
+    assertTrue(repository.countSync() < 64);
+    assertTrue(repository.usedBytes() <= 4096);
+    assertEquals(repository.countSync(), repository.findAllSync(ArrayList::new).size());
+  }
+
+  @Test
+  @DisplayName("writes larger than the whole budget should fail without touching the entity's version")
+  void saveIfVersionSync_ShouldFailWhenBudgetCannotHoldEntity() {
+    final OffHeapRepository<Player, String> repository = repository(512);
+    final Player large = player("large", 1024);
+
+    assertThrows(RepositoryException.class, () -> repository.saveIfVersionSync(large, 0));
+    assertEquals(0, large.version());
+    assertNull(repository.findSync("large"));
+    assertEquals(0, repository.usedBytes());
+  }
+
+  @Test
+  @DisplayName("resize should evict down to a lowered budget")
+  void resize_ShouldEvictDownToBudget() {
+    final OffHeapRepository<Player, String> repository = repository(4096);
+    for (int i = 0; i < 64; i++) {
+      repository.saveSync(player("small-" + i, 64));
+    }
+
+    repository.resize(1024);
+
+    assertEquals(1024, repository.maximumBytes());
+    assertTrue(repository.usedBytes() <= 1024);
+    assertTrue(repository.countSync() <= 16);
+    assertEquals(repository.countSync(), repository.findAllSync(ArrayList::new).size());
+  }
+
+  @Test
+  @DisplayName("reads racing writes that free their chunk should retry rather than fail or see nothing")
+  void reads_ShouldRetryWhenChunkIsFreed() throws InterruptedException {
+    final OffHeapRepository<Player, String> repository = repository(64 * 1024);
+    repository.saveSync(new Player("shared", "writer-0"));
+    final Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+    final List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      final String writer = "writer-" + i;
+      threads.add(new Thread(() -> {
+        try {
+          for (int j = 0; j < 2_000; j++) {
+            repository.saveSync(new Player("shared", writer));
+          }
+        } catch (final Throwable throwable) {
+          failures.add(throwable);
+        }
+      }));
+    }
+    threads.add(new Thread(() -> {
+      try {
+        for (int j = 0; j < 2_000; j++) {
+          final Player found = repository.findSync("shared");
+          assertNotNull(found);
+          assertTrue(found.name.startsWith("writer-"));
+          final Player existing = repository.computeIfAbsentSync("shared", id -> {
+            throw new AssertionError("Computed a present entity");
+          });
+          assertTrue(existing.name.startsWith("writer-"));
+          final Player inserted = repository.insertIfAbsentSync(new Player("shared", "reader"));
+          assertNotNull(inserted);
+          assertTrue(inserted.name.startsWith("writer-"));
+        }
+      } catch (final Throwable throwable) {
+        failures.add(throwable);
+      }
+    }));
+    threads.forEach(Thread::start);
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    assertTrue(failures.isEmpty(), () -> "Concurrent access failed: " + failures);
+    assertEquals(64, repository.usedBytes());
+  }
+
+  private static final class Player extends Identity<String> {
+    private final String name;
+
+    private Player(final String id, final String name) {
+      super(id);
+      this.name = name;
+    }
+  }
+}
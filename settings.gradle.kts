@@ -12,6 +12,7 @@ rootProject.name = "storage"
 sequenceOf(
   "bom",
   "core",
+  "processor",
 ).forEach {
   include(":${rootProject.name}-$it")
   project(":${rootProject.name}-$it").projectDir = file(it)
@@ -19,7 +20,9 @@ sequenceOf(
 
 sequenceOf(
   "caffeine",
-  "gson"
+  "gson",
+  "memory",
+  "offheap"
 ).forEach {
   include(":${rootProject.name}-$it-provider")
   project(":${rootProject.name}-$it-provider").projectDir = file("providers/$it")